@@ -0,0 +1,157 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.vaadin.addon.calendar;
+
+import java.io.Serializable;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * Blocked times of a calendar, kept as weekly recurring rules and as minute
+ * bitmaps for single days. Nothing is stored per day for the rules, they are
+ * only evaluated for the days which are shown.
+ * </p>
+ *
+ * <p>
+ * A day is sent to the client as a bitmap with one bit per slot of
+ * {@link #getSlotMinutes()} minutes, packed into 32 bit words. A slot is
+ * blocked if any minute of it is blocked.
+ * </p>
+ */
+@SuppressWarnings("serial")
+class BlockedTimes implements Serializable {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final List<WeeklyRule> rules = new ArrayList<>();
+
+    private final Map<LocalDate, BitSet> days = new HashMap<>();
+
+    private int slotMinutes = 30;
+
+    /**
+     * @return the length of a slot in minutes
+     */
+    int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    /**
+     * Sets the length of a slot, which must divide half an hour.
+     */
+    void setSlotMinutes(int slotMinutes) {
+        if (slotMinutes < 1 || 30 % slotMinutes != 0) {
+            throw new IllegalArgumentException(
+                    "Slot length must divide 30 minutes, was " + slotMinutes);
+        }
+        this.slotMinutes = slotMinutes;
+    }
+
+    /**
+     * Blocks the same minutes on the given days of every week.
+     */
+    void block(Set<DayOfWeek> daysOfWeek, int fromMinute, int toMinute) {
+        if (fromMinute < toMinute) {
+            rules.add(new WeeklyRule(EnumSet.copyOf(daysOfWeek), fromMinute, toMinute));
+        }
+    }
+
+    /**
+     * Blocks minutes of a single day.
+     */
+    void block(LocalDate day, int fromMinute, int toMinute) {
+        if (fromMinute < toMinute) {
+            days.computeIfAbsent(day, d -> new BitSet(MINUTES_PER_DAY)).set(fromMinute, toMinute);
+        }
+    }
+
+    void clear() {
+        rules.clear();
+        days.clear();
+    }
+
+    void clear(LocalDate day) {
+        days.remove(day);
+    }
+
+    boolean isEmpty() {
+        return rules.isEmpty() && days.isEmpty();
+    }
+
+    /**
+     * Gets the blocked slots of a day.
+     *
+     * @return the packed slot bitmap, or null if no slot is blocked
+     */
+    int[] getBlockedSlots(LocalDate day) {
+        BitSet minutes = new BitSet(MINUTES_PER_DAY);
+        for (WeeklyRule rule : rules) {
+            if (rule.days.contains(day.getDayOfWeek())) {
+                minutes.set(rule.from, rule.to);
+            }
+        }
+        BitSet dayMinutes = days.get(day);
+        if (dayMinutes != null) {
+            minutes.or(dayMinutes);
+        }
+        if (minutes.isEmpty()) {
+            return null;
+        }
+
+        // words after the last blocked slot are left out
+        int lastSlot = (minutes.length() - 1) / slotMinutes;
+        int[] words = new int[lastSlot / 32 + 1];
+        for (int minute = minutes.nextSetBit(0); minute >= 0;
+             minute = minutes.nextSetBit(minute)) {
+            int slot = minute / slotMinutes;
+            words[slot / 32] |= 1 << (slot % 32);
+            minute = (slot + 1) * slotMinutes;
+        }
+        return words;
+    }
+
+    /**
+     * Gets the minute of the day of a time, {@link LocalTime#MAX} being the
+     * end of the day.
+     */
+    static int toMinute(LocalTime time) {
+        return LocalTime.MAX.equals(time) ? MINUTES_PER_DAY : time.toSecondOfDay() / 60;
+    }
+
+    private static class WeeklyRule implements Serializable {
+
+        private final Set<DayOfWeek> days;
+
+        private final int from;
+
+        private final int to;
+
+        WeeklyRule(Set<DayOfWeek> days, int from, int to) {
+            this.days = days;
+            this.from = from;
+            this.to = to;
+        }
+    }
+}
@@ -26,28 +26,46 @@ import com.vaadin.server.PaintTarget;
 import com.vaadin.shared.ui.ContentMode;
 import com.vaadin.ui.AbstractComponent;
 import com.vaadin.ui.LegacyComponent;
+import com.vaadin.ui.UI;
+import com.vaadin.ui.UIDetachedException;
 import com.vaadin.ui.declarative.DesignAttributeHandler;
 import com.vaadin.ui.declarative.DesignContext;
 import org.jsoup.nodes.Attributes;
 import org.jsoup.nodes.Element;
+import org.vaadin.addon.calendar.client.CalendarClientRpc;
 import org.vaadin.addon.calendar.client.CalendarEventId;
 import org.vaadin.addon.calendar.client.CalendarServerRpc;
 import org.vaadin.addon.calendar.client.CalendarState;
 import org.vaadin.addon.calendar.client.DateConstants;
+import org.vaadin.addon.calendar.client.ItemColumnsCodec;
 import org.vaadin.addon.calendar.event.*;
 import org.vaadin.addon.calendar.handler.*;
+import org.vaadin.addon.calendar.ui.CalendarActionRule;
 import org.vaadin.addon.calendar.ui.CalendarComponentEvent;
 import org.vaadin.addon.calendar.ui.CalendarComponentEvents;
 import org.vaadin.addon.calendar.ui.CalendarDateRange;
 import org.vaadin.addon.calendar.ui.CalendarTargetDetails;
+import org.vaadin.addon.calendar.ui.RangeActionHandler;
 
 import java.lang.reflect.Method;
 import java.text.DateFormat;
 import java.text.DateFormatSymbols;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -117,6 +135,101 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
      */
     protected List<? extends CalendarItem> items;
 
+    /**
+     * Send item changes to the client as deltas instead of resending all items
+     * in the shared state.
+     */
+    private boolean itemDeltaSync = false;
+
+    /**
+     * Send item times as seconds from the first shown day instead of
+     * formatted date and time strings.
+     */
+    private boolean itemEpochFormat = false;
+
+    /**
+     * Send the items as parallel arrays with a string dictionary instead of
+     * one object per item.
+     */
+    private boolean itemColumnarFormat = false;
+
+    /**
+     * Send only whether an item has a description, the client asks for the
+     * text when the tooltip is shown.
+     */
+    private boolean lazyItemDescriptions = false;
+
+    /** First and last instant covered by the sent time zone offset table. */
+    private long zoneTableFirst;
+
+    /** First and last instant covered by the sent time zone offset table. */
+    private long zoneTableLast;
+
+    /** Range of the pending or delivered asynchronous item request. */
+    private Date asyncFirstDate;
+
+    /** Range of the pending or delivered asynchronous item request. */
+    private Date asyncLastDate;
+
+    /** Pending request of an {@link AsyncCalendarItemProvider}. */
+    private transient CompletableFuture<?> pendingItems;
+
+    /** Items delivered by an {@link AsyncCalendarItemProvider}. */
+    private List<? extends CalendarItem> asyncItems;
+
+    /**
+     * Whether {@link #asyncItems} are shown only until the items requested
+     * again are delivered.
+     */
+    private boolean asyncItemsOutdated;
+
+    /** Stable keys of the items sent to the client. */
+    private final ItemKeyMapper<CalendarItem> itemKeys = new ItemKeyMapper<>();
+
+    /** Last item state sent to the client, by item identity. */
+    private final Map<CalendarItem, CalendarState.Item> sentItems = new IdentityHashMap<>();
+
+    /** First date of the range the items were last fully synced for. */
+    private Date syncedFirstDate;
+
+    /** Last date of the range the items were last fully synced for. */
+    private Date syncedLastDate;
+
+    /**
+     * Items named by detailed change events since the last sync, mapped to
+     * whether they are still in the provider. Null if there is nothing to
+     * patch.
+     */
+    private Map<CalendarItem, Boolean> itemPatch;
+
+    /** True if a change event without details requires a full sync. */
+    private boolean itemsOutdated;
+
+    /**
+     * Parts of the state which are computed again before the next response.
+     * Other changes, like the scroll position or plain state properties, do
+     * not touch them.
+     */
+    private enum Refresh {
+        /** The shown days and their blocked slots. */
+        DAYS,
+        /** The actions of the action handlers. */
+        ACTIONS,
+        /** The items of the shown range. */
+        ITEMS
+    }
+
+    private final Set<Refresh> refresh = EnumSet.allOf(Refresh.class);
+
+    /** True if the range is shown as a scrolling agenda list. */
+    private boolean agendaView;
+
+    /** Number of days the agenda view sends to the client at a time. */
+    private int agendaWindowSize = 28;
+
+    /** First day of the agenda window, null for the start of the range. */
+    private Date agendaWindowStart;
+
     /** Date format that will be used in the UIDL for dates. */
     protected DateFormat df_date = new SimpleDateFormat("yyyy-MM-dd");
 
@@ -195,15 +308,9 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
     private Integer customFirstDayOfWeek;
 
     /**
-     * A map with blocked timeslots.<br>
-     *     Contains a set with timestamp of starttimes.
+     * Blocked time slots, as weekly rules and single days.
      */
-    private final Map<Date, Set<Long>> blockedTimes = new HashMap<>();
-
-    /**
-     * Initial date for all blocked times
-     */
-    private final Date allOverDate = new Date(0);
+    private final BlockedTimes blockedTimes = new BlockedTimes();
 
     /**
      * Returns the logger for the calendar
@@ -297,12 +404,87 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
 
         initCalendarWithLocale();
 
+        // Reset time zones for custom date formats
+        df_date.setTimeZone(currentCalendar.getTimeZone());
+        df_time.setTimeZone(currentCalendar.getTimeZone());
+
         getState().format24H = TimeFormat.Format24H == getTimeFormat();
-        setupDaysAndActions();
-        setupCalendarItems();
+        setupNow();
+
+        if (initial) {
+            refresh.addAll(EnumSet.allOf(Refresh.class));
+        }
+        if (refresh.contains(Refresh.DAYS) || refresh.contains(Refresh.ACTIONS)) {
+            setupDaysAndActions(refresh.contains(Refresh.DAYS),
+                    refresh.contains(Refresh.ACTIONS));
+        }
+        if (refresh.contains(Refresh.ITEMS)) {
+            setupCalendarItems(initial);
+        }
+        refresh.clear();
+
         rpc.scroll(scrollTop);
     }
 
+    /**
+     * Marks parts of the state to be computed again before the next response.
+     */
+    private void markForRefresh(Refresh... parts) {
+        refresh.addAll(Arrays.asList(parts));
+        markAsDirty();
+    }
+
+    /**
+     * Marks the whole state to be computed again, for changes of the shown
+     * range, the locale or the time zone.
+     */
+    private void markRangeChanged() {
+        markForRefresh(Refresh.values());
+    }
+
+    /**
+     * Asks the action handlers for their actions again before the next
+     * response. Actions are otherwise only updated when the shown range or
+     * the action handlers change.
+     */
+    public void refreshActions() {
+        markForRefresh(Refresh.ACTIONS);
+    }
+
+    /**
+     * Gets the items from the item provider again before the next response.
+     * Items are otherwise only updated when the shown range changes or a
+     * provider implementing {@link ItemSetChangedNotifier} reports a change.
+     * Code which called {@link #markAsDirty()} to have the items of another
+     * provider reloaded should call this method instead.
+     */
+    public void refreshItems() {
+        if (getDataProvider() instanceof AsyncCalendarItemProvider) {
+            reloadAsyncItems();
+        }
+        itemPatch = null;
+        itemsOutdated = true;
+        markForRefresh(Refresh.ITEMS);
+    }
+
+    /**
+     * Sets the "now" marker, to the minute so that it changes at most once a
+     * minute.
+     */
+    private void setupNow() {
+        // Use same timezone in all dates this component handles.
+        // Show "now"-marker in browser within given timezone.
+        currentCalendar.setTime(new Date());
+        currentCalendar.set(java.util.Calendar.SECOND, 0);
+        currentCalendar.set(java.util.Calendar.MILLISECOND, 0);
+        Date now = currentCalendar.getTime();
+
+        String formatted = df_date.format(now) + " " + df_time.format(now);
+        if (!formatted.equals(getState(false).now)) {
+            getState().now = formatted;
+        }
+    }
+
     /**
      * Set the ContentMode
      *
@@ -361,7 +543,8 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
     public void setStartDate(Date date) {
         if (!date.equals(startDate)) {
             startDate = date;
-            markAsDirty();
+            agendaWindowStart = null;
+            markRangeChanged();
         }
     }
 
@@ -395,10 +578,10 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
     public void setEndDate(Date date) {
         if (startDate != null && startDate.after(date)) {
             startDate = (Date) date.clone();
-            markAsDirty();
+            markRangeChanged();
         } else if (!date.equals(endDate)) {
             endDate = date;
-            markAsDirty();
+            markRangeChanged();
         }
     }
 
@@ -411,6 +594,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
     public void setLocale(Locale newLocale) {
         super.setLocale(newLocale);
         initCalendarWithLocale();
+        markRangeChanged();
     }
 
     /**
@@ -430,44 +614,437 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         }
     }
 
-    private void setupCalendarItems() {
+    private void setupCalendarItems(boolean initial) {
 
         int durationInDays = (int) ((endDate.getTime() - startDate.getTime()) / DateConstants.DAYINMILLIS);
         durationInDays++;
 
-        if (durationInDays > 60) {
+        if (!agendaView && durationInDays > 60) {
             throw new RuntimeException(
                     "Daterange is too big (max 60) = " + durationInDays);
         }
 
-        Date firstDateToShow = expandStartDate(startDate, durationInDays > 7);
-        Date lastDateToShow = expandEndDate(endDate, durationInDays > 7);
+        Date firstDateToShow = getFirstDateToShow(durationInDays);
+        Date lastDateToShow = getLastDateToShow(firstDateToShow, durationInDays);
 
         currentCalendar.setTime(firstDateToShow);
-        items = getDataProvider().getItems(firstDateToShow, lastDateToShow);
-        cacheMinMaxTimeOfDay(items);
+
+        if (itemPatch != null && !itemsOutdated && itemDeltaSync && !initial
+                && firstDateToShow.equals(syncedFirstDate)
+                && lastDateToShow.equals(syncedLastDate)) {
+            // only the items named by change events need to be compared
+            List<CalendarItem> patched = patchItems(firstDateToShow, lastDateToShow);
+            if (isInZoneTable(itemPatch.keySet())) {
+                cacheMinMaxTimeOfDay(patched);
+                sendItemDelta(patched, itemPatch.keySet());
+                itemPatch = null;
+                return;
+            }
+        }
+        itemPatch = null;
+        itemsOutdated = false;
+
+        List<? extends CalendarItem> fetched = fetchItems(firstDateToShow, lastDateToShow);
+        cacheMinMaxTimeOfDay(fetched);
+
+        if (fetched == null) {
+            fetched = Collections.emptyList();
+        }
+
+        if (itemDeltaSync && !initial
+                && firstDateToShow.equals(syncedFirstDate)
+                && lastDateToShow.equals(syncedLastDate)
+                && isInZoneTable(fetched)) {
+            sendItemDelta(fetched, null);
+            return;
+        }
+
+        items = fetched;
+        itemKeys.retainAll(items);
+
+        if (hasNumericItemTimes()) {
+            setZoneTable(firstDateToShow, lastDateToShow);
+        }
 
         List<CalendarState.Item> calendarStateItems = new ArrayList<>();
-        if (items != null) {
-            for (int i = 0; i < items.size(); i++) {
-                CalendarItem calItem = items.get(i);
-                CalendarState.Item item = new CalendarState.Item();
-                item.index = i;
-                item.caption = calItem.getCaption() == null ? "" : calItem.getCaption();
-                item.dateFrom = df_date.format(calItem.getStart());
-                item.dateTo = df_date.format(calItem.getEnd());
-                item.timeFrom = df_time.format(calItem.getStart());
-                item.timeTo = df_time.format(calItem.getEnd());
-                item.description = calItem.getDescription() == null ? "" : calItem.getDescription();
-                item.styleName = calItem.getStyleName() == null ? "" : calItem.getStyleName();
-                item.allDay = calItem.isAllDay();
-                item.moveable = calItem.isMoveable();
-                item.resizeable = calItem.isResizeable();
-                item.clickable = calItem.isClickable();
-                calendarStateItems.add(item);
+        sentItems.clear();
+        for (CalendarItem calItem : items) {
+            CalendarState.Item item = createStateItem(calItem);
+            calendarStateItems.add(toSentItem(item));
+            if (itemDeltaSync) {
+                sentItems.put(calItem, item);
+            }
+        }
+        if (itemColumnarFormat) {
+            getState().items = null;
+            getState().itemColumns = ItemColumnsCodec.encode(calendarStateItems);
+        } else {
+            getState().items = calendarStateItems;
+            getState().itemColumns = null;
+        }
+
+        if (itemDeltaSync) {
+            // the client may hold a patched copy of an identical item list
+            getState().itemsRevision++;
+        }
+        syncedFirstDate = firstDateToShow;
+        syncedLastDate = lastDateToShow;
+    }
+
+    /**
+     * Gets the start of the first day shown. In the agenda view this is the
+     * first day of the window, otherwise the start date expanded to the start
+     * of the day or, for more than a week, to the start of the week.
+     */
+    private Date getFirstDateToShow(int durationInDays) {
+        if (!agendaView) {
+            return expandStartDate(startDate, durationInDays > 7);
+        }
+
+        Date first = expandStartDate(startDate, false);
+        if (agendaWindowStart != null && agendaWindowStart.after(first)) {
+            Date lastDay = expandStartDate(endDate, false);
+            first = agendaWindowStart.after(lastDay) ? lastDay
+                    : expandStartDate(agendaWindowStart, false);
+        }
+        return first;
+    }
+
+    /**
+     * Gets the end of the last day shown. In the agenda view the window is
+     * limited to {@link #getAgendaWindowSize()} days.
+     */
+    private Date getLastDateToShow(Date firstDateToShow, int durationInDays) {
+        if (!agendaView) {
+            return expandEndDate(endDate, durationInDays > 7);
+        }
+
+        currentCalendar.setTime(firstDateToShow);
+        currentCalendar.add(java.util.Calendar.DATE, agendaWindowSize - 1);
+        Date last = expandEndDate(currentCalendar.getTime(), false);
+        Date rangeEnd = expandEndDate(endDate, false);
+        return last.after(rangeEnd) ? rangeEnd : last;
+    }
+
+    /**
+     * Applies the pending {@link #itemPatch} to the items shown.
+     */
+    private List<CalendarItem> patchItems(Date firstDateToShow, Date lastDateToShow) {
+        List<CalendarItem> patched = new ArrayList<>(items.size());
+        for (CalendarItem item : items) {
+            if (!itemPatch.containsKey(item)) {
+                patched.add(item);
+            }
+        }
+
+        for (Entry<CalendarItem, Boolean> entry : itemPatch.entrySet()) {
+            CalendarItem item = entry.getKey();
+            if (entry.getValue() && item.getStart() != null && item.getEnd() != null
+                    && !item.getStart().after(lastDateToShow)
+                    && !item.getEnd().before(firstDateToShow)) {
+                patched.add(item);
+            }
+        }
+        return patched;
+    }
+
+    /**
+     * Gets the items of the visible range from the item provider. An
+     * {@link AsyncCalendarItemProvider} is only asked to start loading, the
+     * items of a pending request are delivered by a later response.
+     */
+    @SuppressWarnings("unchecked")
+    private List<? extends CalendarItem> fetchItems(Date firstDateToShow, Date lastDateToShow) {
+
+        if (!(getDataProvider() instanceof AsyncCalendarItemProvider)) {
+            if (getState(false).itemsLoading) {
+                getState().itemsLoading = false;
+            }
+            return getDataProvider().getItems(firstDateToShow, lastDateToShow);
+        }
+
+        if (!firstDateToShow.equals(asyncFirstDate) || !lastDateToShow.equals(asyncLastDate)) {
+            // the visible range changed, a pending request is superseded
+            cancelPendingItems();
+            asyncItems = null;
+            asyncItemsOutdated = false;
+            asyncFirstDate = firstDateToShow;
+            asyncLastDate = lastDateToShow;
+        }
+
+        if ((asyncItems == null || asyncItemsOutdated) && pendingItems == null) {
+            requestItems((AsyncCalendarItemProvider<ITEM>) getDataProvider(),
+                    firstDateToShow, lastDateToShow);
+        }
+
+        // outdated items are kept until the new ones arrive, so that the
+        // difference is sent instead of an empty view
+        getState().itemsLoading = pendingItems != null;
+        return asyncItems;
+    }
+
+    private void requestItems(AsyncCalendarItemProvider<ITEM> provider, Date firstDateToShow, Date lastDateToShow) {
+
+        CompletableFuture<List<ITEM>> future = provider.getItemsAsync(firstDateToShow, lastDateToShow);
+
+        if (future.isDone()) {
+            deliverItems(future);
+            return;
+        }
+
+        pendingItems = future;
+
+        final UI ui = getUI();
+        future.whenComplete((result, error) -> {
+            try {
+                ui.access(() -> {
+                    // ignore superseded requests
+                    if (pendingItems == future) {
+                        pendingItems = null;
+                        deliverItems(future);
+                        markForRefresh(Refresh.ITEMS);
+                    }
+                });
+            } catch (UIDetachedException e) {
+                // NOP
+            }
+        });
+    }
+
+    private void deliverItems(CompletableFuture<List<ITEM>> future) {
+        try {
+            List<ITEM> result = future.join();
+            asyncItems = result == null ? Collections.emptyList() : result;
+        } catch (CancellationException | CompletionException e) {
+            getLogger().log(Level.WARNING, "Loading calendar items failed", e);
+            asyncItems = Collections.emptyList();
+        }
+        asyncItemsOutdated = false;
+    }
+
+    /**
+     * Requests the items of an asynchronous provider again. The items
+     * delivered before stay shown until the new ones arrive.
+     */
+    private void reloadAsyncItems() {
+        cancelPendingItems();
+        asyncItemsOutdated = asyncItems != null;
+    }
+
+    /**
+     * Cancels a pending asynchronous item request.
+     */
+    private void cancelPendingItems() {
+        CompletableFuture<?> future = pendingItems;
+        pendingItems = null;
+        if (future != null) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Compares the fetched items against the last sent snapshot and pushes the
+     * added, changed and removed items to the client.
+     *
+     * @param fetched
+     *            The items currently in the visible range
+     * @param affected
+     *            The only items which may have changed, or null to compare
+     *            all items
+     */
+    private void sendItemDelta(List<? extends CalendarItem> fetched, Collection<CalendarItem> affected) {
+
+        Set<CalendarItem> present = Collections.newSetFromMap(new IdentityHashMap<>());
+        present.addAll(fetched);
+
+        List<String> removedItems = new ArrayList<>();
+        if (affected != null) {
+            for (CalendarItem calItem : affected) {
+                CalendarState.Item sent = sentItems.get(calItem);
+                if (sent != null && !present.contains(calItem)) {
+                    removedItems.add(sent.key);
+                    itemKeys.remove(calItem);
+                    sentItems.remove(calItem);
+                }
+            }
+        } else {
+            Iterator<Entry<CalendarItem, CalendarState.Item>> it = sentItems.entrySet().iterator();
+            while (it.hasNext()) {
+                Entry<CalendarItem, CalendarState.Item> sent = it.next();
+                if (!present.contains(sent.getKey())) {
+                    removedItems.add(sent.getValue().key);
+                    itemKeys.remove(sent.getKey());
+                    it.remove();
+                }
+            }
+        }
+
+        List<CalendarState.Item> changedItems = new ArrayList<>();
+        for (CalendarItem calItem : affected != null ? affected : fetched) {
+            if (!present.contains(calItem)) {
+                continue;
+            }
+            CalendarState.Item previous = sentItems.get(calItem);
+            CalendarState.Item item = createStateItem(calItem);
+            if (previous == null || !isSameStateItem(previous, item)) {
+                sentItems.put(calItem, item);
+                changedItems.add(toSentItem(item));
+            }
+        }
+
+        items = fetched;
+
+        if (!changedItems.isEmpty() || !removedItems.isEmpty()) {
+            getRpcProxy(CalendarClientRpc.class).updateItems(changedItems, removedItems);
+        }
+    }
+
+    private CalendarState.Item createStateItem(CalendarItem calItem) {
+        CalendarState.Item item = new CalendarState.Item();
+        item.key = itemKeys.key(calItem);
+        item.caption = calItem.getCaption() == null ? "" : calItem.getCaption();
+        if (hasNumericItemTimes()) {
+            long epoch = getState(false).itemsEpoch;
+            item.start = toItemSeconds(calItem.getStart(), epoch);
+            item.end = toItemSeconds(calItem.getEnd(), epoch);
+        } else {
+            item.dateFrom = df_date.format(calItem.getStart());
+            item.dateTo = df_date.format(calItem.getEnd());
+            item.timeFrom = df_time.format(calItem.getStart());
+            item.timeTo = df_time.format(calItem.getEnd());
+        }
+        item.description = calItem.getDescription() == null ? "" : calItem.getDescription();
+        item.hasDescription = !item.description.isEmpty();
+        item.styleName = calItem.getStyleName() == null ? "" : calItem.getStyleName();
+        item.allDay = calItem.isAllDay();
+        item.moveable = calItem.isMoveable();
+        item.resizeable = calItem.isResizeable();
+        item.clickable = calItem.isClickable();
+        return item;
+    }
+
+    /**
+     * Gets the item as sent to the client, without the description if
+     * descriptions are loaded lazily. The snapshot of sent items keeps the
+     * description, so changing it still counts as a change of the item.
+     */
+    private CalendarState.Item toSentItem(CalendarState.Item item) {
+        if (!lazyItemDescriptions) {
+            return item;
+        }
+        CalendarState.Item sent = new CalendarState.Item();
+        sent.key = item.key;
+        sent.caption = item.caption;
+        sent.dateFrom = item.dateFrom;
+        sent.dateTo = item.dateTo;
+        sent.timeFrom = item.timeFrom;
+        sent.timeTo = item.timeTo;
+        sent.start = item.start;
+        sent.end = item.end;
+        sent.styleName = item.styleName;
+        sent.description = "";
+        sent.hasDescription = item.hasDescription;
+        sent.allDay = item.allDay;
+        sent.moveable = item.moveable;
+        sent.resizeable = item.resizeable;
+        sent.clickable = item.clickable;
+        return sent;
+    }
+
+    private static boolean isSameStateItem(CalendarState.Item a, CalendarState.Item b) {
+        return a.key.equals(b.key)
+                && a.caption.equals(b.caption)
+                && a.start == b.start
+                && a.end == b.end
+                && Objects.equals(a.dateFrom, b.dateFrom)
+                && Objects.equals(a.dateTo, b.dateTo)
+                && Objects.equals(a.timeFrom, b.timeFrom)
+                && Objects.equals(a.timeTo, b.timeTo)
+                && a.description.equals(b.description)
+                && a.styleName.equals(b.styleName)
+                && a.allDay == b.allDay
+                && a.moveable == b.moveable
+                && a.resizeable == b.resizeable
+                && a.clickable == b.clickable;
+    }
+
+    /**
+     * Sets the base of the item times and a table of the time zone offsets
+     * from the first item start, or the first shown day, to the last item end
+     * or the last shown day. The table holds pairs of seconds from the base
+     * and the offset in seconds which applies from then on, so the client
+     * can get the wall clock time of an item without knowing the time zone.
+     */
+    private void setZoneTable(Date firstDateToShow, Date lastDateToShow) {
+        long first = firstDateToShow.getTime();
+        long last = lastDateToShow.getTime();
+        for (CalendarItem item : items) {
+            first = Math.min(first, item.getStart().getTime());
+            last = Math.max(last, item.getEnd().getTime());
+        }
+
+        ZoneId zone = getTimeZone().toZoneId();
+        long epoch = firstDateToShow.getTime();
+
+        CalendarState state = getState();
+        state.itemsEpoch = epoch;
+        state.itemsBase = firstDateToShow.toInstant().atZone(zone).toLocalDate().toString();
+        state.itemZoneOffsets = createZoneTable(zone.getRules(), epoch, first, last);
+        zoneTableFirst = first;
+        zoneTableLast = last;
+    }
+
+    /**
+     * Gets the pairs of seconds from the epoch and the time zone offset in
+     * seconds which applies from then on, from the first to the last instant.
+     */
+    static int[] createZoneTable(ZoneRules rules, long epoch, long first, long last) {
+        Instant from = Instant.ofEpochMilli(first);
+
+        List<Integer> table = new ArrayList<>();
+        table.add((int) Math.floorDiv(first - epoch, 1000));
+        table.add(rules.getOffset(from).getTotalSeconds());
+        ZoneOffsetTransition transition = rules.nextTransition(from);
+        while (transition != null && transition.toEpochSecond() * 1000 <= last) {
+            table.add((int) (transition.toEpochSecond() - Math.floorDiv(epoch, 1000)));
+            table.add(transition.getOffsetAfter().getTotalSeconds());
+            transition = rules.nextTransition(transition.getInstant());
+        }
+
+        int[] offsets = new int[table.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = table.get(i);
+        }
+        return offsets;
+    }
+
+    /**
+     * @return the seconds of a date from the epoch of the item times
+     */
+    static int toItemSeconds(Date date, long epoch) {
+        return (int) Math.floorDiv(date.getTime() - epoch, 1000);
+    }
+
+    private boolean hasNumericItemTimes() {
+        return itemEpochFormat || itemColumnarFormat;
+    }
+
+    /**
+     * Checks whether the sent time zone offset table covers the items, so
+     * their times can be sent as a delta.
+     */
+    private boolean isInZoneTable(Collection<? extends CalendarItem> changed) {
+        if (!hasNumericItemTimes()) {
+            return true;
+        }
+        for (CalendarItem item : changed) {
+            if (item.getStart() != null && item.getEnd() != null
+                    && (item.getStart().getTime() < zoneTableFirst
+                    || item.getEnd().getTime() > zoneTableLast)) {
+                return false;
             }
         }
-        getState().items = calendarStateItems;
+        return true;
     }
 
     /**
@@ -540,10 +1117,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         setLastVisibleHourOfDay(23);
     }
 
-    private void setupDaysAndActions() {
-        // Make sure we have a up-to-date locale
-        initCalendarWithLocale();
-
+    private void setupDaysAndActions(boolean withDays, boolean withActions) {
         CalendarState state = getState();
 
         state.firstDayOfWeek = currentCalendar.getFirstDayOfWeek();
@@ -569,27 +1143,18 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
 
         int durationInDays = (int) ((endDate.getTime() - startDate.getTime())/ DateConstants.DAYINMILLIS);
         durationInDays++;
-        if (durationInDays > 60) {
+        if (!agendaView && durationInDays > 60) {
             throw new RuntimeException( "Daterange is too big (max 60) = " + durationInDays);
         }
 
         state.dayNames = getDayNamesShort();
         state.monthNames = getMonthNamesShort();
 
-        // Use same timezone in all dates this component handles.
-        // Show "now"-marker in browser within given timezone.
-        Date now = new Date();
-        currentCalendar.setTime(now);
-        now = currentCalendar.getTime();
-
-        // Reset time zones for custom date formats
-        df_date.setTimeZone(currentCalendar.getTimeZone());
-        df_time.setTimeZone(currentCalendar.getTimeZone());
+        Date firstDateToShow = getFirstDateToShow(durationInDays);
+        Date lastDateToShow = getLastDateToShow(firstDateToShow, durationInDays);
 
-        state.now = df_date.format(now) + " " + df_time.format(now);
-
-        Date firstDateToShow = expandStartDate(startDate, durationInDays > 7);
-        Date lastDateToShow = expandEndDate(endDate, durationInDays > 7);
+        state.agendaHasPrevious = agendaView && firstDateToShow.after(startDate);
+        state.agendaHasNext = agendaView && lastDateToShow.before(endDate);
 
         currentCalendar.setTime(firstDateToShow);
 
@@ -598,6 +1163,19 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
 
         Map<CalendarDateRange, Set<Action>> actionMap = new HashMap<>();
 
+        // rules of range handlers are queried once for the whole range
+        Map<Action.Handler, List<CalendarActionRule>> actionRules = new HashMap<>();
+        if (withActions && actionHandlers != null) {
+            CalendarDateRange shownRange = new CalendarDateRange(firstDateToShow, lastDateToShow, getTimeZone());
+            for (Action.Handler actionHandler : actionHandlers) {
+                if (actionHandler instanceof RangeActionHandler) {
+                    List<CalendarActionRule> rules = ((RangeActionHandler) actionHandler)
+                            .getActionRules(shownRange, this);
+                    actionRules.put(actionHandler, rules == null ? Collections.emptyList() : rules);
+                }
+            }
+        }
+
         List<CalendarState.Day> days = new ArrayList<>();
 
         // Send all dates to client from server. This
@@ -615,45 +1193,44 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
             day.week = currentCalendar.get(java.util.Calendar.WEEK_OF_YEAR);
             day.yearOfWeek = currentCalendar.getWeekYear();
 
-            // XXX block time slots
-            day.blockedSlots = new HashSet<>();
-
-            if (blockedTimes.containsKey(allOverDate)) {
-                day.blockedSlots.addAll(blockedTimes.get(allOverDate));
-            }
-
-            if (blockedTimes.containsKey(date)) {
-                day.blockedSlots.addAll(blockedTimes.get(date));
+            if (!blockedTimes.isEmpty()) {
+                day.blockedSlots = blockedTimes.getBlockedSlots(LocalDate.of(
+                        currentCalendar.get(java.util.Calendar.YEAR),
+                        currentCalendar.get(java.util.Calendar.MONTH) + 1,
+                        currentCalendar.get(java.util.Calendar.DATE)));
             }
 
             days.add(day);
 
             // Get actions for a specific date
-            if (actionHandlers != null) {
+            if (withActions && actionHandlers != null) {
 
-                for (Action.Handler actionHandler : actionHandlers) {
+                // Create calendar which omits time
+                GregorianCalendar cal = new GregorianCalendar(getTimeZone(), getLocale());
+                cal.clear();
+                cal.set(currentCalendar.get(java.util.Calendar.YEAR),
+                        currentCalendar.get(java.util.Calendar.MONTH),
+                        currentCalendar.get(java.util.Calendar.DATE));
 
-                    // Create calendar which omits time
-                    GregorianCalendar cal = new GregorianCalendar(getTimeZone(), getLocale());
-                    cal.clear();
-                    cal.set(currentCalendar.get(java.util.Calendar.YEAR),
-                            currentCalendar.get(java.util.Calendar.MONTH),
-                            currentCalendar.get(java.util.Calendar.DATE));
+                // Get day start and end times
+                Date start = cal.getTime();
+                cal.add(java.util.Calendar.DATE, 1);
+                cal.add(java.util.Calendar.SECOND, -1);
+                Date end = cal.getTime();
 
-                    // Get day start and end times
-                    Date start = cal.getTime();
-                    cal.add(java.util.Calendar.DATE, 1);
-                    cal.add(java.util.Calendar.SECOND, -1);
-                    Date end = cal.getTime();
+                for (Action.Handler actionHandler : actionHandlers) {
 
-                    boolean monthView = durationInDays > 7;
+                    boolean monthView = durationInDays > 7 || agendaView;
 
                     /*
-                     * If in day or week view add actions for each half-an-hour.
-                     * If in month view add actions for each day
+                     * Range handlers add one range per rule and day. Others
+                     * get actions for each half-an-hour in day or week view
+                     * and for each day in month view.
                      */
 
-                    if (monthView) {
+                    if (actionHandler instanceof RangeActionHandler) {
+                        setActionsForRules(actionMap, cal, start, end, actionRules.get(actionHandler));
+                    } else if (monthView) {
                         setActionsForDay(actionMap, start, end, actionHandler);
                     } else {
                         setActionsForEachHalfHour(actionMap, start, end, actionHandler);
@@ -665,8 +1242,12 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
             currentCalendar.add(java.util.Calendar.DATE, 1);
         }
 
-        state.days = days;
-        state.actions = createActionsList(actionMap);
+        if (withDays) {
+            state.days = days;
+        }
+        if (withActions) {
+            setActionTable(state, actionMap, firstDateToShow);
+        }
     }
 
     private void setActionsForEachHalfHour(Map<CalendarDateRange, Set<Action>> actionMap,
@@ -691,6 +1272,18 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         }
     }
 
+    private void setActionsForRules(Map<CalendarDateRange, Set<Action>> actionMap,
+                                    java.util.Calendar cal, Date start, Date end,
+                                    List<CalendarActionRule> rules) {
+
+        for (CalendarActionRule rule : rules) {
+            CalendarDateRange range = rule.getRangeOn(cal, start, end);
+            if (range != null && !rule.getActions().isEmpty()) {
+                actionMap.put(range, new LinkedHashSet<>(rule.getActions()));
+            }
+        }
+    }
+
     private void setActionsForDay(Map<CalendarDateRange, Set<Action>> actionMap,
                                   Date start, Date end, Action.Handler actionHandler) {
 
@@ -702,36 +1295,107 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         }
     }
 
-    private List<CalendarState.Action> createActionsList(
-            Map<CalendarDateRange, Set<Action>> actionMap) {
+    /**
+     * Puts the actions into the state as a table of distinct actions, a table
+     * of distinct action sets and a sorted list of ranges referring to them.
+     * Ranges are encoded as wall clock seconds from the start of the first
+     * shown day, and adjacent ranges with the same action set are merged.
+     */
+    private void setActionTable(CalendarState state,
+                                Map<CalendarDateRange, Set<Action>> actionMap,
+                                Date firstDateToShow) {
         if (actionMap.isEmpty()) {
-            return null;
-        }
+            state.actions = null;
+            state.actionsBase = null;
+            state.actionRanges = null;
+            state.actionSets = null;
+            return;
+        }
+
+        ZoneId zone = getTimeZone().toZoneId();
+        LocalDate base = firstDateToShow.toInstant().atZone(zone).toLocalDate();
+
+        Map<Action, Integer> actionIndexes = new LinkedHashMap<>();
+        Map<List<Integer>, Integer> setOffsets = new HashMap<>();
+        List<Integer> sets = new ArrayList<>();
+        List<int[]> ranges = new ArrayList<>();
+
+        for (Entry<CalendarDateRange, Set<Action>> entry : actionMap.entrySet()) {
+            List<Integer> set = new ArrayList<>();
+            for (Action action : entry.getValue()) {
+                Integer index = actionIndexes.get(action);
+                if (index == null) {
+                    index = actionIndexes.size();
+                    actionIndexes.put(action, index);
+                }
+                set.add(index);
+            }
+            Collections.sort(set);
+
+            Integer offset = setOffsets.get(set);
+            if (offset == null) {
+                offset = sets.size();
+                setOffsets.put(set, offset);
+                sets.add(set.size());
+                sets.addAll(set);
+            }
 
-        List<CalendarState.Action> calendarActions = new ArrayList<>();
+            CalendarDateRange range = entry.getKey();
+            ranges.add(new int[] { toActionOffset(range.getStart(), base, zone),
+                    toActionOffset(range.getEnd(), base, zone), offset });
+        }
 
-        SimpleDateFormat formatter = new SimpleDateFormat(
-                DateConstants.ACTION_DATE_FORMAT_PATTERN);
-        formatter.setTimeZone(getTimeZone());
+        ranges.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
 
-        for (Entry<CalendarDateRange, Set<Action>> entry : actionMap
-                .entrySet()) {
-            CalendarDateRange range = entry.getKey();
-            Set<Action> actions = entry.getValue();
-            for (Action action : actions) {
-                String key = actionMapper.key(action);
-                CalendarState.Action calendarAction = new CalendarState.Action();
-                calendarAction.actionKey = key;
-                calendarAction.caption = action.getCaption();
-                setResource(key, action.getIcon());
-                calendarAction.iconKey = key;
-                calendarAction.startDate = formatter.format(range.getStart());
-                calendarAction.endDate = formatter.format(range.getEnd());
-                calendarActions.add(calendarAction);
+        // merge ranges continuing the previous range of the same set
+        Map<Integer, int[]> lastRangeOfSet = new HashMap<>();
+        List<int[]> merged = new ArrayList<>();
+        for (int[] range : ranges) {
+            int[] last = lastRangeOfSet.get(range[2]);
+            if (last != null && last[1] == range[0]) {
+                last[1] = range[1];
+            } else {
+                merged.add(range);
+                lastRangeOfSet.put(range[2], range);
             }
         }
 
-        return calendarActions;
+        int[] actionRanges = new int[merged.size() * 3];
+        for (int i = 0; i < merged.size(); i++) {
+            System.arraycopy(merged.get(i), 0, actionRanges, i * 3, 3);
+        }
+
+        int[] actionSets = new int[sets.size()];
+        for (int i = 0; i < actionSets.length; i++) {
+            actionSets[i] = sets.get(i);
+        }
+
+        List<CalendarState.Action> calendarActions = new ArrayList<>();
+        for (Action action : actionIndexes.keySet()) {
+            String key = actionMapper.key(action);
+            CalendarState.Action calendarAction = new CalendarState.Action();
+            calendarAction.actionKey = key;
+            calendarAction.caption = action.getCaption();
+            setResource(key, action.getIcon());
+            calendarAction.iconKey = key;
+            calendarActions.add(calendarAction);
+        }
+
+        state.actions = calendarActions;
+        state.actionsBase = base.toString();
+        state.actionRanges = actionRanges;
+        state.actionSets = actionSets;
+    }
+
+    /**
+     * Encodes a date as days since the base date times seconds per day plus
+     * the second of the day, both in wall clock time. The client can decode
+     * this without knowing the time zone.
+     */
+    private static int toActionOffset(Date date, LocalDate base, ZoneId zone) {
+        LocalDateTime dateTime = date.toInstant().atZone(zone).toLocalDateTime();
+        long days = ChronoUnit.DAYS.between(base, dateTime.toLocalDate());
+        return (int) (days * DateConstants.DAYINMILLIS / 1000) + dateTime.toLocalTime().toSecondOfDay();
     }
 
     /**
@@ -798,7 +1462,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
             }
             currentCalendar.setTimeZone(zone);
             df_date_time.setTimeZone(zone);
-            markAsDirty();
+            markRangeChanged();
         }
     }
 
@@ -966,7 +1630,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         if (weeklyCaptionFormat == null && dateFormatPattern != null
                 || weeklyCaptionFormat != null && !weeklyCaptionFormat.equals(dateFormatPattern)) {
             weeklyCaptionFormat = dateFormatPattern;
-            markAsDirty();
+            markForRefresh(Refresh.DAYS);
         }
     }
 
@@ -1052,13 +1716,13 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
     /**
      * Fires an item move event to all server side move listerners
      *
-     * @param index
-     *            The index of the item in the items list
+     * @param item
+     *            The moved item
      * @param newFromDatetime
      *            The changed from date time
      */
-    protected void fireItemMove(int index, Date newFromDatetime) {
-        CalendarComponentEvents.ItemMoveEvent event = new CalendarComponentEvents.ItemMoveEvent(this, items.get(index),
+    protected void fireItemMove(CalendarItem item, Date newFromDatetime) {
+        CalendarComponentEvents.ItemMoveEvent event = new CalendarComponentEvents.ItemMoveEvent(this, item,
                 newFromDatetime);
 
         if (calendarItemProvider instanceof CalendarComponentEvents.ItemMoveHandler) {
@@ -1087,11 +1751,11 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
      * Fires event when a date was clicked in the calendar. Uses an existing
      * event from the event cache.
      *
-     * @param index
-     *            The index of the event in the event cache.
+     * @param item
+     *            The clicked item
      */
-    protected void fireItemClick(Integer index) {
-        fireEvent(new CalendarComponentEvents.ItemClickEvent(this, items.get(index)));
+    protected void fireItemClick(CalendarItem item) {
+        fireEvent(new CalendarComponentEvents.ItemClickEvent(this, item));
     }
 
     /**
@@ -1125,17 +1789,17 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
      * decrease. The new start and end times are returned as arguments to this
      * method.
      *
-     * @param index
-     *            The index of the item in the item cache
+     * @param item
+     *            The resized item
      * @param startTime
      *            The new start date and time of the item
      * @param endTime
      *            The new end date and time of the item
      */
-    protected void fireItemResize(int index, Date startTime, Date endTime) {
+    protected void fireItemResize(CalendarItem item, Date startTime, Date endTime) {
 
         CalendarComponentEvents.ItemResizeEvent event =
-                new CalendarComponentEvents.ItemResizeEvent(this, items.get(index), startTime, endTime);
+                new CalendarComponentEvents.ItemResizeEvent(this, item, startTime, endTime);
 
         if (calendarItemProvider instanceof CalendarComponentEvents.EventResizeHandler) {
             // Notify event provider if it is an event resize handler
@@ -1346,6 +2010,13 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
 
         this.calendarItemProvider = calendarItemProvider;
 
+        cancelPendingItems();
+        asyncItems = null;
+        asyncItemsOutdated = false;
+        itemPatch = null;
+        itemsOutdated = true;
+        markForRefresh(Refresh.ITEMS);
+
         // add new listener
         if (calendarItemProvider instanceof CalendarItemProvider.ItemSetChangedNotifier) {
             ((ItemSetChangedNotifier) calendarItemProvider).addItemSetChangedListener(this);
@@ -1362,9 +2033,53 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
     @Override
     public void itemSetChanged(ItemSetChangedEvent changeEvent) {
         // sanity check
-        if (calendarItemProvider == changeEvent.getProvider()) {
-            markAsDirty();
+        if (calendarItemProvider != changeEvent.getProvider()) {
+            return;
+        }
+
+        if (changeEvent.isDetailed() && syncedFirstDate != null
+                && !changeEvent.intersects(syncedFirstDate, syncedLastDate)
+                && !isAnyItemShown(changeEvent.getRemovedItems())
+                && !isAnyItemShown(changeEvent.getModifiedItems())) {
+            // the change does not touch the visible range
+            return;
+        }
+
+        if (getDataProvider() instanceof AsyncCalendarItemProvider) {
+            reloadAsyncItems();
+        } else if (changeEvent.isDetailed() && itemDeltaSync && !itemsOutdated) {
+            if (itemPatch == null) {
+                itemPatch = new IdentityHashMap<>();
+            }
+            for (Object item : changeEvent.getAddedItems()) {
+                itemPatch.put((CalendarItem) item, true);
+            }
+            for (Object item : changeEvent.getModifiedItems()) {
+                itemPatch.put((CalendarItem) item, true);
+            }
+            for (Object item : changeEvent.getRemovedItems()) {
+                itemPatch.put((CalendarItem) item, false);
+            }
+        } else {
+            itemPatch = null;
+            itemsOutdated = true;
+        }
+        markForRefresh(Refresh.ITEMS);
+    }
+
+    private boolean isAnyItemShown(Collection<?> calendarItems) {
+        for (Object item : calendarItems) {
+            if (itemKeys.containsItem((CalendarItem) item)) {
+                return true;
+            }
         }
+        return false;
+    }
+
+    @Override
+    public void detach() {
+        cancelPendingItems();
+        super.detach();
     }
 
     /**
@@ -1525,6 +2240,12 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
      * The Dates passed into the {@link CalendarDateRange} are in the same
      * timezone as the calendar is.
      * </p>
+
+     * <p>
+     * A {@link RangeActionHandler} is not asked per slot or day. Its
+     * {@link RangeActionHandler#getActionRules(CalendarDateRange, Object)} is
+     * called once with the whole shown range instead.
+     * </p>
      *
      * <p>
      * The {@link Handler#handleAction(Action, Object, Object)} parameters
@@ -1547,7 +2268,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
 
             if (!actionHandlers.contains(actionHandler)) {
                 actionHandlers.add(actionHandler);
-                markAsDirty();
+                markForRefresh(Refresh.ACTIONS);
             }
         }
     }
@@ -1591,14 +2312,14 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
                 actionHandlers = null;
                 actionMapper = null;
             }
-            markAsDirty();
+            markForRefresh(Refresh.ACTIONS);
         }
     }
 
     private class CalendarServerRpcImpl implements CalendarServerRpc {
 
         @Override
-        public void itemMove(int itemIndex, String newDate) {
+        public void itemMove(String itemKey, String newDate) {
 
             if (!isClientChangeAllowed()) {
                 return;
@@ -1607,9 +2328,9 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
             if (newDate != null) {
                 try {
                     Date d = df_date_time.parse(newDate);
-                    if (itemIndex >= 0 && itemIndex < items.size()
-                            && items.get(itemIndex) != null) {
-                        fireItemMove(itemIndex, d);
+                    CalendarItem item = itemKeys.get(itemKey);
+                    if (item != null) {
+                        fireItemMove(item, d);
                     }
                 } catch (ParseException e) {
                     getLogger().log(Level.WARNING, e.getMessage());
@@ -1705,15 +2426,15 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         }
 
         @Override
-        public void itemClick(int itemIndex) {
-            if (itemIndex >= 0 && itemIndex < items.size()
-                    && items.get(itemIndex) != null) {
-                fireItemClick(itemIndex);
+        public void itemClick(String itemKey) {
+            CalendarItem item = itemKeys.get(itemKey);
+            if (item != null) {
+                fireItemClick(item);
             }
         }
 
         @Override
-        public void itemResize(int itemIndex, String newStartDate, String newEndDate) {
+        public void itemResize(String itemKey, String newStartDate, String newEndDate) {
 
             if (!isClientChangeAllowed()) {
                 return;
@@ -1726,7 +2447,10 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
                     Date newStartTime = df_date_time.parse(newStartDate);
                     Date newEndTime = df_date_time.parse(newEndDate);
 
-                    fireItemResize(itemIndex, newStartTime, newEndTime);
+                    CalendarItem item = itemKeys.get(itemKey);
+                    if (item != null) {
+                        fireItemResize(item, newStartTime, newEndTime);
+                    }
                 } catch (ParseException e) {
                     // NOOP
                 }
@@ -1735,8 +2459,33 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
 
         @Override
         public void scroll(int scrollPosition) {
+            // only kept for the next response, nothing is sent for it
             scrollTop = scrollPosition;
-            markAsDirty();
+        }
+
+        @Override
+        public void itemDescription(String itemKey) {
+            CalendarItem item = itemKeys.get(itemKey);
+            if (item != null) {
+                String description = item.getDescription();
+                getRpcProxy(CalendarClientRpc.class).itemDescription(itemKey,
+                        description == null ? "" : description);
+            }
+        }
+
+        @Override
+        public void agendaScroll(String date) {
+            if (agendaView && date != null && date.length() > 6) {
+                try {
+                    // keep a quarter of the window as buffer above the date
+                    currentCalendar.setTime(df_date.parse(date));
+                    currentCalendar.add(java.util.Calendar.DATE, -agendaWindowSize / 4);
+                    agendaWindowStart = currentCalendar.getTime();
+                    markRangeChanged();
+                } catch (ParseException e) {
+                    // NOP
+                }
+            }
         }
 
         @Override
@@ -1760,14 +2509,19 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         }
 
         @Override
-        public void actionOnItem(String actionKey, String startDate, String endDate, int itemIndex) {
+        public void actionOnItem(String actionKey, String startDate, String endDate, String itemKey) {
 
             Action action = actionMapper.get(actionKey);
             SimpleDateFormat formatter = new SimpleDateFormat(DateConstants.ACTION_DATE_FORMAT_PATTERN);
             formatter.setTimeZone(getTimeZone());
 
+            CalendarItem item = itemKeys.get(itemKey);
+            if (item == null) {
+                return;
+            }
+
             for (Action.Handler ah : actionHandlers) {
-                ah.handleAction(action, Calendar.this, items.get(itemIndex));
+                ah.handleAction(action, Calendar.this, item);
             }
         }
     }
@@ -1816,6 +2570,228 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         return getState(false).itemCaptionAsHtml;
     }
 
+    /**
+     * Sets whether the week and day views only draw the items which are in or
+     * near the scrolled part of the day. The widgets of items scrolled out of
+     * view are reused for the items scrolled into view.
+     * <p>
+     * This only applies when the time slots scroll, i.e. when the height of
+     * the calendar is undefined. It keeps the number of widgets low for views
+     * with hundreds of items.
+     * <p>
+     * The default is false, i.e. to draw every item.
+     *
+     * @param weekItemsVirtualized
+     *            true to draw only the items near the scrolled view
+     */
+    public void setWeekItemsVirtualized(boolean weekItemsVirtualized) {
+        getState().weekItemsVirtualized = weekItemsVirtualized;
+    }
+
+    /**
+     * Checks whether the week and day views only draw the items near the
+     * scrolled view.
+     *
+     * @return true if only the items near the scrolled view are drawn
+     */
+    public boolean isWeekItemsVirtualized() {
+        return getState(false).weekItemsVirtualized;
+    }
+
+    /**
+     * Sets whether item changes are sent to the client as deltas.
+     * <p>
+     * If set to true, the calendar keeps a snapshot of the items sent to the
+     * client. As long as the visible range does not change, only the added,
+     * changed and removed items are sent and the client patches the affected
+     * days instead of rendering the whole view again.
+     * <p>
+     * The default is false, i.e. to resend all items on every change.
+     *
+     * @param itemDeltaSync
+     *            true to send item changes as deltas
+     */
+    public void setItemDeltaSync(boolean itemDeltaSync) {
+        if (this.itemDeltaSync != itemDeltaSync) {
+            this.itemDeltaSync = itemDeltaSync;
+            sentItems.clear();
+            syncedFirstDate = null;
+            syncedLastDate = null;
+            itemPatch = null;
+            markForRefresh(Refresh.ITEMS);
+        }
+    }
+
+    /**
+     * Sets whether item times are sent to the client as seconds from the
+     * first shown day together with a table of time zone offsets.
+     * <p>
+     * Otherwise the start and end of every item are sent as formatted date
+     * and time strings which the client parses again. For views with many
+     * items the numeric format saves formatting on the server and parsing in
+     * the browser.
+     * <p>
+     * The default is false.
+     *
+     * @param itemEpochFormat
+     *            true to send item times as numbers
+     */
+    public void setItemEpochFormat(boolean itemEpochFormat) {
+        if (this.itemEpochFormat != itemEpochFormat) {
+            this.itemEpochFormat = itemEpochFormat;
+            itemFormatChanged();
+        }
+    }
+
+    /**
+     * Sets whether the items are sent to the client in columns, i.e. as
+     * parallel arrays of times, flags and dictionary indexes for the strings,
+     * instead of one object per item.
+     * <p>
+     * This saves most of the payload for views with many items sharing a few
+     * captions and style names. Item times are sent as numbers, as with
+     * {@link #setItemEpochFormat(boolean)}. Item deltas, see
+     * {@link #setItemDeltaSync(boolean)}, are still sent as objects.
+     * <p>
+     * The default is false.
+     *
+     * @param itemColumnarFormat
+     *            true to send the items in columns
+     */
+    public void setItemColumnarFormat(boolean itemColumnarFormat) {
+        if (this.itemColumnarFormat != itemColumnarFormat) {
+            this.itemColumnarFormat = itemColumnarFormat;
+            itemFormatChanged();
+        }
+    }
+
+    /**
+     * Checks whether the items are sent to the client in columns.
+     *
+     * @return true if the items are sent in columns
+     */
+    public boolean isItemColumnarFormat() {
+        return itemColumnarFormat;
+    }
+
+    /**
+     * Sets whether item descriptions are only sent to the client when their
+     * tooltip is about to be shown.
+     * <p>
+     * If set to true, only a flag telling whether an item has a description
+     * is sent with the items. The client requests the description of a single
+     * item when it is hovered, and keeps a limited number of them cached.
+     * This is useful when descriptions are large and rarely looked at.
+     * <p>
+     * The default is false, i.e. to send all descriptions with the items.
+     *
+     * @param lazyItemDescriptions
+     *            true to load descriptions on demand
+     */
+    public void setLazyItemDescriptions(boolean lazyItemDescriptions) {
+        if (this.lazyItemDescriptions != lazyItemDescriptions) {
+            this.lazyItemDescriptions = lazyItemDescriptions;
+            getState().lazyItemDescriptions = lazyItemDescriptions;
+            itemFormatChanged();
+        }
+    }
+
+    /**
+     * Checks whether item descriptions are loaded on demand.
+     *
+     * @return true if descriptions are loaded on demand
+     */
+    public boolean isLazyItemDescriptions() {
+        return lazyItemDescriptions;
+    }
+
+    private void itemFormatChanged() {
+        CalendarState state = getState();
+        state.itemEpochFormat = hasNumericItemTimes();
+        if (!hasNumericItemTimes()) {
+            state.itemZoneOffsets = null;
+            state.itemsBase = null;
+        }
+        sentItems.clear();
+        syncedFirstDate = null;
+        syncedLastDate = null;
+        itemPatch = null;
+        markForRefresh(Refresh.ITEMS);
+    }
+
+    /**
+     * Checks whether item times are sent to the client as numbers.
+     *
+     * @return true if item times are sent as numbers
+     */
+    public boolean isItemEpochFormat() {
+        return itemEpochFormat;
+    }
+
+    /**
+     * Checks whether item changes are sent to the client as deltas.
+     *
+     * @return true if item changes are sent as deltas
+     */
+    public boolean isItemDeltaSync() {
+        return itemDeltaSync;
+    }
+
+    /**
+     * Sets whether the date range is shown as a scrolling agenda list.
+     * <p>
+     * Unlike the month and week views, the agenda view is not limited to 60
+     * days. Only a window of {@link #getAgendaWindowSize()} days and the
+     * items in it are sent to the client. When the user scrolls close to
+     * either end of the window, the window is moved and the items of the new
+     * window are fetched from the item provider.
+     *
+     * @param agendaView
+     *            true to show the agenda view
+     */
+    public void setAgendaView(boolean agendaView) {
+        if (this.agendaView != agendaView) {
+            this.agendaView = agendaView;
+            agendaWindowStart = null;
+            getState().agendaView = agendaView;
+            markRangeChanged();
+        }
+    }
+
+    /**
+     * Checks whether the date range is shown as a scrolling agenda list.
+     *
+     * @return true if the agenda view is shown
+     */
+    public boolean isAgendaView() {
+        return agendaView;
+    }
+
+    /**
+     * Sets the number of days the agenda view sends to the client at a time.
+     * The default is 28 days.
+     *
+     * @param days
+     *            The number of days, at least 7
+     */
+    public void setAgendaWindowSize(int days) {
+        if (days < 7) {
+            throw new IllegalArgumentException("Agenda window must be at least 7 days");
+        }
+        if (agendaWindowSize != days) {
+            agendaWindowSize = days;
+            markRangeChanged();
+        }
+    }
+
+    /**
+     * @return the number of days the agenda view sends to the client at a
+     *         time
+     */
+    public int getAgendaWindowSize() {
+        return agendaWindowSize;
+    }
+
     @Override
     public void readDesign(Element design, DesignContext designContext) {
         super.readDesign(design, designContext);
@@ -1885,7 +2861,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         }
 
         customFirstDayOfWeek = dayOfWeek;
-        markAsDirty();
+        markRangeChanged();
     }
 
     /**
@@ -1897,19 +2873,12 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
      * @param styleName css class for this block (currently unused)
      */
     protected final void addTimeBlockInternaly(Date day, Long fromMillies, String styleName) {
-        Set<Long> times;
-        if (blockedTimes.containsKey(day)) {
-            times = blockedTimes.get(day);
-        } else {
-            times = new HashSet<>();
-        }
-        times.add(fromMillies);
-        blockedTimes.put(day, times);
+        int from = toMinuteOfDay(fromMillies);
+        blockedTimes.block(toLocalDate(day), from, Math.min(from + 30, BlockedTimes.MINUTES_PER_DAY));
     }
 
     /**
-     * Add a time block marker for a range of time. Time steps are half hour,
-     * so a minimal time slot is 1800000 milliseconds long.
+     * Add a time block marker for a range of time on every day.
      *
      * @param fromMillies time millies from where the block starts
      * @param toMillies time millies from where the block ends
@@ -1919,20 +2888,20 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
     }
 
     /**
-     * Add a time block marker for a range of time. Time steps are half hour,
-     * so a minimal time slot is 1800000 milliseconds long.
+     * Add a time block marker for a range of time on every day.
      *
      * @param fromMillies time millies from where the block starts
      * @param toMillies time millies from where the block ends
      * @param styleName css class for this block (currently unused)
      */
     public void addTimeBlock(long fromMillies, long toMillies, String styleName) {
-        addTimeBlock(allOverDate, fromMillies, toMillies, styleName);
+        blockedTimes.block(EnumSet.allOf(DayOfWeek.class),
+                toMinuteOfDay(fromMillies), toMinuteOfDay(toMillies));
+        markForRefresh(Refresh.DAYS);
     }
 
     /**
-     * Add a time block marker for a range of time. Time steps are half hour,
-     * so a minimal time slot is 1800000 milliseconds long.
+     * Add a time block marker for a range of time.
      *
      * @param day Day for this time slot
      * @param fromMillies time millies from where the block starts
@@ -1943,8 +2912,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
     }
 
     /**
-     * Add a time block marker for a range of time. Time steps are half hour,
-     * so a minimal time slot is 1800000 milliseconds long.
+     * Add a time block marker for a range of time.
      *
      * @param day Day for this time slot
      * @param fromMillies time millies from where the block starts
@@ -1952,27 +2920,76 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
      * @param styleName css class for this block (currently unused)
      */
     public void addTimeBlock(Date day, long fromMillies, long toMillies, String styleName) {
-        assert (toMillies > fromMillies && fromMillies % 1800000 == 0 && toMillies % 1800000 == 0);
+        blockedTimes.block(toLocalDate(day), toMinuteOfDay(fromMillies), toMinuteOfDay(toMillies));
+        markForRefresh(Refresh.DAYS);
+    }
+
+    /**
+     * Add a time block marker recurring on the given days of every week, e.g.
+     * for the time outside of working hours.
+     *
+     * @param days The days of the week
+     * @param from Start time of the block
+     * @param to End time of the block, {@link LocalTime#MAX} for the end of the day
+     */
+    public void addTimeBlock(Set<DayOfWeek> days, LocalTime from, LocalTime to) {
+        blockedTimes.block(days, BlockedTimes.toMinute(from), BlockedTimes.toMinute(to));
+        markForRefresh(Refresh.DAYS);
+    }
 
-        while (fromMillies < toMillies) {
+    /**
+     * Add a time block marker for a range of time on a single day.
+     *
+     * @param day The day
+     * @param from Start time of the block
+     * @param to End time of the block, {@link LocalTime#MAX} for the end of the day
+     */
+    public void addTimeBlock(LocalDate day, LocalTime from, LocalTime to) {
+        blockedTimes.block(day, BlockedTimes.toMinute(from), BlockedTimes.toMinute(to));
+        markForRefresh(Refresh.DAYS);
+    }
 
-            addTimeBlockInternaly(day, fromMillies, styleName);
-            fromMillies += 1800000;
-        }
+    /**
+     * Set the length of the blocked time slots shown in the week and day
+     * views. A slot is shown as blocked if any part of it is blocked. The
+     * default is 30 minutes.
+     *
+     * @param minutes Slot length in minutes, must divide 30, e.g. 5, 10 or 15
+     */
+    public void setTimeBlockGranularity(int minutes) {
+        blockedTimes.setSlotMinutes(minutes);
+        getState().blockedSlotMinutes = minutes;
+        markForRefresh(Refresh.DAYS);
+    }
 
-        markAsDirty();
+    /**
+     * @return the length of the blocked time slots in minutes
+     */
+    public int getTimeBlockGranularity() {
+        return blockedTimes.getSlotMinutes();
     }
 
     public void clearBlockedTimes() {
         blockedTimes.clear();
-        markAsDirty();
+        markForRefresh(Refresh.DAYS);
     }
 
     public void clearBlockedTimes(Date day) {
-        if (blockedTimes.containsKey(day)) {
-            blockedTimes.remove(day);
-        }
-        markAsDirty();
+        blockedTimes.clear(toLocalDate(day));
+        markForRefresh(Refresh.DAYS);
+    }
+
+    public void clearBlockedTimes(LocalDate day) {
+        blockedTimes.clear(day);
+        markForRefresh(Refresh.DAYS);
+    }
+
+    private LocalDate toLocalDate(Date day) {
+        return day.toInstant().atZone(getTimeZone().toZoneId()).toLocalDate();
+    }
+
+    private static int toMinuteOfDay(long millies) {
+        return (int) Math.max(0, Math.min(millies / 60000, BlockedTimes.MINUTES_PER_DAY));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.vaadin.addon.calendar;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * Maps items to keys which stay the same over server round trips, so the
+ * client can refer to items regardless of their position in the item list.
+ * </p>
+ *
+ * <p>
+ * Unlike {@link com.vaadin.server.KeyMapper} the items are mapped by identity,
+ * so two items with equal content still get keys of their own. A removed item
+ * never gets its old key back.
+ * </p>
+ */
+@SuppressWarnings("serial")
+public class ItemKeyMapper<ITEM> implements Serializable {
+
+    private final Map<ITEM, String> itemToKey = new IdentityHashMap<>();
+
+    private final Map<String, ITEM> keyToItem = new HashMap<>();
+
+    private long lastKey = 0;
+
+    /**
+     * Gets the key of an item. A new key is allocated if the item has no key
+     * yet.
+     *
+     * @param item
+     *            The item
+     * @return the key of the item
+     */
+    public String key(ITEM item) {
+        String key = itemToKey.get(item);
+        if (key == null) {
+            key = String.valueOf(++lastKey);
+            itemToKey.put(item, key);
+            keyToItem.put(key, item);
+        }
+        return key;
+    }
+
+    /**
+     * Gets the item mapped to a key.
+     *
+     * @param key
+     *            The key
+     * @return the item or null if the key is unknown or has been removed
+     */
+    public ITEM get(String key) {
+        return key == null ? null : keyToItem.get(key);
+    }
+
+    /**
+     * Checks whether an item has a key.
+     *
+     * @param item
+     *            The item
+     * @return true if a key has been allocated for the item
+     */
+    public boolean containsItem(ITEM item) {
+        return itemToKey.containsKey(item);
+    }
+
+    /**
+     * Removes the key of an item.
+     *
+     * @param item
+     *            The item
+     */
+    public void remove(ITEM item) {
+        String key = itemToKey.remove(item);
+        if (key != null) {
+            keyToItem.remove(key);
+        }
+    }
+
+    /**
+     * Removes the keys of all items not in the given collection.
+     *
+     * @param items
+     *            The items to keep
+     */
+    public void retainAll(Collection<? extends ITEM> items) {
+        Set<ITEM> retained = Collections.newSetFromMap(new IdentityHashMap<>());
+        retained.addAll(items);
+
+        Iterator<Map.Entry<ITEM, String>> it = itemToKey.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<ITEM, String> entry = it.next();
+            if (!retained.contains(entry.getKey())) {
+                keyToItem.remove(entry.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all keys.
+     */
+    public void removeAll() {
+        itemToKey.clear();
+        keyToItem.clear();
+    }
+}
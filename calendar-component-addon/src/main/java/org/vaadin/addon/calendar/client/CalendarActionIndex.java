@@ -0,0 +1,172 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.vaadin.addon.calendar.client;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Interval index over the action ranges of {@link CalendarState}. The ranges
+ * are decoded once when the state changes. Looking up the actions for a time
+ * range takes a binary search plus the ranges near the searched range.
+ */
+public class CalendarActionIndex {
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final long[] starts;
+
+    private final long[] ends;
+
+    /** Largest end of the ranges up to each index, never decreasing. */
+    private final long[] maxEnds;
+
+    private final int[] setOffsets;
+
+    private final int[] sets;
+
+    private final int actionCount;
+
+    /**
+     * Decodes the action ranges.
+     *
+     * @param base
+     *            Start of the day the range offsets refer to
+     * @param ranges
+     *            Start, end and action set triples sorted by start
+     * @param sets
+     *            Action sets referred to by the ranges
+     * @param actionCount
+     *            Number of actions in the action table
+     */
+    @SuppressWarnings("deprecation")
+    public CalendarActionIndex(Date base, int[] ranges, int[] sets, int actionCount) {
+        int size = ranges == null ? 0 : ranges.length / 3;
+        starts = new long[size];
+        ends = new long[size];
+        maxEnds = new long[size];
+        setOffsets = new int[size];
+        this.sets = sets == null ? new int[0] : sets;
+        this.actionCount = actionCount;
+
+        for (int i = 0; i < size; i++) {
+            starts[i] = decode(base, ranges[i * 3]);
+            ends[i] = decode(base, ranges[i * 3 + 1]);
+            setOffsets[i] = ranges[i * 3 + 2];
+            maxEnds[i] = i == 0 ? ends[i] : Math.max(maxEnds[i - 1], ends[i]);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static long decode(Date base, int offset) {
+        int days = offset / SECONDS_PER_DAY;
+        int seconds = offset % SECONDS_PER_DAY;
+        return new Date(base.getYear(), base.getMonth(), base.getDate() + days,
+                0, 0, seconds).getTime();
+    }
+
+    /**
+     * @return the number of ranges
+     */
+    public int size() {
+        return starts.length;
+    }
+
+    /**
+     * @return the start of a range
+     */
+    public Date getStart(int range) {
+        return new Date(starts[range]);
+    }
+
+    /**
+     * @return the end of a range
+     */
+    public Date getEnd(int range) {
+        return new Date(ends[range]);
+    }
+
+    /**
+     * @return the indexes of the actions of a range in the action table
+     */
+    public int[] getActions(int range) {
+        int offset = setOffsets[range];
+        int[] actions = new int[sets[offset]];
+        for (int i = 0; i < actions.length; i++) {
+            actions[i] = sets[offset + 1 + i];
+        }
+        return actions;
+    }
+
+    /**
+     * Gets the actions of all ranges which overlap the given range, or which
+     * are contained in it.
+     *
+     * @param start
+     *            Start of the range
+     * @param end
+     *            End of the range
+     * @return the distinct indexes of the actions in the action table, in
+     *         table order
+     */
+    public List<Integer> getActionsBetween(Date start, Date end) {
+        long from = start.getTime();
+        long to = end.getTime();
+
+        // ranges before lo end before the searched range starts
+        int lo = 0;
+        int hi = starts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (maxEnds[mid] < from) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        boolean[] found = new boolean[actionCount];
+        for (int i = lo; i < starts.length && starts[i] <= to; i++) {
+            if (matches(starts[i], ends[i], from, to)) {
+                int offset = setOffsets[i];
+                for (int j = 0; j < sets[offset]; j++) {
+                    found[sets[offset + 1 + j]] = true;
+                }
+            }
+        }
+
+        List<Integer> actions = new ArrayList<>();
+        for (int i = 0; i < found.length; i++) {
+            if (found[i]) {
+                actions.add(i);
+            }
+        }
+        return actions;
+    }
+
+    private static boolean matches(long actionStart, long actionEnd, long start, long end) {
+        // action inside the range
+        boolean inside = actionStart >= start && actionEnd <= end;
+        // action intersects the start of the range
+        boolean overStart = actionEnd > start && actionEnd <= end;
+        // action intersects the end of the range
+        boolean overEnd = actionStart >= start && actionStart < end;
+        // range inside the action
+        boolean around = start >= actionStart && end <= actionEnd;
+        return inside || overStart || overEnd || around;
+    }
+}
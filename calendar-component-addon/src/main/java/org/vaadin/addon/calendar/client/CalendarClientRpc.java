@@ -17,6 +17,8 @@ package org.vaadin.addon.calendar.client;
 
 import com.vaadin.shared.communication.ClientRpc;
 
+import java.util.List;
+
 /**
  *
  * @since 7.1
@@ -25,4 +27,24 @@ import com.vaadin.shared.communication.ClientRpc;
  */
 public interface CalendarClientRpc extends ClientRpc {
     void scroll(int scrollPosition);
+
+    /**
+     * Patches the items shown by the client.
+     *
+     * @param changedItems
+     *            Items that were added or changed since the last update
+     * @param removedItems
+     *            Keys of the items that were removed
+     */
+    void updateItems(List<CalendarState.Item> changedItems, List<String> removedItems);
+
+    /**
+     * Delivers the description of an item requested by the client.
+     *
+     * @param itemKey
+     *            Key of the item
+     * @param description
+     *            The description, empty if the item has none
+     */
+    void itemDescription(String itemKey, String description);
 }
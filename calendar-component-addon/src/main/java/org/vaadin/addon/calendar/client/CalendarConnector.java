@@ -17,6 +17,7 @@ package org.vaadin.addon.calendar.client;
 
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.NativeEvent;
+import com.google.gwt.event.dom.client.MouseOutEvent;
 import com.google.gwt.i18n.client.DateTimeFormat;
 import com.google.gwt.user.client.DOM;
 import com.google.gwt.user.client.Window;
@@ -39,8 +40,6 @@ import org.vaadin.addon.calendar.client.ui.schedule.dd.CalendarWeekDropHandler;
 
 import java.text.ParseException;
 import java.util.*;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 /**
  * Handles communication between Calendar on the server side and
@@ -53,10 +52,52 @@ import java.util.logging.Logger;
 public class CalendarConnector extends AbstractComponentConnector
         implements ActionOwner, SimpleManagedLayout , Paintable {
 
-    private final HashMap<String, String> actionMap = new HashMap<>();
     private CalendarServerRpc rpc = RpcProxy.create(CalendarServerRpc.class, this);
     private HashMap<Object, String> tooltips = new HashMap<>();
-    private List<String> actionKeys = new ArrayList<>();
+
+    /** Maximum number of lazily loaded descriptions kept by the client. */
+    private static final int DESCRIPTION_CACHE_SIZE = 100;
+
+    /** Keys of the items whose description is loaded on demand. */
+    private final Set<Object> lazyTooltips = new HashSet<>();
+
+    /** Recently loaded descriptions, least recently shown first. */
+    private final Map<Object, String> tooltipCache = new LinkedHashMap<Object, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, String> eldest) {
+            return size() > DESCRIPTION_CACHE_SIZE;
+        }
+    };
+
+    /** Keys of the items whose description has been requested. */
+    private final Set<Object> pendingTooltips = new HashSet<>();
+
+    /** Key of the item under the pointer whose description is requested. */
+    private Object hoveredTooltipKey;
+    private final Map<String, CalendarState.Item> itemModel = new LinkedHashMap<>();
+
+    /**
+     * Index given to the next item received, so that items patched into the
+     * view do not share the indexes of the items already shown.
+     */
+    private int nextItemIndex;
+
+    /**
+     * State properties which change the layout of the whole view. Changes of
+     * the other properties are applied to the rendered view in place.
+     */
+    private static final String[] VIEW_PROPERTIES = { "format24H", "dayNames",
+            "monthNames", "firstVisibleDayOfWeek", "lastVisibleDayOfWeek",
+            "firstHourOfDay", "lastHourOfDay", "firstDayOfWeek", "scroll",
+            "itemEpochFormat", "itemsEpoch", "itemsBase", "itemZoneOffsets",
+            "itemCaptionAsHtml", "weekItemsVirtualized", "blockedSlotMinutes",
+            "agendaView", "agendaHasPrevious", "agendaHasNext", "itemSortOrder",
+            "enabled", "registeredEventListeners" };
+
+    // the days the view was rendered for
+    private List<CalendarState.Day> shownDays;
+    private List<CalendarState.Action> actionTable = Collections.emptyList();
+    private CalendarActionIndex actionIndex;
 
     private static final String DROPHANDLER_ACCEPT_CRITERIA_PAINT_TAG = "-ac";
 
@@ -72,9 +113,30 @@ public class CalendarConnector extends AbstractComponentConnector
     @Override
     protected void init() {
         super.init();
-        registerRpc(CalendarClientRpc.class, (CalendarClientRpc) scrollPosition -> {
-            // TODO widget scroll
+        registerRpc(CalendarClientRpc.class, new CalendarClientRpc() {
+            @Override
+            public void scroll(int scrollPosition) {
+                // TODO widget scroll
+            }
+
+            @Override
+            public void updateItems(List<CalendarState.Item> changedItems, List<String> removedItems) {
+                patchItems(changedItems, removedItems);
+            }
+
+            @Override
+            public void itemDescription(String itemKey, String description) {
+                if (pendingTooltips.remove(itemKey) && lazyTooltips.contains(itemKey)) {
+                    // an empty description is cached too, so it is not requested again
+                    tooltipCache.put(itemKey, description != null ? description : "");
+                    if (itemKey.equals(hoveredTooltipKey)) {
+                        hoveredTooltipKey = null;
+                        showArrivedTooltip(description);
+                    }
+                }
+            }
         });
+        getWidget().addDomHandler(event -> hoveredTooltipKey = null, MouseOutEvent.getType());
         getLayoutManager().registerDependency(this, getWidget().getElement());
     }
 
@@ -133,7 +195,7 @@ public class CalendarConnector extends AbstractComponentConnector
                 sb.append("-");
                 sb.append(DateUtil
                         .formatClientSideTime(item.getStartTime()));
-                rpc.itemMove(item.getIndex(), sb.toString());
+                rpc.itemMove(item.getKey(), sb.toString());
             }
         });
         getWidget().setListener((VCalendar.ItemResizeListener) item -> {
@@ -157,16 +219,17 @@ public class CalendarConnector extends AbstractComponentConnector
 
                 String newEndDate = buffer.toString();
 
-                rpc.itemResize(item.getIndex(), newStartDate, newEndDate);
+                rpc.itemResize(item.getKey(), newStartDate, newEndDate);
             }
         });
         getWidget().setListener((VCalendar.ScrollListener) scrollPosition -> {
             // This call is @Delayed (== non-immediate)
             rpc.scroll(scrollPosition);
         });
+        getWidget().setListener((VCalendar.AgendaScrollListener) date -> rpc.agendaScroll(date));
         getWidget().setListener((VCalendar.ItemClickListener) item -> {
             if (hasEventListener(CalendarEventId.ITEM_CLICK)) {
-                rpc.itemClick(item.getIndex());
+                rpc.itemClick(item.getKey());
             }
         });
         getWidget().setListener((event, widget) -> {
@@ -247,7 +310,7 @@ public class CalendarConnector extends AbstractComponentConnector
     }
 
     private boolean showingMonthView() {
-        return getState().days.size() > 7;
+        return !getState().agendaView && getState().days.size() > 7;
     }
 
     /*
@@ -302,18 +365,34 @@ public class CalendarConnector extends AbstractComponentConnector
         widget.setItemResizeAllowed(hasEventListener(CalendarEventId.ITEM_RESIZE));
 
         widget.setItemCaptionAsHtml(state.itemCaptionAsHtml);
+        widget.setWeekItemsVirtualized(state.weekItemsVirtualized);
+        widget.setItemsLoading(state.itemsLoading);
 
         CalendarState.ItemSortOrder oldOrder = getWidget().getSortOrder();
         if (!SharedUtil.equals(oldOrder, getState().itemSortOrder)) {
             getWidget().setSortOrder(getState().itemSortOrder);
         }
 
-        updateView();
+        Map<String, CalendarState.Item> shownItems = null;
+        if (stateChangeEvent.hasPropertyChanged("items")
+                || stateChangeEvent.hasPropertyChanged("itemColumns")
+                || stateChangeEvent.hasPropertyChanged("itemsRevision")) {
+            shownItems = new HashMap<>(itemModel);
+            resetItemModel(state.itemColumns != null
+                    ? ItemColumnsCodec.decode(state.itemColumns) : state.items);
+        }
 
-        updateSizes();
+        if (!reconcileView(stateChangeEvent, shownItems)) {
+            updateView();
+            updateSizes();
+        }
 
-        registerEventToolTips(state.items);
-        updateActionMap(state.actions);
+        if (stateChangeEvent.hasPropertyChanged("actions")
+                || stateChangeEvent.hasPropertyChanged("actionsBase")
+                || stateChangeEvent.hasPropertyChanged("actionRanges")
+                || stateChangeEvent.hasPropertyChanged("actionSets")) {
+            updateActionMap(state);
+        }
     }
 
     /**
@@ -324,19 +403,203 @@ public class CalendarConnector extends AbstractComponentConnector
         return getConnection();
     }
 
+    /**
+     * Applies a state change to the rendered view in place. Days are matched
+     * by date and items by key, and only the differing ones are updated.
+     *
+     * @param shownItems
+     *            The rendered items by key, or null if the items did not
+     *            change
+     * @return false if the whole view has to be rendered again
+     */
+    private boolean reconcileView(StateChangeEvent stateChangeEvent,
+                                  Map<String, CalendarState.Item> shownItems) {
+
+        if (stateChangeEvent.isInitialStateChange() || shownDays == null) {
+            return false;
+        }
+        for (String property : VIEW_PROPERTIES) {
+            if (stateChangeEvent.hasPropertyChanged(property)) {
+                return false;
+            }
+        }
+
+        CalendarState state = getState();
+        if (stateChangeEvent.hasPropertyChanged("days")) {
+            if (!isSameDays(shownDays, state.days)
+                    || !getWidget().updateBlockedSlots(calendarDayListOf(state.days))) {
+                return false;
+            }
+            shownDays = state.days;
+        }
+
+        if (stateChangeEvent.hasPropertyChanged("now")
+                && !getWidget().updateToday(getWidget().getDateTimeFormat().parse(state.now))) {
+            return false;
+        }
+
+        return shownItems == null || reconcileItems(shownItems);
+    }
+
+    /**
+     * Re-renders only the items which were added, changed or removed since
+     * the view was rendered.
+     */
+    private boolean reconcileItems(Map<String, CalendarState.Item> shownItems) {
+
+        Set<String> staleKeys = new HashSet<>();
+        List<CalendarState.Item> freshItems = new ArrayList<>();
+        for (CalendarState.Item item : itemModel.values()) {
+            CalendarState.Item shown = shownItems.remove(item.key);
+            if (shown == null) {
+                freshItems.add(item);
+            } else if (!isSameItem(shown, item)) {
+                staleKeys.add(item.key);
+                freshItems.add(item);
+            }
+        }
+        // what is left was removed
+        staleKeys.addAll(shownItems.keySet());
+
+        if (staleKeys.isEmpty() && freshItems.isEmpty()) {
+            return true;
+        }
+        return getWidget().updateItems(staleKeys,
+                calendarEventListOf(freshItems, getState().format24H));
+    }
+
+    /**
+     * @return true if the days are the same dates with the same captions,
+     *         only their blocked slots may differ
+     */
+    private static boolean isSameDays(List<CalendarState.Day> shown,
+                                      List<CalendarState.Day> days) {
+        if (shown == null || days == null || shown.size() != days.size()) {
+            return false;
+        }
+        for (int i = 0; i < days.size(); i++) {
+            CalendarState.Day a = shown.get(i);
+            CalendarState.Day b = days.get(i);
+            if (!SharedUtil.equals(a.date, b.date)
+                    || !SharedUtil.equals(a.localizedDateFormat, b.localizedDateFormat)
+                    || a.dayOfWeek != b.dayOfWeek || a.week != b.week
+                    || a.yearOfWeek != b.yearOfWeek) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSameItem(CalendarState.Item a, CalendarState.Item b) {
+        return a.start == b.start && a.end == b.end
+                && a.allDay == b.allDay && a.moveable == b.moveable
+                && a.resizeable == b.resizeable && a.clickable == b.clickable
+                && a.hasDescription == b.hasDescription
+                && SharedUtil.equals(a.dateFrom, b.dateFrom)
+                && SharedUtil.equals(a.dateTo, b.dateTo)
+                && SharedUtil.equals(a.timeFrom, b.timeFrom)
+                && SharedUtil.equals(a.timeTo, b.timeTo)
+                && SharedUtil.equals(a.caption, b.caption)
+                && SharedUtil.equals(a.styleName, b.styleName)
+                && SharedUtil.equals(a.description, b.description);
+    }
+
+    private void resetItemModel(List<CalendarState.Item> items) {
+        itemModel.clear();
+        clearTooltips();
+        if (items != null) {
+            for (CalendarState.Item item : items) {
+                itemModel.put(item.key, item);
+            }
+            registerEventToolTips(items);
+        }
+    }
+
+    /**
+     * Applies an item delta sent by the server to the item model and
+     * re-renders only the days showing the affected items.
+     */
+    private void patchItems(List<CalendarState.Item> changedItems, List<String> removedItems) {
+
+        Set<String> staleKeys = new HashSet<>(removedItems);
+        for (String key : removedItems) {
+            itemModel.remove(key);
+            removeTooltip(key);
+        }
+        for (CalendarState.Item item : changedItems) {
+            itemModel.put(item.key, item);
+            staleKeys.add(item.key);
+        }
+        registerEventToolTips(changedItems);
+
+        if (!getWidget().updateItems(staleKeys,
+                calendarEventListOf(changedItems, getState().format24H))) {
+            updateView();
+            updateSizes();
+        }
+    }
+
     /**
      * Register the description of the items as tooltips. This way, any event
-     * displaying widget can use the event index as a key to display the
+     * displaying widget can use the item key to display the
      * tooltip.
      */
     private void registerEventToolTips(List<CalendarState.Item> items) {
         for (CalendarState.Item e : items) {
+            removeTooltip(e.key);
             if (e.description != null && !"".equals(e.description)) {
-                tooltips.put(e.index, e.description);
-            } else {
-                tooltips.remove(e.index);
+                tooltips.put(e.key, e.description);
+            } else if (e.hasDescription && getState().lazyItemDescriptions) {
+                lazyTooltips.add(e.key);
+            }
+        }
+    }
+
+    private void removeTooltip(Object key) {
+        tooltips.remove(key);
+        lazyTooltips.remove(key);
+        tooltipCache.remove(key);
+        pendingTooltips.remove(key);
+    }
+
+    private void clearTooltips() {
+        tooltips.clear();
+        lazyTooltips.clear();
+        tooltipCache.clear();
+        pendingTooltips.clear();
+        hoveredTooltipKey = null;
+    }
+
+    /**
+     * Gets the description of an item. A description which is loaded on
+     * demand is requested from the server and shown by a later call once it
+     * has arrived.
+     */
+    private String getTooltip(Object key) {
+        if (!lazyTooltips.contains(key)) {
+            return tooltips.get(key);
+        }
+        String description = tooltipCache.get(key);
+        if (description == null) {
+            hoveredTooltipKey = key;
+            if (pendingTooltips.add(key)) {
+                rpc.itemDescription((String) key);
             }
         }
+        return description;
+    }
+
+    /**
+     * Shows the description which arrived for the item still under the
+     * pointer. The tooltip was not opened without a description, and it is
+     * otherwise only asked for again when the pointer moves.
+     */
+    private void showArrivedTooltip(String description) {
+        if (description == null || description.isEmpty()) {
+            return;
+        }
+        getConnection().getVTooltip().showAssistive(new TooltipInfo(description,
+                getState().descriptionContentMode, null, this));
     }
 
     @Override
@@ -346,8 +609,9 @@ public class CalendarConnector extends AbstractComponentConnector
 
         Widget w = WidgetUtil.findWidget(element, DateCellDayItem.class);
 
+        hoveredTooltipKey = null;
         if (w instanceof HasTooltipKey) {
-            String title = tooltips.get(((HasTooltipKey) w).getTooltipKey());
+            String title = getTooltip(((HasTooltipKey) w).getTooltipKey());
             tooltipInfo = new TooltipInfo(title != null ? title : "", getState().descriptionContentMode,null, this);
         }
 
@@ -371,10 +635,19 @@ public class CalendarConnector extends AbstractComponentConnector
 
         CalendarState state = getState();
         List<CalendarState.Day> days = state.days;
-        List<CalendarState.Item> items = state.items;
+        List<CalendarState.Item> items = new ArrayList<>(itemModel.values());
+        shownDays = days;
+        // all items are rendered again
+        nextItemIndex = 0;
 
         CalendarDropHandler dropHandler = getWidget().getDropHandler();
-        if (showingMonthView()) {
+        if (state.agendaView) {
+            getWidget().updateAgendaView(
+                    getWidget().getDateTimeFormat().parse(state.now),
+                    calendarEventListOf(items, state.format24H),
+                    calendarDayListOf(days), state.agendaHasPrevious,
+                    state.agendaHasNext);
+        } else if (showingMonthView()) {
             updateMonthView(days, items);
             if (dropHandler != null
                     && !(dropHandler instanceof CalendarMonthDropHandler)) {
@@ -411,87 +684,68 @@ public class CalendarConnector extends AbstractComponentConnector
     }
 
     private Action[] getActionsBetween(Date start, Date end) {
-        List<Action> actions = new ArrayList<>();
-        List<String> ids = new ArrayList<>();
-
-        for (String actionKey : actionKeys) {
-
-            String id = getActionID(actionKey);
-            if (!ids.contains(id)) {
-
-                Date actionStartDate;
-                Date actionEndDate;
-                try {
-                    actionStartDate = getActionStartDate(actionKey);
-                    actionEndDate = getActionEndDate(actionKey);
-                } catch (ParseException pe) {
-                    Logger.getLogger(CalendarConnector.class.getName()).
-                            log(Level.SEVERE, "Failed to parse action date");
-                    continue;
-                }
-
-                // Case 0: action inside event timeframe
-                // Action should start AFTER or AT THE SAME TIME as the event,
-                // and
-                // Action should end BEFORE or AT THE SAME TIME as the event
-                boolean test0 = actionStartDate.compareTo(start) >= 0
-                        && actionEndDate.compareTo(end) <= 0;
-
-                // Case 1: action intersects start of timeframe
-                // Action end time must be between start and end of event
-                boolean test1 = actionEndDate.compareTo(start) > 0
-                        && actionEndDate.compareTo(end) <= 0;
-
-                // Case 2: action intersects end of timeframe
-                // Action start time must be between start and end of event
-                boolean test2 = actionStartDate.compareTo(start) >= 0
-                        && actionStartDate.compareTo(end) < 0;
-
-                // Case 3: event inside action timeframe
-                // Action should start AND END before the event is complete
-                boolean test3 = start.compareTo(actionStartDate) >= 0
-                        && end.compareTo(actionEndDate) <= 0;
-
-                if (test0 || test1 || test2 || test3) {
-                    VCalendarAction a = new VCalendarAction(this, rpc, actionKey);
-                    a.setCaption(getActionCaption(actionKey));
-                    a.setIconUrl(getActionIcon(actionKey));
-                    a.setActionStartDate(start);
-                    a.setActionEndDate(end);
-                    actions.add(a);
-                    ids.add(id);
-                }
-            }
+        if (actionIndex == null) {
+            return new Action[0];
         }
 
+        List<Action> actions = new ArrayList<>();
+        for (int index : actionIndex.getActionsBetween(start, end)) {
+            actions.add(createAction(actionTable.get(index), start, end));
+        }
         return actions.toArray(new Action[actions.size()]);
     }
 
-    private void updateActionMap(List<CalendarState.Action> actions) {
-        actionMap.clear();
-        actionKeys.clear();
+    private VCalendarAction createAction(CalendarState.Action action, Date start, Date end) {
+        VCalendarAction a = new VCalendarAction(this, rpc, action.actionKey);
+        a.setCaption(action.caption);
+        if (action.iconKey != null) {
+            a.setIconUrl(getResourceUrl(action.iconKey));
+        }
+        a.setActionStartDate(start);
+        a.setActionEndDate(end);
+        return a;
+    }
 
-        if (actions == null) {
+    private void updateActionMap(CalendarState state) {
+        if (state.actions == null || state.actionsBase == null) {
+            actionTable = Collections.emptyList();
+            actionIndex = null;
             return;
         }
 
-        for (CalendarState.Action action : actions) {
-            String id = action.actionKey + "-" + action.startDate + "-"
-                    + action.endDate;
-            actionMap.put(id + "_k", action.actionKey);
-            actionMap.put(id + "_c", action.caption);
-            actionMap.put(id + "_s", action.startDate);
-            actionMap.put(id + "_e", action.endDate);
-            actionKeys.add(id);
-            if (action.iconKey != null) {
-                actionMap.put(id + "_i", getResourceUrl(action.iconKey));
+        actionTable = state.actions;
+        actionIndex = new CalendarActionIndex(
+                getWidget().getDateFormat().parse(state.actionsBase),
+                state.actionRanges, state.actionSets, actionTable.size());
+    }
 
-            } else {
-                actionMap.remove(id + "_i");
+    /**
+     * Finds the action and range named by a key of the form
+     * <code>actionKey-start-end</code>, with the dates formatted by
+     * {@link DateConstants#ACTION_DATE_FORMAT_PATTERN}.
+     *
+     * @return the index of the action in the action table and the index of
+     *         the range, or null if there is no such action
+     */
+    private int[] findAction(String actionKey) {
+        if (actionIndex == null || actionKey == null) {
+            return null;
+        }
+        DateTimeFormat formatter = DateTimeFormat
+                .getFormat(DateConstants.ACTION_DATE_FORMAT_PATTERN);
+        for (int range = 0; range < actionIndex.size(); range++) {
+            String suffix = "-" + formatter.format(actionIndex.getStart(range))
+                    + "-" + formatter.format(actionIndex.getEnd(range));
+            if (!actionKey.endsWith(suffix)) {
+                continue;
+            }
+            for (int index : actionIndex.getActions(range)) {
+                if (actionKey.equals(actionTable.get(index).actionKey + suffix)) {
+                    return new int[] { index, range };
+                }
             }
         }
-
-        Collections.sort(actionKeys);
+        return null;
     }
 
     /**
@@ -500,9 +754,12 @@ public class CalendarConnector extends AbstractComponentConnector
      * @param actionKey the unique action key
      * @return
      * @since 7.1.2
+     * @deprecated Actions are looked up with {@link CalendarActionIndex}
      */
+    @Deprecated
     public String getActionID(String actionKey) {
-        return actionMap.get(actionKey + "_k");
+        int[] found = findAction(actionKey);
+        return found == null ? null : actionTable.get(found[0]).actionKey;
     }
 
     /**
@@ -510,9 +767,12 @@ public class CalendarConnector extends AbstractComponentConnector
      *
      * @param actionKey The unique action key
      * @return
+     * @deprecated Actions are looked up with {@link CalendarActionIndex}
      */
+    @Deprecated
     public String getActionCaption(String actionKey) {
-        return actionMap.get(actionKey + "_c");
+        int[] found = findAction(actionKey);
+        return found == null ? null : actionTable.get(found[0]).caption;
     }
 
     /**
@@ -520,9 +780,15 @@ public class CalendarConnector extends AbstractComponentConnector
      *
      * @param actionKey The unique action key
      * @return
+     * @deprecated Actions are looked up with {@link CalendarActionIndex}
      */
+    @Deprecated
     public String getActionIcon(String actionKey) {
-        return actionMap.get(actionKey + "_i");
+        int[] found = findAction(actionKey);
+        if (found == null || actionTable.get(found[0]).iconKey == null) {
+            return null;
+        }
+        return getResourceUrl(actionTable.get(found[0]).iconKey);
     }
 
     /**
@@ -531,12 +797,15 @@ public class CalendarConnector extends AbstractComponentConnector
      * @param actionKey The unique action key
      * @return
      * @throws ParseException
+     * @deprecated Actions are looked up with {@link CalendarActionIndex}
      */
+    @Deprecated
     public Date getActionStartDate(String actionKey) throws ParseException {
-        String dateStr = actionMap.get(actionKey + "_s");
-        DateTimeFormat formatter = DateTimeFormat
-                .getFormat(DateConstants.ACTION_DATE_FORMAT_PATTERN);
-        return formatter.parse(dateStr);
+        int[] found = findAction(actionKey);
+        if (found == null) {
+            throw new ParseException("Unknown action " + actionKey, 0);
+        }
+        return actionIndex.getStart(found[1]);
     }
 
     /**
@@ -545,12 +814,15 @@ public class CalendarConnector extends AbstractComponentConnector
      * @param actionKey The unique action key
      * @return
      * @throws ParseException
+     * @deprecated Actions are looked up with {@link CalendarActionIndex}
      */
+    @Deprecated
     public Date getActionEndDate(String actionKey) throws ParseException {
-        String dateStr = actionMap.get(actionKey + "_e");
-        DateTimeFormat formatter = DateTimeFormat
-                .getFormat(DateConstants.ACTION_DATE_FORMAT_PATTERN);
-        return formatter.parse(dateStr);
+        int[] found = findAction(actionKey);
+        if (found == null) {
+            throw new ParseException("Unknown action " + actionKey, 0);
+        }
+        return actionIndex.getEnd(found[1]);
     }
 
     /**
@@ -560,21 +832,13 @@ public class CalendarConnector extends AbstractComponentConnector
     @Override
     public Action[] getActions() {
         List<Action> actions = new ArrayList<Action>();
-        for (int i = 0; i < actionKeys.size(); i++) {
-            final String actionKey = actionKeys.get(i);
-            final VCalendarAction a = new VCalendarAction(this, rpc, actionKey);
-            a.setCaption(getActionCaption(actionKey));
-            a.setIconUrl(getActionIcon(actionKey));
-
-            try {
-                a.setActionStartDate(getActionStartDate(actionKey));
-                a.setActionEndDate(getActionEndDate(actionKey));
-            } catch (ParseException pe) {
-                Logger.getLogger(CalendarConnector.class.getName()).
-                        log(Level.SEVERE,"", pe);
+        if (actionIndex != null) {
+            for (int i = 0; i < actionIndex.size(); i++) {
+                for (int index : actionIndex.getActions(i)) {
+                    actions.add(createAction(actionTable.get(index),
+                            actionIndex.getStart(i), actionIndex.getEnd(i)));
+                }
             }
-
-            actions.add(a);
         }
         return actions.toArray(new Action[actions.size()]);
     }
@@ -594,24 +858,36 @@ public class CalendarConnector extends AbstractComponentConnector
 
         List<CalendarItem> list = new ArrayList<>(items.size());
 
+        CalendarItemTimes times = null;
+        if (getState().itemEpochFormat && getState().itemsBase != null) {
+            times = new CalendarItemTimes(getWidget().getDateFormat().parse(getState().itemsBase),
+                    getState().itemZoneOffsets);
+        }
+
         for (CalendarState.Item item : items) {
-            final String dateFrom = item.dateFrom;
-            final String dateTo = item.dateTo;
-            final String timeFrom = item.timeFrom;
-            final String timeTo = item.timeTo;
             CalendarItem calendarItem = new CalendarItem();
             calendarItem.setAllDay(item.allDay);
             calendarItem.setCaption(item.caption);
             calendarItem.setDescription(item.description);
-            calendarItem.setStart(getWidget().getDateFormat().parse(dateFrom));
-            calendarItem.setEnd(getWidget().getDateFormat().parse(dateTo));
             calendarItem.setFormat24h(format24h);
-            calendarItem.setStartTime(getWidget().getDateTimeFormat()
-                    .parse(dateFrom + " " + timeFrom));
-            calendarItem.setEndTime(getWidget().getDateTimeFormat()
-                    .parse(dateTo + " " + timeTo));
+            if (times != null) {
+                calendarItem.setStart(times.toDate(item.start));
+                calendarItem.setEnd(times.toDate(item.end));
+                calendarItem.setStartTime(times.toDateTime(item.start));
+                calendarItem.setEndTime(times.toDateTime(item.end));
+            } else {
+                final String dateFrom = item.dateFrom;
+                final String dateTo = item.dateTo;
+                calendarItem.setStart(getWidget().getDateFormat().parse(dateFrom));
+                calendarItem.setEnd(getWidget().getDateFormat().parse(dateTo));
+                calendarItem.setStartTime(getWidget().getDateTimeFormat()
+                        .parse(dateFrom + " " + item.timeFrom));
+                calendarItem.setEndTime(getWidget().getDateTimeFormat()
+                        .parse(dateTo + " " + item.timeTo));
+            }
             calendarItem.setStyleName(item.styleName);
-            calendarItem.setIndex(item.index);
+            calendarItem.setIndex(nextItemIndex++);
+            calendarItem.setKey(item.key);
             calendarItem.setMoveable(item.moveable);
             calendarItem.setResizeable(item.resizeable);
             calendarItem.setClickable(item.clickable);
@@ -624,7 +900,8 @@ public class CalendarConnector extends AbstractComponentConnector
         List<CalendarDay> list = new ArrayList<>(days.size());
         for (CalendarState.Day day : days) {
             CalendarDay d = new CalendarDay(
-                    day.date, day.localizedDateFormat,day.dayOfWeek, day.week, day.yearOfWeek, day.blockedSlots);
+                    day.date, day.localizedDateFormat,day.dayOfWeek, day.week, day.yearOfWeek,
+                    day.blockedSlots, getState().blockedSlotMinutes);
             list.add(d);
         }
         return list;
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.vaadin.addon.calendar.client;
+
+import java.util.Date;
+
+/**
+ * Turns item times sent as seconds from {@link CalendarState#itemsEpoch} into
+ * client side dates showing the wall clock time of the calendar time zone,
+ * using the offset table in {@link CalendarState#itemZoneOffsets}.
+ */
+public class CalendarItemTimes {
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final int baseYear;
+
+    private final int baseMonth;
+
+    private final int baseDate;
+
+    private final int[] offsets;
+
+    /**
+     * @param base
+     *            The first shown day, at the start of the day
+     * @param offsets
+     *            Pairs of seconds and the time zone offset which applies from
+     *            then on, sorted by time
+     */
+    @SuppressWarnings("deprecation")
+    public CalendarItemTimes(Date base, int[] offsets) {
+        baseYear = base.getYear();
+        baseMonth = base.getMonth();
+        baseDate = base.getDate();
+        this.offsets = offsets == null || offsets.length == 0 ? new int[] { 0, 0 } : offsets;
+    }
+
+    /**
+     * @return the date and time for seconds from the epoch
+     */
+    @SuppressWarnings("deprecation")
+    public Date toDateTime(int seconds) {
+        long wall = getWallSeconds(seconds);
+        int days = (int) Math.floor(wall / (double) SECONDS_PER_DAY);
+        int secondOfDay = (int) (wall - (long) days * SECONDS_PER_DAY);
+        return new Date(baseYear, baseMonth, baseDate + days, 0, 0, secondOfDay);
+    }
+
+    /**
+     * @return the start of the day for seconds from the epoch
+     */
+    @SuppressWarnings("deprecation")
+    public Date toDate(int seconds) {
+        long wall = getWallSeconds(seconds);
+        int days = (int) Math.floor(wall / (double) SECONDS_PER_DAY);
+        return new Date(baseYear, baseMonth, baseDate + days);
+    }
+
+    /**
+     * Gets the wall clock seconds from the start of the first shown day.
+     */
+    private long getWallSeconds(int seconds) {
+        // the epoch is the start of the first shown day, in its own offset
+        return (long) seconds + getOffset(seconds) - getOffset(0);
+    }
+
+    private int getOffset(int seconds) {
+        // last entry starting at or before the time, the first one otherwise
+        int lo = 0;
+        int hi = offsets.length / 2 - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid * 2] <= seconds) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return offsets[lo * 2 + 1];
+    }
+}
@@ -24,11 +24,11 @@ import com.vaadin.shared.communication.ServerRpc;
  */
 public interface CalendarServerRpc extends ServerRpc {
 
-    void itemMove(int itemIndex, String newDate);
+    void itemMove(String itemKey, String newDate);
 
-    void itemClick(int itemIndex);
+    void itemClick(String itemKey);
 
-    void itemResize(int itemIndex, String newStartDate, String newEndDate);
+    void itemResize(String itemKey, String newStartDate, String newEndDate);
 
     void rangeSelect(String range);
 
@@ -42,8 +42,16 @@ public interface CalendarServerRpc extends ServerRpc {
 
     void actionOnEmptyCell(String actionKey, String startDate, String endDate);
 
-    void actionOnItem(String actionKey, String startDate, String endDate, int itemIndex);
+    void actionOnItem(String actionKey, String startDate, String endDate, String itemKey);
 
     @Delayed(lastOnly = true)
     void scroll(int scrollPosition);
+
+    void agendaScroll(String date);
+
+    /**
+     * Requests the description of an item, which the server sends with
+     * {@link CalendarClientRpc#itemDescription(String, String)}.
+     */
+    void itemDescription(String itemKey);
 }
@@ -18,7 +18,6 @@ package org.vaadin.addon.calendar.client;
 import com.vaadin.shared.AbstractComponentState;
 
 import java.util.List;
-import java.util.Set;
 
 /**
  * @since 7.1.0
@@ -38,8 +37,31 @@ public class CalendarState extends AbstractComponentState {
     public String now;
     public List<Day> days;
     public List<Item> items;
+    /** Columnar encoding of the items, sent instead of {@link #items}. */
+    public ItemColumns itemColumns;
+    public int itemsRevision;
+    public boolean itemEpochFormat;
+    /** Start of the first shown day, item times are seconds from this. */
+    public long itemsEpoch;
+    /** Date of the first shown day. */
+    public String itemsBase;
+    /**
+     * Pairs of seconds from {@link #itemsEpoch} and the time zone offset in
+     * seconds which applies from then on, sorted by time.
+     */
+    public int[] itemZoneOffsets;
+    public boolean itemsLoading;
     public List<Action> actions;
+    public String actionsBase;
+    public int[] actionRanges;
+    public int[] actionSets;
     public boolean itemCaptionAsHtml;
+    public boolean weekItemsVirtualized;
+    public boolean lazyItemDescriptions;
+    public int blockedSlotMinutes = 30;
+    public boolean agendaView;
+    public boolean agendaHasPrevious;
+    public boolean agendaHasNext;
 
     public ItemSortOrder itemSortOrder = ItemSortOrder.DURATION_DESC;
 
@@ -73,27 +95,70 @@ public class CalendarState extends AbstractComponentState {
         public int dayOfWeek;
         public int week;
         public int yearOfWeek;
-        public Set<Long> blockedSlots;
+        /**
+         * Blocked slots of {@link CalendarState#blockedSlotMinutes} minutes
+         * from the start of the day, one bit per slot packed into 32 bit
+         * words. Null if no slot is blocked.
+         */
+        public int[] blockedSlots;
     }
 
+    /**
+     * Distinct action. Where it applies is defined by
+     * {@link CalendarState#actionRanges}, a sequence of start, end and action
+     * set triples. Start and end are wall clock seconds from the start of
+     * {@link CalendarState#actionsBase}, i.e. days times 86400 plus the second
+     * of the day. An action set is an offset into
+     * {@link CalendarState#actionSets}, which holds the number of actions
+     * followed by their indexes in {@link CalendarState#actions}.
+     */
     public static class Action implements java.io.Serializable {
 
         public String caption;
         public String iconKey;
         public String actionKey;
-        public String startDate;
-        public String endDate;
+    }
+
+    /**
+     * Items as parallel arrays, one entry per item. Captions, style names and
+     * descriptions are indexes into {@link #strings}. The flags are a bitfield
+     * of {@link #ALL_DAY}, {@link #MOVEABLE}, {@link #RESIZEABLE},
+     * {@link #CLICKABLE} and {@link #HAS_DESCRIPTION}. Times are seconds from
+     * {@link CalendarState#itemsEpoch}.
+     */
+    public static class ItemColumns implements java.io.Serializable {
+
+        public static final int ALL_DAY = 1;
+        public static final int MOVEABLE = 2;
+        public static final int RESIZEABLE = 4;
+        public static final int CLICKABLE = 8;
+        public static final int HAS_DESCRIPTION = 16;
+
+        public String[] strings;
+        public String[] keys;
+        public int[] starts;
+        public int[] ends;
+        public int[] flags;
+        public int[] captions;
+        public int[] styleNames;
+        public int[] descriptions;
     }
 
     public static class Item implements java.io.Serializable {
-        public int index;
+        public String key;
         public String caption;
         public String dateFrom;
         public String dateTo;
         public String timeFrom;
         public String timeTo;
+        /** Start in seconds from {@link CalendarState#itemsEpoch}. */
+        public int start;
+        /** End in seconds from {@link CalendarState#itemsEpoch}. */
+        public int end;
         public String styleName;
         public String description;
+        /** True if the item has a description, even if it is not sent. */
+        public boolean hasDescription;
         public boolean allDay;
         public boolean moveable = true;
         public boolean resizeable = true;
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.vaadin.addon.calendar.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts items between the object form of {@link CalendarState#items} and
+ * the columnar form of {@link CalendarState#itemColumns}. The server encodes,
+ * the connector decodes.
+ */
+public final class ItemColumnsCodec {
+
+    private ItemColumnsCodec() {
+    }
+
+    /**
+     * Encodes the items as columns. Captions, style names and descriptions
+     * are replaced by indexes into a dictionary, so repeated strings are only
+     * sent once.
+     *
+     * @param items
+     *            Items with numeric times
+     * @return the columns
+     */
+    public static CalendarState.ItemColumns encode(List<CalendarState.Item> items) {
+        int size = items.size();
+        CalendarState.ItemColumns columns = new CalendarState.ItemColumns();
+        columns.keys = new String[size];
+        columns.starts = new int[size];
+        columns.ends = new int[size];
+        columns.flags = new int[size];
+        columns.captions = new int[size];
+        columns.styleNames = new int[size];
+        columns.descriptions = new int[size];
+
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> dictionary = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            CalendarState.Item item = items.get(i);
+            columns.keys[i] = item.key;
+            columns.starts[i] = item.start;
+            columns.ends[i] = item.end;
+            columns.flags[i] = (item.allDay ? CalendarState.ItemColumns.ALL_DAY : 0)
+                    | (item.moveable ? CalendarState.ItemColumns.MOVEABLE : 0)
+                    | (item.resizeable ? CalendarState.ItemColumns.RESIZEABLE : 0)
+                    | (item.clickable ? CalendarState.ItemColumns.CLICKABLE : 0)
+                    | (item.hasDescription ? CalendarState.ItemColumns.HAS_DESCRIPTION : 0);
+            columns.captions[i] = indexOf(item.caption, dictionary, strings);
+            columns.styleNames[i] = indexOf(item.styleName, dictionary, strings);
+            columns.descriptions[i] = indexOf(item.description, dictionary, strings);
+        }
+        columns.strings = strings.toArray(new String[strings.size()]);
+        return columns;
+    }
+
+    private static int indexOf(String string, Map<String, Integer> dictionary, List<String> strings) {
+        Integer index = dictionary.get(string);
+        if (index == null) {
+            index = strings.size();
+            dictionary.put(string, index);
+            strings.add(string);
+        }
+        return index;
+    }
+
+    /**
+     * Decodes columns into items.
+     *
+     * @param columns
+     *            The columns
+     * @return the items, in the order of the columns
+     */
+    public static List<CalendarState.Item> decode(CalendarState.ItemColumns columns) {
+        List<CalendarState.Item> items = new ArrayList<>(columns.keys.length);
+        for (int i = 0; i < columns.keys.length; i++) {
+            CalendarState.Item item = new CalendarState.Item();
+            item.key = columns.keys[i];
+            item.start = columns.starts[i];
+            item.end = columns.ends[i];
+            item.caption = columns.strings[columns.captions[i]];
+            item.styleName = columns.strings[columns.styleNames[i]];
+            item.description = columns.strings[columns.descriptions[i]];
+            int flags = columns.flags[i];
+            item.allDay = (flags & CalendarState.ItemColumns.ALL_DAY) != 0;
+            item.moveable = (flags & CalendarState.ItemColumns.MOVEABLE) != 0;
+            item.resizeable = (flags & CalendarState.ItemColumns.RESIZEABLE) != 0;
+            item.clickable = (flags & CalendarState.ItemColumns.CLICKABLE) != 0;
+            item.hasDescription = (flags & CalendarState.ItemColumns.HAS_DESCRIPTION) != 0;
+            items.add(item);
+        }
+        return items;
+    }
+}
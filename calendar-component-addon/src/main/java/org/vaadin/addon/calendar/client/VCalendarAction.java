@@ -80,7 +80,7 @@ public class VCalendarAction extends Action {
         if (event == null) {
             rpc.actionOnEmptyCell(actionKey.split("-")[0], startDate, endDate);
         } else {
-            rpc.actionOnItem(actionKey.split("-")[0], startDate, endDate, event.getIndex());
+            rpc.actionOnItem(actionKey.split("-")[0], startDate, endDate, event.getKey());
         }
 
         owner.getClient().getContextMenu().hide();
@@ -66,7 +66,24 @@ public class VCalendar extends Composite implements VHasDropHandler {
     private final SimpleWeekToolbar weekToolbar;
     private WeeklyLongItems weeklyLongEvents;
     private MonthGrid monthGrid;
+
+    /** Cells of the month grid by day from the first day, null for hidden days. */
+    private SimpleDayCell[] monthDays;
+
+    private Date monthFirstDay;
     private WeekGrid weekGrid;
+    private AgendaView agendaView;
+    private final Set<String> allDayItemKeys = new HashSet<>();
+
+    // today's date and time the view was rendered for
+    private Date shownToday;
+
+    // item widgets kept at most for reuse when views are drawn again
+    private static final int ITEM_POOL_SIZE = 500;
+
+    private final WidgetPool<DateCellDayItem> dayItemPool = new WidgetPool<>(ITEM_POOL_SIZE);
+
+    private final WidgetPool<MonthItemLabel> monthItemLabelPool = new WidgetPool<>(ITEM_POOL_SIZE);
     private int intWidth = 0;
     private int intHeight = 0;
 
@@ -91,6 +108,9 @@ public class VCalendar extends Composite implements VHasDropHandler {
     private CalendarState.ItemSortOrder itemSortOrder = CalendarState.ItemSortOrder.DURATION_DESC;
 
     private static ItemDurationComparator DEFAULT_COMPARATOR = new ItemDurationComparator(false);
+    private static final ItemDurationComparator DURATION_ASC_COMPARATOR = new ItemDurationComparator(true);
+    private static final StartDateComparator START_DATE_ASC_COMPARATOR = new StartDateComparator(true);
+    private static final StartDateComparator START_DATE_DESC_COMPARATOR = new StartDateComparator(false);
 
     private CalendarDropHandler dropHandler;
 
@@ -219,6 +239,20 @@ public class VCalendar extends Composite implements VHasDropHandler {
         void scroll(int scrollPosition);
     }
 
+    /**
+     * Listener interface for listening to scrolling in the agenda view.
+     */
+    public interface AgendaScrollListener {
+        /**
+         * Triggered when the agenda view is scrolled close to either end of
+         * the days it shows
+         *
+         * @param date
+         *            The topmost visible date in the format yyyy-MM-dd
+         */
+        void agendaScroll(String date);
+    }
+
     /**
      * Listener interface for listening to mouse items.
      */
@@ -271,6 +305,7 @@ public class VCalendar extends Composite implements VHasDropHandler {
             if (item.isAllDay()) {
                 // Item is set on one "allDay" event or more than one.
                 allDayLong.add(item);
+                allDayItemKeys.add(item.getKey());
 
             } else {
                 // Item is set only on one day.
@@ -280,9 +315,60 @@ public class VCalendar extends Composite implements VHasDropHandler {
 
         weeklyLongEvents.addItems(allDayLong);
 
-        for (CalendarItem item : belowDayLong) {
-            weekGrid.addItem(item);
+        weekGrid.addItems(belowDayLong);
+    }
+
+    /**
+     * Replaces items in the current view without rendering the whole view
+     * again. Only the days showing the stale or the fresh items are laid out.
+     *
+     * @param staleKeys
+     *            Keys of the items to remove, including the old versions of
+     *            changed items
+     * @param freshItems
+     *            The added and changed items
+     * @return false if the items can not be patched and the whole view
+     *         should be rendered again
+     */
+    public boolean updateItems(Set<String> staleKeys, Collection<CalendarItem> freshItems) {
+
+        if (monthGrid != null) {
+
+            Set<SimpleDayCell> cells = new HashSet<>();
+            for (SimpleDayCell sdc : monthDays) {
+                if (sdc != null && sdc.removeItems(staleKeys)) {
+                    cells.add(sdc);
+                }
+            }
+
+            for (CalendarItem e : sortItems(freshItems)) {
+                cells.addAll(addItemToMonthGrid(e, false));
+            }
+
+            for (SimpleDayCell sdc : cells) {
+                sdc.reDraw(true);
+            }
+            return true;
+
+        } else if (weekGrid != null) {
+
+            // all-day items share their rows over the whole week
+            for (String key : staleKeys) {
+                if (allDayItemKeys.contains(key)) {
+                    return false;
+                }
+            }
+            for (CalendarItem e : freshItems) {
+                if (e.isAllDay()) {
+                    return false;
+                }
+            }
+
+            weekGrid.updateItems(staleKeys, freshItems);
+            return true;
         }
+
+        return false;
     }
 
     /**
@@ -302,49 +388,43 @@ public class VCalendar extends Composite implements VHasDropHandler {
         }
     }
 
-    private void addItemToMonthGrid(CalendarItem e, boolean renderImmediately) {
+    private List<SimpleDayCell> addItemToMonthGrid(CalendarItem e, boolean renderImmediately) {
 
         Date when = e.getStart();
         Date to = e.getEnd();
 
-        boolean itemAdded = false;
-        boolean inProgress = false; // Item adding has started
         boolean itemMoving = false;
 
         List<SimpleDayCell> dayCells = new ArrayList<>();
         List<SimpleDayCell> timeCells = new ArrayList<>();
-        for (int row = 0; row < monthGrid.getRowCount(); row++) {
-
-            if (itemAdded) {
-                break;
-            }
-
-            for (int cell = 0; cell < monthGrid.getCellCount(row); cell++) {
-
-                SimpleDayCell sdc = (SimpleDayCell) monthGrid.getWidget(row, cell);
+        if (monthFirstDay == null) {
+            return dayCells;
+        }
 
-                if (isItemInDay(when, to, sdc.getDate())
-                        && isItemInDayWithTime(when, to, sdc.getDate(), e.getEndTime(), e.isAllDay())) {
+        int first = Math.max(getMonthDayIndex(when), 0);
+        int last = Math.min(getMonthDayIndex(to), monthDays.length - 1);
+        for (int i = first; i <= last; i++) {
 
-                    if (!itemMoving) {
-                        itemMoving = sdc.getMoveItem() != null;
-                    }
+            SimpleDayCell sdc = monthDays[i];
+            if (sdc == null) {
+                continue;
+            }
 
-                    long d = e.getRangeInMilliseconds();
-                    if ((d > 0 && d <= DateConstants.DAYINMILLIS)
-                            && !e.isAllDay()) {
-                        timeCells.add(sdc);
-                    } else {
-                        dayCells.add(sdc);
-                    }
+            if (!isItemInDay(when, to, sdc.getDate())
+                    || !isItemInDayWithTime(when, to, sdc.getDate(), e.getEndTime(), e.isAllDay())) {
+                continue;
+            }
 
-                    inProgress = true;
+            if (!itemMoving) {
+                itemMoving = sdc.getMoveItem() != null;
+            }
 
-                } else if (inProgress) {
-                    itemAdded = true;
-                    inProgress = false;
-                    break;
-                }
+            long d = e.getRangeInMilliseconds();
+            if ((d > 0 && d <= DateConstants.DAYINMILLIS)
+                    && !e.isAllDay()) {
+                timeCells.add(sdc);
+            } else {
+                dayCells.add(sdc);
             }
         }
 
@@ -361,6 +441,20 @@ public class VCalendar extends Composite implements VHasDropHandler {
         if (renderImmediately) {
             reDrawAllMonthItems(!itemMoving);
         }
+
+        dayCells.addAll(timeCells);
+        return dayCells;
+    }
+
+    /**
+     * Gets the index of a day in the month grid day table.
+     */
+    @SuppressWarnings("deprecation")
+    private int getMonthDayIndex(Date date) {
+        Date day = new Date(date.getYear(), date.getMonth(), date.getDate());
+        // rounded, as a day may be an hour shorter or longer
+        return (int) Math.round((day.getTime() - monthFirstDay.getTime())
+                / (double) DateConstants.DAYINMILLIS);
     }
 
     /*
@@ -381,24 +475,19 @@ public class VCalendar extends Composite implements VHasDropHandler {
         }
 
         if (item.getSlotIndex() == -1) {
-            // Update slot index
-            int newSlot = -1;
+            // lowest slot which is free on every day of the item
+            int[] occupied = new int[0];
             for (SimpleDayCell sdc : cells) {
-                int slot = sdc.getItemCount();
-                if (slot > newSlot) {
-                    newSlot = slot;
-                }
+                occupied = sdc.addOccupiedSlots(occupied);
             }
-            newSlot++;
-
-            for (int i = 0; i < newSlot; i++) {
-                // check for empty slot
-                if (isSlotEmpty(item, i, cells)) {
-                    newSlot = i;
+            int slot = occupied.length * 32;
+            for (int i = 0; i < occupied.length; i++) {
+                if (occupied[i] != -1) {
+                    slot = i * 32 + Integer.numberOfTrailingZeros(~occupied[i]);
                     break;
                 }
             }
-            item.setSlotIndex(newSlot);
+            item.setSlotIndex(slot);
         }
     }
 
@@ -411,16 +500,6 @@ public class VCalendar extends Composite implements VHasDropHandler {
         }
     }
 
-    private boolean isSlotEmpty(CalendarItem addedEvent, int slotIndex, List<SimpleDayCell> cells) {
-        for (SimpleDayCell sdc : cells) {
-            CalendarItem item = sdc.getCalendarItem(slotIndex);
-            if (item != null && !item.equals(addedEvent)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
     /**
      * Remove a month event from the view
      *
@@ -432,14 +511,10 @@ public class VCalendar extends Composite implements VHasDropHandler {
      */
     public void removeMonthItem(CalendarItem target, boolean repaintImmediately) {
         if (target != null && target.getSlotIndex() >= 0) {
-            // Remove event
-            for (int row = 0; row < monthGrid.getRowCount(); row++) {
-                for (int cell = 0; cell < monthGrid.getCellCount(row); cell++) {
-
-                    SimpleDayCell sdc = (SimpleDayCell) monthGrid.getWidget(row, cell);
-
-                    if (sdc == null) return;
-
+            // the dates of a moved item have changed already, so every day
+            // is checked, which only looks at the slot of the item
+            for (SimpleDayCell sdc : monthDays) {
+                if (sdc != null) {
                     sdc.removeItem(target, repaintImmediately);
                 }
             }
@@ -466,26 +541,32 @@ public class VCalendar extends Composite implements VHasDropHandler {
      * @return An array where the items has been sorted
      */
     public CalendarItem[] sortItems(Collection<CalendarItem> items) {
-        if (CalendarState.ItemSortOrder.DURATION_DESC.equals(itemSortOrder)) {
-            return sortItemsByDuration(items);
-
-        } else if (!CalendarState.ItemSortOrder.UNSORTED.equals(itemSortOrder)) {
-            CalendarItem[] sorted = items
-                    .toArray(new CalendarItem[items.size()]);
-            switch (itemSortOrder) {
-            case DURATION_ASC:
-                Arrays.sort(sorted, new ItemDurationComparator(true));
-                break;
-            case START_DATE_ASC:
-                Arrays.sort(sorted, new StartDateComparator(true));
-                break;
-            case START_DATE_DESC:
-                Arrays.sort(sorted, new StartDateComparator(false));
-                break;
-            }
-            return sorted;
+        CalendarItem[] sorted = items.toArray(new CalendarItem[items.size()]);
+        Comparator<CalendarItem> comparator = getSortComparator();
+        if (comparator != null) {
+            Arrays.sort(sorted, comparator);
+        }
+        return sorted;
+    }
+
+    /**
+     * Gets the comparator of the current sort order.
+     *
+     * @return the comparator, or null if the items are not sorted
+     */
+    public Comparator<CalendarItem> getSortComparator() {
+        switch (itemSortOrder) {
+        case DURATION_DESC:
+            return DEFAULT_COMPARATOR;
+        case DURATION_ASC:
+            return DURATION_ASC_COMPARATOR;
+        case START_DATE_ASC:
+            return START_DATE_ASC_COMPARATOR;
+        case START_DATE_DESC:
+            return START_DATE_DESC_COMPARATOR;
+        default:
+            return null;
         }
-        return items.toArray(new CalendarItem[items.size()]);
     }
 
     /**
@@ -560,7 +641,7 @@ public class VCalendar extends Composite implements VHasDropHandler {
 
             dayToolbar.add(realDayNames[dayOfWeek - 1], dateStr, localized_date_format, isToday ? "today" : null);
             weeklyLongEvents.addDate(date);
-            weekGrid.addDate(date, day.getBlockedSlots());
+            weekGrid.addDate(date, day.getBlockedSlots(), day.getBlockedSlotMinutes());
 
             if (isToday) {
                 weekGrid.setToday(date, today);
@@ -588,19 +669,25 @@ public class VCalendar extends Composite implements VHasDropHandler {
 
         monthGrid = new MonthGrid(this, rows, columns);
         monthGrid.setEnabled(!isDisabled());
+        monthDays = new SimpleDayCell[days.size()];
+        monthFirstDay = null;
         weekToolbar.removeAllRows();
         int pos = 0;
         boolean monthNameDrawn = true;
         boolean firstDayFound = false;
         boolean lastDayFound = false;
 
-        for (CalendarDay day : days) {
+        for (int index = 0; index < days.size(); index++) {
+            CalendarDay day = days.get(index);
             String date = day.getDate();
             Date d = dateformat_date.parse(date);
             int dayOfWeek = day.getDayOfWeek();
             int week = day.getWeek();
 
             int dayOfMonth = d.getDate();
+            if (monthFirstDay == null) {
+                monthFirstDay = d;
+            }
 
             // reset at start of each month
             if (dayOfMonth == 1) {
@@ -630,7 +717,7 @@ public class VCalendar extends Composite implements VHasDropHandler {
                     if (mouseEventListener != null) {
                         event.preventDefault();
                         event.stopPropagation();
-                        mouseEventListener.contextMenu(event, cell);
+                        mouseEventListener.contextMenu(event, cell.getEventWidget(event));
                     }
                 }
             }, ContextMenuEvent.getType());
@@ -652,6 +739,7 @@ public class VCalendar extends Composite implements VHasDropHandler {
 
             }
             monthGrid.setWidget(y, x, cell);
+            monthDays[index] = cell;
             pos++;
         }
     }
@@ -687,6 +775,8 @@ public class VCalendar extends Composite implements VHasDropHandler {
             weekGrid.setHeightPX((intHeight == -1) ? intHeight
                     : intHeight - weeklyLongEvents.getOffsetHeight()
                             - dayToolbar.getOffsetHeight());
+        } else if (agendaView != null) {
+            agendaView.setHeightPX(intHeight);
         }
     }
 
@@ -705,6 +795,8 @@ public class VCalendar extends Composite implements VHasDropHandler {
             } else if (weekGrid != null) {
                 weekGrid.setWidthPX(intWidth);
                 weeklyLongEvents.setWidthPX(weekGrid.getInternalWidth());
+            } else if (agendaView != null) {
+                agendaView.setWidth(intWidth + "px");
             }
         } else {
             dayToolbar.setWidthPX(intWidth);
@@ -1033,7 +1125,11 @@ public class VCalendar extends Composite implements VHasDropHandler {
             outer.remove(0);
         }
 
+        shownToday = today;
+        releaseMonthItems();
         monthGrid = null;
+        monthDays = null;
+        agendaView = null;
         String[] realDayNames = new String[getDayNames().length];
         int j = 0;
 
@@ -1050,6 +1146,7 @@ public class VCalendar extends Composite implements VHasDropHandler {
         }
 
         weeklyLongEvents = new WeeklyLongItems(this);
+        allDayItemKeys.clear();
         if (weekGrid == null) {
             weekGrid = new WeekGrid(this, is24HFormat());
         }
@@ -1109,8 +1206,12 @@ public class VCalendar extends Composite implements VHasDropHandler {
 
         nameToolbar.setDayNames(realDayNames);
 
+        shownToday = today;
+        releaseMonthItems();
+        releaseWeekItems();
         weeklyLongEvents = null;
         weekGrid = null;
+        agendaView = null;
 
         updateMonthGrid(daysInMonth, days, today);
 
@@ -1122,6 +1223,159 @@ public class VCalendar extends Composite implements VHasDropHandler {
         updateItemsToMonthGrid(events, false);
     }
 
+    /**
+     * Re-renders the agenda view
+     *
+     * @param today
+     *            Todays date
+     * @param events
+     *            The items of the shown days
+     * @param days
+     *            The shown days
+     * @param hasPrevious
+     *            True if the range continues before the shown days
+     * @param hasNext
+     *            True if the range continues after the shown days
+     */
+    public void updateAgendaView(Date today, Collection<CalendarItem> events,
+                                 List<CalendarDay> days, boolean hasPrevious, boolean hasNext) {
+
+        shownToday = today;
+        releaseMonthItems();
+        releaseWeekItems();
+        monthGrid = null;
+        monthDays = null;
+        weekGrid = null;
+        weeklyLongEvents = null;
+        allDayItemKeys.clear();
+
+        if (agendaView == null) {
+            while (outer.getWidgetCount() > 0) {
+                outer.remove(0);
+            }
+            agendaView = new AgendaView(this);
+            outer.add(agendaView, DockPanel.CENTER);
+        }
+
+        CalendarItem[] sorted = events.toArray(new CalendarItem[events.size()]);
+        Arrays.sort(sorted, new StartDateComparator(false));
+
+        agendaView.update(days, sorted, today, hasPrevious, hasNext);
+    }
+
+    /**
+     * Moves the item widgets of the month view to the pool.
+     */
+    private void releaseMonthItems() {
+        if (monthDays != null) {
+            for (SimpleDayCell sdc : monthDays) {
+                if (sdc != null) {
+                    sdc.releaseItemWidgets();
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the item widgets of the week view to the pool.
+     */
+    private void releaseWeekItems() {
+        if (weekGrid != null) {
+            weekGrid.clearDates();
+        }
+    }
+
+    /**
+     * @return the pool of week view item widgets which are not shown
+     */
+    public WidgetPool<DateCellDayItem> getDayItemPool() {
+        return dayItemPool;
+    }
+
+    /**
+     * @return the pool of month view item labels which are not shown
+     */
+    public WidgetPool<MonthItemLabel> getMonthItemLabelPool() {
+        return monthItemLabelPool;
+    }
+
+    /**
+     * Moves the current time marker without rendering the view again.
+     *
+     * @param today
+     *            Todays date and time
+     * @return false if the view shows another day as today and has to be
+     *         rendered again
+     */
+    @SuppressWarnings("deprecation")
+    public boolean updateToday(Date today) {
+        if (shownToday == null || shownToday.getDate() != today.getDate()
+                || shownToday.getMonth() != today.getMonth()
+                || shownToday.getYear() != today.getYear()) {
+            return false;
+        }
+
+        shownToday = today;
+        if (weekGrid != null) {
+            weekGrid.updateToday(today);
+        }
+        return true;
+    }
+
+    /**
+     * Updates the blocked slots of the shown days without rendering the view
+     * again. The days must be the shown ones.
+     *
+     * @param days
+     *            The shown days
+     * @return false if the view has to be rendered again
+     */
+    public boolean updateBlockedSlots(List<CalendarDay> days) {
+        if (weekGrid != null) {
+            for (CalendarDay day : days) {
+                int dayOfWeek = day.getDayOfWeek();
+                if (dayOfWeek >= getFirstDayNumber() && dayOfWeek <= getLastDayNumber()) {
+                    weekGrid.updateBlockedSlots(dateformat_date.parse(day.getDate()),
+                            day.getBlockedSlots(), day.getBlockedSlotMinutes());
+                }
+            }
+            return true;
+        }
+
+        // blocked slots are only shown in the week view
+        return monthGrid != null || agendaView != null;
+    }
+
+    /**
+     * Get the agenda view component
+     *
+     * @return the agenda view or null if another view is shown
+     */
+    public AgendaView getAgendaView() {
+        return agendaView;
+    }
+
+    private AgendaScrollListener agendaScrollListener;
+
+    /**
+     * Sets the listener for listening to scrolling in the agenda view
+     *
+     * @param listener
+     *            The listener to use
+     */
+    public void setListener(AgendaScrollListener listener) {
+        agendaScrollListener = listener;
+    }
+
+    /**
+     * Gets the listener for listening to scrolling in the agenda view
+     *
+     * @return the listener
+     */
+    public AgendaScrollListener getAgendaScrollListener() {
+        return agendaScrollListener;
+    }
+
     private DateClickListener dateClickListener;
 
     /**
@@ -1317,6 +1571,7 @@ public class VCalendar extends Composite implements VHasDropHandler {
     private boolean forwardNavigationEnabled = true;
     private boolean backwardNavigationEnabled = true;
     private boolean itemCaptionAsHtml = false;
+    private boolean weekItemsVirtualized = false;
 
     /**
      * Get the listener that listen to mouse items
@@ -1472,6 +1727,39 @@ public class VCalendar extends Composite implements VHasDropHandler {
         return itemCaptionAsHtml;
     }
 
+    /**
+     * Sets whether the week and day views only draw the items in or near the
+     * scrolled view. Only applies when the week grid scrolls vertically.
+     *
+     * @param weekItemsVirtualized
+     *            true to draw only the items near the scrolled view
+     */
+    public void setWeekItemsVirtualized(boolean weekItemsVirtualized) {
+        this.weekItemsVirtualized = weekItemsVirtualized;
+    }
+
+    /**
+     * @return true if the week and day views only draw the items in or near
+     *         the scrolled view
+     */
+    public boolean isWeekItemsVirtualized() {
+        return weekItemsVirtualized;
+    }
+
+    /**
+     * Marks the calendar as waiting for its items.
+     *
+     * @param loading
+     *            true while the items are being loaded
+     */
+    public void setItemsLoading(boolean loading) {
+        if (loading) {
+            addStyleDependentName("loading");
+        } else {
+            removeStyleDependentName("loading");
+        }
+    }
+
     /**
      * Set sort strategy for items.
      *
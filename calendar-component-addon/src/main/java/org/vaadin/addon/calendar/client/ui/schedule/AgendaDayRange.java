@@ -0,0 +1,49 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.vaadin.addon.calendar.client.ui.schedule;
+
+/**
+ * Compares item times with the interval of an agenda day, from the start of
+ * the day up to the start of the next day. Times are in milliseconds.
+ */
+final class AgendaDayRange {
+
+    private AgendaDayRange() {
+    }
+
+    /**
+     * @return true if an item is shown on the day. Items ending at the start
+     *         of the day are only shown if they have no length.
+     */
+    static boolean isOnDay(long start, long end, long dayStart, long nextDayStart) {
+        return start < nextDayStart && (end > dayStart || end == dayStart && start == end);
+    }
+
+    /**
+     * @return true if an item starts inside the day
+     */
+    static boolean startsOnDay(long start, long dayStart, long nextDayStart) {
+        return start >= dayStart && start < nextDayStart;
+    }
+
+    /**
+     * @return true if an item ends inside the day, the end of the day
+     *         included
+     */
+    static boolean endsOnDay(long end, long dayStart, long nextDayStart) {
+        return end >= dayStart && end <= nextDayStart;
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.vaadin.addon.calendar.client.ui.schedule;
+
+import com.google.gwt.event.dom.client.ClickEvent;
+import com.google.gwt.event.dom.client.ClickHandler;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
+import com.google.gwt.user.client.ui.FlowPanel;
+import com.google.gwt.user.client.ui.HTML;
+import com.google.gwt.user.client.ui.Label;
+import com.google.gwt.user.client.ui.ScrollPanel;
+import com.vaadin.client.WidgetUtil;
+import org.vaadin.addon.calendar.client.ui.VCalendar;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Scrolling list of the days and items in a window of the calendar range. When
+ * the user scrolls close to either end of the window, the calendar is asked to
+ * move the window, so only a bounded number of days is rendered no matter how
+ * long the range is.
+ */
+public class AgendaView extends ScrollPanel implements ScrollHandler {
+
+    private static final String STYLENAME = "v-calendar-agenda";
+
+    /** Minimum distance in pixels from either end to request a new window. */
+    private static final int MIN_SCROLL_THRESHOLD = 50;
+
+    private final VCalendar calendar;
+
+    private final FlowPanel content = new FlowPanel();
+
+    private final List<DayRow> rows = new ArrayList<>();
+
+    private boolean hasPrevious;
+
+    private boolean hasNext;
+
+    /** True while a window move requested by this view is being served. */
+    private boolean windowRequested;
+
+    public AgendaView(VCalendar calendar) {
+        this.calendar = calendar;
+        setStylePrimaryName(STYLENAME);
+        content.setStylePrimaryName(STYLENAME + "-content");
+        setWidget(content);
+        addScrollHandler(this);
+    }
+
+    /**
+     * Renders the days and items of a window.
+     *
+     * @param days
+     *            The days of the window
+     * @param items
+     *            The items of the window, sorted by start time
+     * @param today
+     *            Todays date
+     * @param hasPrevious
+     *            True if the range continues before the window
+     * @param hasNext
+     *            True if the range continues after the window
+     */
+    @SuppressWarnings("deprecation")
+    public void update(List<CalendarDay> days, CalendarItem[] items, Date today,
+                       boolean hasPrevious, boolean hasNext) {
+
+        // keep the topmost visible day in place when the window moves
+        String anchorDate = null;
+        int anchorOffset = 0;
+        for (DayRow row : rows) {
+            int top = row.getElement().getOffsetTop() - getVerticalScrollPosition();
+            if (top + row.getOffsetHeight() > 0) {
+                anchorDate = row.date;
+                anchorOffset = top;
+                break;
+            }
+        }
+
+        content.clear();
+        rows.clear();
+        this.hasPrevious = hasPrevious;
+        this.hasNext = hasNext;
+
+        int first = 0;
+        for (CalendarDay day : days) {
+            Date date = calendar.getDateFormat().parse(day.getDate());
+            long dayStart = date.getTime();
+            long nextDayStart = new Date(date.getYear(), date.getMonth(),
+                    date.getDate() + 1).getTime();
+
+            DayRow row = new DayRow(day.getDate(), day.getLocalizedDateFormat());
+            if (today.getDate() == date.getDate()
+                    && today.getMonth() == date.getMonth()
+                    && today.getYear() == date.getYear()) {
+                row.addStyleDependentName("today");
+            }
+
+            // items are sorted by start, skip the ones which ended before
+            while (first < items.length
+                    && items[first].getEndTime().getTime() < dayStart) {
+                first++;
+            }
+            for (int i = first; i < items.length; i++) {
+                CalendarItem item = items[i];
+                if (item.getStartTime().getTime() >= nextDayStart) {
+                    break;
+                }
+                if (isOnDay(item, date, dayStart, nextDayStart)) {
+                    row.add(new ItemRow(item, dayStart, nextDayStart));
+                }
+            }
+
+            if (row.getWidgetCount() == 1) {
+                row.addStyleDependentName("empty");
+            }
+
+            rows.add(row);
+            content.add(row);
+        }
+
+        windowRequested = false;
+
+        if (anchorDate != null) {
+            for (DayRow row : rows) {
+                if (row.date.equals(anchorDate)) {
+                    setVerticalScrollPosition(row.getElement().getOffsetTop() - anchorOffset);
+                    break;
+                }
+            }
+        }
+    }
+
+    private static boolean isOnDay(CalendarItem item, Date date, long dayStart,
+                                   long nextDayStart) {
+        if (item.isAllDay()) {
+            // all-day items cover their days as dates
+            return !item.getStart().after(date) && !item.getEnd().before(date);
+        }
+        return AgendaDayRange.isOnDay(item.getStartTime().getTime(),
+                item.getEndTime().getTime(), dayStart, nextDayStart);
+    }
+
+    /**
+     * Sets the height of the view in pixels, -1 for undefined height.
+     */
+    public void setHeightPX(int px) {
+        if (px < 0) {
+            setHeight("");
+        } else {
+            setHeight(px + "px");
+        }
+    }
+
+    @Override
+    public void onScroll(ScrollEvent event) {
+        if (windowRequested || rows.isEmpty()
+                || calendar.getAgendaScrollListener() == null) {
+            return;
+        }
+
+        int scrollTop = getVerticalScrollPosition();
+        int viewHeight = getElement().getClientHeight();
+        int threshold = Math.max(MIN_SCROLL_THRESHOLD, viewHeight / 2);
+
+        boolean nearTop = hasPrevious && scrollTop < threshold;
+        boolean nearBottom = hasNext
+                && scrollTop + viewHeight > content.getOffsetHeight() - threshold;
+
+        if (nearTop || nearBottom) {
+            windowRequested = true;
+            calendar.getAgendaScrollListener().agendaScroll(getTopmostDate(scrollTop));
+        }
+    }
+
+    private String getTopmostDate(int scrollTop) {
+        for (DayRow row : rows) {
+            if (row.getElement().getOffsetTop() + row.getOffsetHeight() > scrollTop) {
+                return row.date;
+            }
+        }
+        return rows.get(rows.size() - 1).date;
+    }
+
+    /**
+     * A day and the items on it.
+     */
+    private class DayRow extends FlowPanel {
+
+        private final String date;
+
+        DayRow(final String date, String caption) {
+            this.date = date;
+            setStylePrimaryName(STYLENAME + "-day");
+
+            Label header = new Label(caption);
+            header.setStylePrimaryName(STYLENAME + "-day-caption");
+            header.addClickHandler(new ClickHandler() {
+                @Override
+                public void onClick(ClickEvent event) {
+                    if (!calendar.isDisabled() && calendar.getDateClickListener() != null) {
+                        calendar.getDateClickListener().dateClick(date);
+                    }
+                }
+            });
+            add(header);
+        }
+    }
+
+    /**
+     * An item on a day.
+     */
+    private class ItemRow extends HTML implements HasTooltipKey {
+
+        private final CalendarItem item;
+
+        ItemRow(final CalendarItem item, long dayStart, long nextDayStart) {
+            this.item = item;
+            setStylePrimaryName("v-calendar-event");
+            addStyleName(STYLENAME + "-item");
+            if (item.getStyleName() != null && item.getStyleName().length() > 0) {
+                addStyleDependentName(item.getStyleName());
+            }
+
+            StringBuilder html = new StringBuilder();
+            html.append("<span class=\"" + STYLENAME + "-item-time\">");
+            if (!item.isAllDay() && AgendaDayRange.startsOnDay(
+                    item.getStartTime().getTime(), dayStart, nextDayStart)) {
+                html.append(calendar.getTimeFormat().format(item.getStartTime()));
+                if (AgendaDayRange.endsOnDay(item.getEndTime().getTime(),
+                        dayStart, nextDayStart)) {
+                    html.append(" - ");
+                    html.append(calendar.getTimeFormat().format(item.getEndTime()));
+                }
+            }
+            html.append("</span> ");
+            html.append(calendar.isItemCaptionAsHtml() ? item.getCaption()
+                    : WidgetUtil.escapeHTML(item.getCaption()));
+            setHTML(html.toString());
+
+            if (item.isClickable()) {
+                addStyleDependentName("clickable");
+                addClickHandler(new ClickHandler() {
+                    @Override
+                    public void onClick(ClickEvent event) {
+                        if (!calendar.isDisabled() && calendar.getItemClickListener() != null) {
+                            calendar.getItemClickListener().itemClick(item);
+                        }
+                    }
+                });
+            }
+        }
+
+        @Override
+        public Object getTooltipKey() {
+            return item.getKey();
+        }
+    }
+}
@@ -15,8 +15,6 @@
  */
 package org.vaadin.addon.calendar.client.ui.schedule;
 
-import java.util.Set;
-
 /**
  * Utility class used to represent a day when updating views. Only used
  * internally.
@@ -31,9 +29,11 @@ public class CalendarDay {
     private int dayOfWeek;
     private int week;
     private int yearOfWeek;
-    private Set<Long> blockedSlots;
+    private int[] blockedSlots;
+    private int blockedSlotMinutes;
 
-    public CalendarDay(String date, String localizedDateFormat, int dayOfWeek, int week, int yearOfWeek, Set<Long> blockedSlots) {
+    public CalendarDay(String date, String localizedDateFormat, int dayOfWeek, int week, int yearOfWeek,
+                       int[] blockedSlots, int blockedSlotMinutes) {
         super();
         this.date = date;
         this.localizedDateFormat = localizedDateFormat;
@@ -41,6 +41,7 @@ public class CalendarDay {
         this.week = week;
         this.yearOfWeek = yearOfWeek;
         this.blockedSlots = blockedSlots;
+        this.blockedSlotMinutes = blockedSlotMinutes;
     }
 
     public String getDate() {
@@ -63,7 +64,32 @@ public class CalendarDay {
         return yearOfWeek;
     }
 
-    public Set<Long> getBlockedSlots() {
+    /**
+     * @return the blocked slots as a packed bitmap, or null if no slot is
+     *         blocked
+     */
+    public int[] getBlockedSlots() {
         return blockedSlots;
     }
+
+    /**
+     * @return the length of a blocked slot in minutes
+     */
+    public int getBlockedSlotMinutes() {
+        return blockedSlotMinutes;
+    }
+
+    /**
+     * Checks a slot of a packed blocked slot bitmap.
+     *
+     * @param blockedSlots
+     *            The bitmap, or null if no slot is blocked
+     * @param slot
+     *            The index of the slot
+     * @return true if the slot is blocked
+     */
+    public static boolean isBlocked(int[] blockedSlots, int slot) {
+        return blockedSlots != null && slot / 32 < blockedSlots.length
+                && (blockedSlots[slot / 32] & (1 << (slot % 32))) != 0;
+    }
 }
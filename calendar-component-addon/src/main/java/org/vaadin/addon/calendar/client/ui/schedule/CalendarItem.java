@@ -29,6 +29,7 @@ import java.util.Date;
 public class CalendarItem {
 
     private int index;
+    private String key;
     private String caption;
     private Date start, end;
     private String styleName;
@@ -131,7 +132,7 @@ public class CalendarItem {
     }
 
     /**
-     * Get the (server side) index of the event
+     * Get the index of the event in the order it was received from the server
      *
      * @return
      */
@@ -159,7 +160,7 @@ public class CalendarItem {
     }
 
     /**
-     * Set the (server side) index of the event
+     * Set the index of the event in the order it was received from the server
      *
      * @param index
      *            The index
@@ -168,6 +169,26 @@ public class CalendarItem {
         this.index = index;
     }
 
+    /**
+     * Get the (server side) key of the event. The key stays the same over
+     * server round trips.
+     *
+     * @return
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Set the (server side) key of the event
+     *
+     * @param key
+     *            The key
+     */
+    public void setKey(String key) {
+        this.key = key;
+    }
+
     /**
      * Get the caption of the event. The caption is the text displayed in the
      * calendar on the event.
@@ -15,6 +15,7 @@
  */
 package org.vaadin.addon.calendar.client.ui.schedule;
 
+import com.google.gwt.animation.client.AnimationScheduler;
 import com.google.gwt.dom.client.*;
 import com.google.gwt.dom.client.Style.Display;
 import com.google.gwt.dom.client.Style.Unit;
@@ -22,6 +23,7 @@ import com.google.gwt.event.dom.client.*;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.DOM;
 import com.google.gwt.user.client.Event;
+import com.google.gwt.user.client.EventListener;
 import com.google.gwt.user.client.ui.Widget;
 import com.vaadin.client.WidgetUtil;
 
@@ -49,16 +51,29 @@ public class DateCell extends FocusableComplexPanel
     private final int numberOfSlots;
     private final int firstHour;
     private final int lastHour;
+    // items of the day in the current sort order
+    private final List<CalendarItem> items = new ArrayList<>();
+    // widgets of the items, null for items which are not drawn
+    private final List<DateCellDayItem> dayItems = new ArrayList<>();
+    // columns of the items, null when items have changed since
+    private ItemColumnLayout itemLayout;
+    // top of the scrolled view the items were drawn for
+    private int drawnViewTop;
+    // slots highlighted for a range selection, -1 if none
+    private int selectedFirst = -1;
+    private int selectedLast = -1;
+    // true while a highlight update waits for the next animation frame
+    private boolean selectionUpdatePending;
 
     public class DateCellSlot extends Widget {
 
         private final DateCell cell;
 
-        private final Date from;
+        private Date from;
 
-        private final Date to;
+        private Date to;
 
-        private final Boolean enabled;
+        private Boolean enabled;
 
         public DateCellSlot(DateCell cell, Date from, Date to, Boolean enabled) {
             setElement(Document.get().createDivElement());
@@ -77,6 +92,11 @@ public class DateCell extends FocusableComplexPanel
             return to;
         }
 
+        void setTimes(Date from, Date to) {
+            this.from = from;
+            this.to = to;
+        }
+
         public DateCell getParentCell() {
             return cell;
         }
@@ -84,9 +104,13 @@ public class DateCell extends FocusableComplexPanel
         public Boolean getEnabled() {
             return enabled;
         }
+
+        void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
     }
 
-    public DateCell(WeekGrid parent, Date date, Set<Long> blockedSlots) {
+    public DateCell(WeekGrid parent, Date date, int[] blockedSlots, int blockedSlotMinutes) {
         weekgrid = parent;
         Element mainElement = DOM.createDiv();
         setElement(mainElement);
@@ -102,39 +126,159 @@ public class DateCell extends FocusableComplexPanel
         lastHour = weekgrid.getLastHour();
         numberOfSlots = (lastHour - firstHour + 1) * 2;
 
-        long slotTime = Math.round(((lastHour - firstHour + 1) * 3600000.0) / numberOfSlots);
-
         slotElements = new Element[numberOfSlots];
         slotElementHeights = new int[numberOfSlots];
 
         slots.clear();
 
+        for (int i = 0; i < numberOfSlots; i++) {
+
+            DateCellSlot slot = new DateCellSlot(this, null, null, false);
+
+            mainElement.appendChild(slot.getElement());
+            slotElements[i] = slot.getElement();
+            slots.add(slot);
+        }
+        updateSlotTimes();
+        setBlockedSlots(blockedSlots, blockedSlotMinutes);
+
+        // events of the slots and items bubble here, also for tooltip handling
+        Event.sinkEvents(mainElement, Event.MOUSEEVENTS);
+    }
+
+    private void updateSlotTimes() {
+        long slotTime = Math.round(((lastHour - firstHour + 1) * 3600000.0) / numberOfSlots);
+
         long dateTime = getDate().getTime();
         long start = dateTime + firstHour * 3600000;
         long end = start + slotTime;
 
+        for (DateCellSlot slot : slots) {
+            slot.setTimes(new Date(start), new Date(end));
+            start = end;
+            end = start + slotTime;
+        }
+    }
+
+    /**
+     * Shows another date in this cell, which must have been removed from the
+     * week grid. The slot elements are kept, items are added again.
+     *
+     * @param date
+     *            The date to show
+     * @param blockedSlots
+     *            The blocked slots of the date as a packed bitmap
+     * @param blockedSlotMinutes
+     *            The length of a blocked slot in minutes
+     */
+    void reuseFor(Date date, int[] blockedSlots, int blockedSlotMinutes) {
+        setSelectedSlots(-1, -1);
+        setDate(date);
+        updateSlotTimes();
+        setBlockedSlots(blockedSlots, blockedSlotMinutes);
+
+        if (todaybar != null) {
+            todaybar.removeFromParent();
+            todaybar = null;
+        }
+        today = null;
+        removeStyleDependentName("today");
+        eventRangeStart = -1;
+        eventRangeStop = -1;
+        drawnViewTop = 0;
+    }
+
+    /**
+     * Removes all items and moves their widgets to the pool of the calendar.
+     */
+    void releaseItems() {
+        for (DateCellDayItem dayItem : dayItems) {
+            if (dayItem != null) {
+                remove(dayItem);
+                weekgrid.getCalendar().getDayItemPool().release(dayItem);
+            }
+        }
+        items.clear();
+        dayItems.clear();
+        itemLayout = null;
+    }
+
+    /**
+     * Updates the blocked state of the slots in place.
+     *
+     * @param blockedSlots
+     *            The blocked slots as a packed bitmap, or null if no slot is
+     *            blocked
+     * @param blockedSlotMinutes
+     *            The length of a blocked slot in minutes
+     */
+    public void setBlockedSlots(int[] blockedSlots, int blockedSlotMinutes) {
+
+        // blocked slots inside each half hour slot
+        int parts = 30 / blockedSlotMinutes;
+        int part = firstHour * 60 / blockedSlotMinutes;
+
         for (int i = 0; i < numberOfSlots; i++) {
 
-            boolean blocked = blockedSlots != null && blockedSlots.contains(start-dateTime);
+            int blockedParts = 0;
+            for (int p = 0; p < parts; p++) {
+                if (CalendarDay.isBlocked(blockedSlots, part + p)) {
+                    blockedParts++;
+                }
+            }
+            boolean blocked = blockedParts == parts;
 
-            DateCellSlot slot = new DateCellSlot(this, new Date(start), new Date(end), blocked);
+            DateCellSlot slot = slots.get(i);
+            slot.setEnabled(blocked);
             if (i % 2 == 0) {
                 slot.setStyleName(blocked ? "v-datecellslot-blocked-even" : "v-datecellslot-even");
             } else {
                 slot.setStyleName(blocked ? "v-datecellslot-blocked" : "v-datecellslot");
             }
 
-            Event.sinkEvents(slot.getElement(), Event.MOUSEEVENTS);
+            if (selectedFirst >= 0 && i >= selectedFirst && i <= selectedLast) {
+                slot.addStyleName("v-daterange");
+            }
 
-            mainElement.appendChild(slot.getElement());
-            slotElements[i] = slot.getElement();
-            slots.add(slot);
-            start = end;
-            end = start + slotTime;
+            removeBlockedParts(slot.getElement());
+            if (!blocked && blockedParts > 0) {
+                addBlockedParts(slot.getElement(), blockedSlots, part, parts);
+            }
+            part += parts;
         }
+    }
 
-        // Sink items for tooltip handling
-        Event.sinkEvents(mainElement, Event.MOUSEEVENTS);
+    private static void removeBlockedParts(Element slot) {
+        Element child = slot.getFirstChildElement();
+        while (child != null) {
+            Element next = child.getNextSiblingElement();
+            if (child.getClassName().equals("v-datecellslot-blocked-part")) {
+                child.removeFromParent();
+            }
+            child = next;
+        }
+    }
+
+    /**
+     * Marks the blocked parts of a partly blocked slot.
+     */
+    private static void addBlockedParts(Element slot, int[] blockedSlots, int first, int parts) {
+        slot.addClassName("v-datecellslot-partly-blocked");
+        for (int p = 0; p < parts; p++) {
+            if (!CalendarDay.isBlocked(blockedSlots, first + p)) {
+                continue;
+            }
+            int length = 1;
+            while (p + length < parts && CalendarDay.isBlocked(blockedSlots, first + p + length)) {
+                length++;
+            }
+            Element blockedPart = DOM.createDiv();
+            blockedPart.setClassName("v-datecellslot-blocked-part");
+            blockedPart.getStyle().setTop(100.0 * p / parts, Unit.PCT);
+            blockedPart.getStyle().setHeight(100.0 * length / parts, Unit.PCT);
+            slot.appendChild(blockedPart);
+            p += length;
+        }
     }
 
     public int getFirstHour() {
@@ -177,6 +321,25 @@ public class DateCell extends FocusableComplexPanel
                 "Element not found in this DateCell");
     }
 
+    /**
+     * Gets the slot at a position of this day.
+     *
+     * @param y
+     *            Position from the top of this day in pixels
+     * @return the index of the slot, the first or last one when outside
+     */
+    public int getSlotIndexAt(int y) {
+        int slot = weekgrid.getSlotAt(y);
+        return Math.max(Math.min(slot, slotElements.length - 1), 0);
+    }
+
+    /**
+     * @return the element of a slot
+     */
+    public Element getSlotElement(int index) {
+        return slotElements[index];
+    }
+
     public DateCellSlot getSlot(int index) {
         return slots.get(index);
     }
@@ -268,62 +431,114 @@ public class DateCell extends FocusableComplexPanel
     }
 
     private void recalculateEventPositions() {
-        for (int i = 0; i < getWidgetCount(); i++) {
-            DateCellDayItem dayEvent = (DateCellDayItem) getWidget(i);
-            updatePositionFor(dayEvent, getDate(), dayEvent.getCalendarItem());
+        for (DateCellDayItem dayItem : dayItems) {
+            if (dayItem != null) {
+                updatePositionFor(dayItem, getDate(), dayItem.getCalendarItem());
+            }
         }
+        updateVisibleItems();
     }
 
     public void recalculateItemWidths() {
-        List<DateCellGroup> groups = new ArrayList<>();
-
-        int count = getWidgetCount();
+        itemLayout = createItemLayout();
 
-        List<Integer> handled = new ArrayList<>();
-
-        // Iterate through all items and group them. Events that overlaps
-        // with each other, are added to the same group.
-        for (int i = 0; i < count; i++) {
-            if (handled.contains(i)) {
-                continue;
+        for (int i = 0; i < dayItems.size(); i++) {
+            DateCellDayItem d = dayItems.get(i);
+            if (d != null) {
+                updateWidthFor(d, i);
             }
+        }
+    }
 
-            DateCellGroup curGroup = getOverlappingEvents(i);
-            handled.addAll(curGroup.getItems());
-
-            boolean newGroup = true;
+    private ItemColumnLayout createItemLayout() {
+        int count = items.size();
 
-            // No need to check other groups, if size equals the count
-            if (curGroup.getItems().size() != count) {
+        // seconds are ignored when looking for overlaps
+        long[] starts = new long[count];
+        long[] ends = new long[count];
+        for (int i = 0; i < count; i++) {
+            CalendarItem item = items.get(i);
+            starts[i] = item.getStartTime().getTime() / 60000;
+            ends[i] = item.getEndTime().getTime() / 60000;
+        }
 
-                // Check other groups. When the whole group overlaps with
-                // other group, the group is merged to the other.
-                for (DateCellGroup g : groups) {
+        return new ItemColumnLayout(starts, ends);
+    }
 
-                    if (WeekGridMinuteTimeRange.doesOverlap(
-                            curGroup.getDateRange(), g.getDateRange())) {
+    private void updateWidthFor(DateCellDayItem d, int index) {
+        d.setMoveWidth(width);
 
-                        newGroup = false;
-                        updateGroup(g, curGroup);
-                    }
-                }
+        int eventWidth = width / itemLayout.getColumnCount(index);
+        d.getElement().getStyle().setMarginLeft(
+                eventWidth * itemLayout.getColumn(index), Unit.PX);
+        d.setWidth(eventWidth + "px");
+        d.setSlotHeightInPX(getSlotHeight());
+    }
 
+    /**
+     * Draws the items in or near the scrolled view of the week grid and
+     * releases the widgets of the other items for reuse. Unless the week grid
+     * renders its items virtualized, every item is drawn.
+     */
+    void updateVisibleItems() {
+        boolean virtualized = weekgrid.isItemsVirtualized();
+        int from = 0;
+        int to = 0;
+        if (virtualized) {
+            // one view height above and below is drawn as well
+            int viewHeight = weekgrid.getViewHeight();
+            drawnViewTop = weekgrid.getViewTop() - getAbsoluteTop();
+            from = drawnViewTop - viewHeight;
+            to = from + 3 * viewHeight;
+            if (itemLayout == null) {
+                itemLayout = createItemLayout();
             }
-            else {
+        }
 
-                if (newGroup) {
-                    groups.add(curGroup);
+        for (int i = 0; i < items.size(); i++) {
+            CalendarItem item = items.get(i);
+            DateCellDayItem dayItem = dayItems.get(i);
+            boolean visible = !virtualized || isInView(item, from, to);
+
+            if (visible && dayItem == null) {
+                dayItem = createDayItem(item);
+                dayItems.set(i, dayItem);
+                add(dayItem, getElement());
+                if (itemLayout != null) {
+                    updateWidthFor(dayItem, i);
                 }
 
-                break;
+            } else if (!visible && dayItem != null && !dayItem.isMoving()) {
+                remove(dayItem);
+                dayItems.set(i, null);
+                weekgrid.getCalendar().getDayItemPool().release(dayItem);
             }
+        }
+    }
 
-            if (newGroup) {
-                groups.add(curGroup);
-            }
+    /**
+     * Draws the items for the scrolled view once it has moved by half a view
+     * height, as the items next to the view are drawn already.
+     */
+    void onViewScrolled() {
+        int viewTop = weekgrid.getViewTop() - getAbsoluteTop();
+        if (Math.abs(viewTop - drawnViewTop) >= weekgrid.getViewHeight() / 2) {
+            updateVisibleItems();
         }
+    }
 
-        drawDayItems(groups);
+    /**
+     * Checks whether an item is shown between the given positions of this day.
+     */
+    private boolean isInView(CalendarItem item, int from, int to) {
+        if (!shouldDisplay(item)) {
+            return false;
+        }
+        int startFromMinutes = Math.max(getStartFromMinutes(item, getDate()), 0);
+        int top = weekgrid.getPixelTopFor(startFromMinutes);
+        int length = weekgrid.getPixelLengthFor(startFromMinutes,
+                (int) item.getRangeInMinutesForDay(getDate()));
+        return top + Math.max(length, getSlotHeight()) >= from && top <= to;
     }
 
     private void recalculateCellHeights() {
@@ -344,145 +559,38 @@ public class DateCell extends FocusableComplexPanel
         return WidgetUtil.measureVerticalBorder(slotElements[0]);
     }
 
-    private void drawDayItems(List<DateCellGroup> groups) {
-        for (DateCellGroup g : groups) {
-            int col = 0;
-            int colCount = 0;
-            List<Integer> order = new ArrayList<>();
-            Map<Integer, Integer> columns = new HashMap<>();
-            for (Integer eventIndex : g.getItems()) {
-                DateCellDayItem d = (DateCellDayItem) getWidget(eventIndex);
-                d.setMoveWidth(width);
-
-                int freeSpaceCol = findFreeColumnSpaceOnLeft(
-                        new WeekGridMinuteTimeRange(
-                                d.getCalendarItem().getStartTime(),
-                                d.getCalendarItem().getEndTime()),
-                        order, columns);
-                if (freeSpaceCol >= 0) {
-                    col = freeSpaceCol;
-                    columns.put(eventIndex, col);
-                    int newOrderindex = 0;
-                    for (Integer i : order) {
-                        if (columns.get(i) >= col) {
-                            newOrderindex = order.indexOf(i);
-                            break;
-                        }
-                    }
-                    order.add(newOrderindex, eventIndex);
-                } else {
-                    // New column
-                    col = colCount++;
-                    columns.put(eventIndex, col);
-                    order.add(eventIndex);
-                }
-            }
-
-            // Update widths and left position
-            int eventWidth = (width / colCount);
-            for (Integer index : g.getItems()) {
-                DateCellDayItem d = (DateCellDayItem) getWidget(index);
-                d.getElement().getStyle().setMarginLeft(
-                        (eventWidth * columns.get(index)), Unit.PX);
-                d.setWidth(eventWidth + "px");
-                d.setSlotHeightInPX(getSlotHeight());
-            }
-        }
-    }
-
-    private int findFreeColumnSpaceOnLeft(WeekGridMinuteTimeRange dateRange,
-            List<Integer> order, Map<Integer, Integer> columns) {
-        int freeSpot = -1;
-        int skipIndex = -1;
-        for (Integer eventIndex : order) {
-            int col = columns.get(eventIndex);
-            if (col == skipIndex) {
-                continue;
-            }
-
-            if (freeSpot != -1 && freeSpot != col) {
-                // Free spot found
-                return freeSpot;
-            }
-
-            DateCellDayItem d = (DateCellDayItem) getWidget(eventIndex);
-            WeekGridMinuteTimeRange nextRange = new WeekGridMinuteTimeRange(
-                    d.getCalendarItem().getStartTime(),
-                    d.getCalendarItem().getEndTime());
-
-            if (WeekGridMinuteTimeRange.doesOverlap(dateRange, nextRange)) {
-                skipIndex = col;
-                freeSpot = -1;
-            } else {
-                freeSpot = col;
-            }
-        }
-
-        return freeSpot;
-    }
-
-    /* Update top and bottom date range values. Add new index to the group. */
-    private void updateGroup(DateCellGroup targetGroup, DateCellGroup byGroup) {
-        Date newStart = targetGroup.getStart();
-        Date newEnd = targetGroup.getEnd();
-        if (byGroup.getStart().before(targetGroup.getStart())) {
-            newStart = byGroup.getEnd();
-        }
-        if (byGroup.getStart().after(targetGroup.getEnd())) {
-            newStart = byGroup.getStart();
-        }
-
-        targetGroup.setDateRange(new WeekGridMinuteTimeRange(newStart, newEnd));
-
-        for (Integer index : byGroup.getItems()) {
-            if (!targetGroup.getItems().contains(index)) {
-                targetGroup.add(index);
-            }
-        }
-    }
-
     /**
      * Returns all overlapping DayEvent indexes in the Group. Including the
      * target.
      *
      * @param targetIndex
-     *            Index of DayEvent in the current DateCell widget.
+     *            Index of the item in this cell, items are ordered by start
      * @return Group that contains all Overlapping DayEvent indexes
+     * @deprecated Overlapping items are laid out in columns, which are not
+     *             based on these groups
      */
+    @Deprecated
     public DateCellGroup getOverlappingEvents(int targetIndex) {
         DateCellGroup g = new DateCellGroup(targetIndex);
 
-        int count = getWidgetCount();
-        DateCellDayItem target = (DateCellDayItem) getWidget(targetIndex);
+        CalendarItem target = items.get(targetIndex);
         WeekGridMinuteTimeRange targetRange = new WeekGridMinuteTimeRange(
-                target.getCalendarItem().getStartTime(),
-                target.getCalendarItem().getEndTime());
-        Date groupStart = targetRange.getStart();
-        Date groupEnd = targetRange.getEnd();
+                target.getStartTime(), target.getEndTime());
 
-        for (int i = 0; i < count; i++) {
+        for (int i = 0; i < items.size(); i++) {
             if (targetIndex == i) {
                 continue;
             }
 
-            DateCellDayItem d = (DateCellDayItem) getWidget(i);
+            CalendarItem item = items.get(i);
             WeekGridMinuteTimeRange nextRange = new WeekGridMinuteTimeRange(
-                    d.getCalendarItem().getStartTime(),
-                    d.getCalendarItem().getEndTime());
+                    item.getStartTime(), item.getEndTime());
             if (WeekGridMinuteTimeRange.doesOverlap(targetRange, nextRange)) {
                 g.add(i);
-
-                // Update top & bottom values to the greatest
-                if (nextRange.getStart().before(targetRange.getStart())) {
-                    groupStart = targetRange.getStart();
-                }
-                if (nextRange.getEnd().after(targetRange.getEnd())) {
-                    groupEnd = targetRange.getEnd();
-                }
             }
         }
 
-        g.setDateRange(new WeekGridMinuteTimeRange(groupStart, groupEnd));
+        g.setDateRange(targetRange);
         return g;
     }
 
@@ -491,18 +599,76 @@ public class DateCell extends FocusableComplexPanel
     }
 
     public void addItem(Date targetDay, CalendarItem calendarItem) {
+        int index = getInsertIndex(calendarItem, 0);
+        items.add(index, calendarItem);
+        dayItems.add(index, null);
+        itemLayout = null;
+        updateVisibleItems();
+    }
 
-        Element main = getElement();
+    /**
+     * Adds items to this day. The items are sorted once and merged into the
+     * items already shown.
+     *
+     * @param targetDay
+     *            The day
+     * @param calendarItems
+     *            The items to add
+     */
+    public void addItems(Date targetDay, Collection<CalendarItem> calendarItems) {
+        int index = 0;
+        for (CalendarItem calendarItem : weekgrid.getCalendar().sortItems(calendarItems)) {
+            // later items can not go before earlier ones
+            index = getInsertIndex(calendarItem, index);
+            items.add(index, calendarItem);
+            dayItems.add(index++, null);
+        }
+        itemLayout = null;
+        updateVisibleItems();
+    }
 
-        DateCellDayItem dayItem = new DateCellDayItem(this, weekgrid, calendarItem);
+    private DateCellDayItem createDayItem(CalendarItem calendarItem) {
+        DateCellDayItem dayItem = weekgrid.getCalendar().getDayItemPool().obtain();
+        if (dayItem == null) {
+            dayItem = new DateCellDayItem(this, weekgrid, calendarItem);
+        } else {
+            dayItem.reuseFor(this, calendarItem);
+        }
         dayItem.setSlotHeightInPX(getSlotHeight());
         dayItem.setDisabled(isDisabled());
 
         if (startingSlotHeight > 0) {
-            updatePositionFor(dayItem, targetDay, calendarItem);
+            updatePositionFor(dayItem, getDate(), calendarItem);
         }
+        return dayItem;
+    }
 
-        add(dayItem, main);
+    /**
+     * Gets the index at which an item keeps the items of this day in the
+     * current sort order, after any equal items.
+     *
+     * @param calendarItem
+     *            The item
+     * @param from
+     *            The lowest possible index
+     */
+    private int getInsertIndex(CalendarItem calendarItem, int from) {
+        Comparator<CalendarItem> comparator = weekgrid.getCalendar().getSortComparator();
+        int lo = from;
+        int hi = items.size();
+        if (comparator == null) {
+            return hi;
+        }
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            CalendarItem other = items.get(mid);
+            if (comparator.compare(other, calendarItem) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
     }
 
     // date methods are not deprecated in GWT
@@ -512,57 +678,82 @@ public class DateCell extends FocusableComplexPanel
         if (shouldDisplay(calendarItem)) {
             dayItem.getElement().getStyle().clearDisplay();
 
-            Date fromDt = calendarItem.getStartTime();
-            int h = fromDt.getHours();
-            int m = fromDt.getMinutes();
             long range = calendarItem.getRangeInMinutesForDay(targetDay);
-
-            boolean onDifferentDays = calendarItem.isTimeOnDifferentDays();
-            if (onDifferentDays) {
-                if (calendarItem.getStart().compareTo(targetDay) != 0) {
-                    // Current day slot is for the end date and all in-between
-                    // days. Lets fix also the start & end times.
-                    h = 0;
-                    m = 0;
-                }
-            }
-
-            int startFromMinutes = (h * 60) + m;
-            dayItem.updatePosition(startFromMinutes, range);
+            dayItem.updatePosition(getStartFromMinutes(calendarItem, targetDay), range);
         } else {
             dayItem.getElement().getStyle().setDisplay(Display.NONE);
         }
     }
 
-    public void addItem(DateCellDayItem dayItem) {
-
-        Element main = getElement();
-        int index = 0;
-        List<CalendarItem> items = new ArrayList<>();
-
-        // items are the only widgets in this panel
-        // slots are just elements
-        for (; index < getWidgetCount(); index++) {
-            DateCellDayItem dc = (DateCellDayItem) getWidget(index);
-            dc.setDisabled(isDisabled());
-            items.add(dc.getCalendarItem());
-        }
-        items.add(dayItem.getCalendarItem());
-
-        index = 0;
-        for (CalendarItem e : weekgrid.getCalendar().sortItems(items)) {
-            if (e.equals(dayItem.getCalendarItem())) {
-                break;
+    // date methods are not deprecated in GWT
+    @SuppressWarnings("deprecation")
+    private static int getStartFromMinutes(CalendarItem calendarItem, Date targetDay) {
+        Date fromDt = calendarItem.getStartTime();
+        int h = fromDt.getHours();
+        int m = fromDt.getMinutes();
+
+        boolean onDifferentDays = calendarItem.isTimeOnDifferentDays();
+        if (onDifferentDays) {
+            if (calendarItem.getStart().compareTo(targetDay) != 0) {
+                // Current day slot is for the end date and all in-between
+                // days. Lets fix also the start & end times.
+                h = 0;
+                m = 0;
             }
-            index++;
         }
-        this.insert(dayItem, main, index, true);
+
+        return (h * 60) + m;
+    }
+
+    public void addItem(DateCellDayItem dayItem) {
+        // items are the only widgets in this panel, slots are just elements
+        dayItem.setDisabled(isDisabled());
+        int index = getInsertIndex(dayItem.getCalendarItem(), 0);
+        items.add(index, dayItem.getCalendarItem());
+        dayItems.add(index, dayItem);
+        itemLayout = null;
+        add(dayItem, getElement());
     }
 
     public void removeEvent(DateCellDayItem dayEvent) {
+        int index = dayItems.indexOf(dayEvent);
+        if (index >= 0) {
+            items.remove(index);
+            dayItems.remove(index);
+            itemLayout = null;
+        }
         remove(dayEvent);
     }
 
+    /**
+     * Removes the items with the given keys from this day.
+     *
+     * @param keys
+     *            Keys of the items to remove
+     * @return true if an item was removed
+     */
+    public boolean removeItems(Set<String> keys) {
+        boolean removed = false;
+        for (int i = items.size() - 1; i >= 0; i--) {
+            if (keys.contains(items.get(i).getKey())) {
+                DateCellDayItem dayItem = dayItems.get(i);
+                if (dayItem != null) {
+                    remove(dayItem);
+                    if (!dayItem.isMoving()) {
+                        weekgrid.getCalendar().getDayItemPool().release(dayItem);
+                    }
+                }
+                items.remove(i);
+                dayItems.remove(i);
+                removed = true;
+            }
+        }
+        if (removed) {
+            itemLayout = null;
+        }
+        return removed;
+    }
+
     /**
      *
      * @param item
@@ -606,6 +797,11 @@ public class DateCell extends FocusableComplexPanel
 
     @Override
     public void onKeyDown(KeyDownEvent event) {
+        DateCellDayItem dayItem = getEventItem(event);
+        if (dayItem != null) {
+            dayItem.onKeyDown(event);
+        }
+
         int keycode = event.getNativeEvent().getKeyCode();
         if (keycode == KeyCodes.KEY_ESCAPE && eventRangeStart > -1) {
             cancelRangeSelect();
@@ -614,6 +810,12 @@ public class DateCell extends FocusableComplexPanel
 
     @Override
     public void onMouseDown(MouseDownEvent event) {
+        DateCellDayItem dayItem = getEventItem(event);
+        if (dayItem != null) {
+            dayItem.onMouseDown(event);
+            return;
+        }
+
         if (event.getNativeButton() == NativeEvent.BUTTON_LEFT) {
             Element e = Element.as(event.getNativeEvent().getEventTarget());
             if (e.getClassName().contains("reserved") || isDisabled()
@@ -632,6 +834,11 @@ public class DateCell extends FocusableComplexPanel
     @SuppressWarnings("deprecation")
     public void onMouseUp(MouseUpEvent event) {
 
+        DateCellDayItem dayItem = getEventItem(event);
+        if (dayItem != null) {
+            dayItem.onMouseUp(event);
+        }
+
         if (event.getNativeButton() != NativeEvent.BUTTON_LEFT) {
             return;
         }
@@ -642,38 +849,11 @@ public class DateCell extends FocusableComplexPanel
         // Drag initialized?
         int dragDistance = Math.abs(eventRangeStart - event.getY());
         if (dragDistance > 0 && eventRangeStart >= 0) {
-            Element main = getElement();
-            if (eventRangeStart > eventRangeStop) {
-                if (eventRangeStop <= -1) {
-                    eventRangeStop = 0;
-                }
-                int temp = eventRangeStart;
-                eventRangeStart = eventRangeStop;
-                eventRangeStop = temp;
-            }
-
-            NodeList<Node> nodes = main.getChildNodes();
-
-            int slotStart = -1;
-            int slotEnd = -1;
-
-            // iterate over all child nodes, until we find first the start,
-            // and then the end
-            for (int i = 0; i < nodes.getLength(); i++) {
-                Element element = (Element) nodes.getItem(i);
-                boolean isRangeElement = element.getClassName().contains("v-daterange");
-
-                if (isRangeElement && slotStart == -1) {
-                    slotStart = i;
-                    slotEnd = i; // to catch one-slot selections
-
-                } else if (isRangeElement) {
-                    slotEnd = i;
-
-                } else if (slotStart != -1 && slotEnd != -1) {
-                    break;
-                }
-            }
+            // the last move may still wait for its frame
+            eventRangeStop = event.getY();
+            updateSelectionRange();
+            int slotStart = selectedFirst;
+            int slotEnd = selectedLast;
 
             clearSelectionRange();
 
@@ -706,44 +886,54 @@ public class DateCell extends FocusableComplexPanel
         }
 
         if (eventRangeStart >= 0) {
-
-            int newY = event.getY();
-            int fromY, toY;
-
-            if (newY < eventRangeStart) {
-                fromY = newY;
-                toY = eventRangeStart;
-            } else {
-                fromY = eventRangeStart;
-                toY = newY;
+            eventRangeStop = event.getY();
+
+            // moves between frames are drawn once
+            if (!selectionUpdatePending) {
+                selectionUpdatePending = true;
+                AnimationScheduler.get().requestAnimationFrame(timestamp -> {
+                    selectionUpdatePending = false;
+                    if (eventRangeStart >= 0) {
+                        updateSelectionRange();
+                    }
+                }, getElement());
             }
+        }
 
-            eventRangeStop = newY;
-
-            Element main = getElement();
-            NodeList<Node> nodes = main.getChildNodes();
-            for (int i = 0; i < nodes.getLength(); i++) {
-
-                Element c = (Element) nodes.getItem(i);
+        event.preventDefault();
+    }
 
-                if (Arrays.stream(slotElements).anyMatch(e -> e == c)) {
+    /**
+     * Highlights the slots between the start and the current position of the
+     * range selection, found from the slot positions of the week grid.
+     */
+    private void updateSelectionRange() {
+        int first = getSlotIndexAt(Math.min(eventRangeStart, eventRangeStop));
+        int last = getSlotIndexAt(Math.max(eventRangeStart, eventRangeStop));
+        setSelectedSlots(first, last);
+    }
 
-                    int elemStart = c.getOffsetTop();
-                    int elemStop = elemStart + getSlotHeight();
-                    if (elemStart >= fromY && elemStart <= toY) {
-                        c.addClassName("v-daterange");
-                    } else if (elemStop >= fromY && elemStop <= toY) {
-                        c.addClassName("v-daterange");
-                    } else if (elemStop >= fromY && elemStart <= toY) {
-                        c.addClassName("v-daterange");
-                    } else {
-                        c.removeClassName("v-daterange");
-                    }
+    /**
+     * Highlights the slots from first to last, or none if first is negative.
+     * Only the slots whose highlight changes are touched.
+     */
+    private void setSelectedSlots(int first, int last) {
+        if (selectedFirst >= 0) {
+            for (int i = selectedFirst; i <= selectedLast; i++) {
+                if (first < 0 || i < first || i > last) {
+                    slotElements[i].removeClassName("v-daterange");
                 }
             }
         }
-
-        event.preventDefault();
+        if (first >= 0) {
+            for (int i = first; i <= last; i++) {
+                if (selectedFirst < 0 || i < selectedFirst || i > selectedLast) {
+                    slotElements[i].addClassName("v-daterange");
+                }
+            }
+        }
+        selectedFirst = first;
+        selectedLast = first < 0 ? -1 : last;
     }
 
     public void cancelRangeSelect() {
@@ -754,21 +944,8 @@ public class DateCell extends FocusableComplexPanel
     }
 
     private void clearSelectionRange() {
-        if (eventRangeStart > -1) {
-            // clear all "selected" class names
-            Element main = getElement();
-            NodeList<Node> nodes = main.getChildNodes();
-
-            for (int i = 0; i <= 47; i++) {
-                Element c = (Element) nodes.getItem(i);
-                if (c == null) {
-                    continue;
-                }
-                c.removeClassName("v-daterange");
-            }
-
-            eventRangeStart = -1;
-        }
+        setSelectedSlots(-1, -1);
+        eventRangeStart = -1;
     }
 
     public void setToday(Date today, int width) {
@@ -790,6 +967,16 @@ public class DateCell extends FocusableComplexPanel
         // position is calculated later, when we know the cell heights
     }
 
+    /**
+     * Moves the current time marker of today's cell.
+     */
+    public void updateToday(Date today) {
+        this.today = today;
+        if (height > 0) {
+            recalculateTimeBarPosition();
+        }
+    }
+
     public Element getTodaybarElement() {
         return todaybar;
     }
@@ -849,6 +1036,12 @@ public class DateCell extends FocusableComplexPanel
 
     @Override
     public void onContextMenu(ContextMenuEvent event) {
+        DateCellDayItem dayItem = getEventItem(event);
+        if (dayItem != null) {
+            dayItem.onContextMenu(event);
+            return;
+        }
+
         if (weekgrid.getCalendar().getMouseEventListener() != null) {
             event.preventDefault();
             event.stopPropagation();
@@ -857,6 +1050,27 @@ public class DateCell extends FocusableComplexPanel
         }
     }
 
+    /**
+     * Finds the item an event of this day happened in, by the widget of the
+     * element. Items have no handlers of their own.
+     *
+     * @return the item widget, or null if the event is not in an item
+     */
+    private DateCellDayItem getEventItem(DomEvent<?> event) {
+        EventTarget target = event.getNativeEvent().getEventTarget();
+        if (!Element.is(target)) {
+            return null;
+        }
+        for (Element e = Element.as(target); e != null && e != getElement(); e = e.getParentElement()) {
+            EventListener listener = DOM.getEventListener(e);
+            if (listener instanceof DateCellDayItem) {
+                DateCellDayItem dayItem = (DateCellDayItem) listener;
+                return dayItem.getParent() == this ? dayItem : null;
+            }
+        }
+        return null;
+    }
+
     private void updateEventCellsWidth() {
         for (Widget widget : getChildren()) {
             if (widget instanceof DateCellDayItem) {
@@ -31,8 +31,6 @@ import com.vaadin.client.WidgetUtil;
 import org.vaadin.addon.calendar.client.DateConstants;
 
 import java.util.Date;
-import java.util.LinkedList;
-import java.util.List;
 
 /**
  * Internally used by the calendar
@@ -45,14 +43,15 @@ public class DateCellDayItem extends FocusableHTML
         KeyDownHandler, ContextMenuHandler, HasTooltipKey {
 
     public static final int halfHourInMilliSeconds = 1800 * 1000;
-    private final DateCell dateCell;
+    private DateCell dateCell;
     private final Element eventContent;
-    private final WeekGrid weekGrid;
-    private final Integer eventIndex;
-    private final List<HandlerRegistration> handlers;
+    private WeekGrid weekGrid;
+    private String itemKey;
     private Element caption = null;
     private CalendarItem calendarItem = null;
+    // handlers of the element, only while the item is pressed
     private HandlerRegistration moveRegistration;
+    private HandlerRegistration upRegistration;
     private int startY = -1;
     private int startX = -1;
     private String moveWidth;
@@ -60,7 +59,8 @@ public class DateCellDayItem extends FocusableHTML
     private Date startDatetimeTo;
     private boolean mouseMoveStarted;
     private int top;
-    private int startYrelative;
+    // position of the pointer in the day when the drag started
+    private int startYInDay;
     private int startXrelative;
     private boolean disabled;
     private Element topResizeBar;
@@ -73,8 +73,6 @@ public class DateCellDayItem extends FocusableHTML
         super();
         this.dateCell = dateCell;
 
-        handlers = new LinkedList<>();
-
         setStylePrimaryName("v-calendar-event");
 
         setCalendarItem(calendarItem);
@@ -95,7 +93,45 @@ public class DateCellDayItem extends FocusableHTML
         eventContent.addClassName("v-calendar-event-content");
         getElement().appendChild(eventContent);
 
-        if (weekGrid.getCalendar().isItemResizeAllowed() && getCalendarItem().isResizeable()) {
+        updateResizeBars();
+
+        itemKey = calendarItem.getKey();
+
+    }
+
+    /**
+     * Shows another item in this widget. Used for widgets which are not
+     * attached, before attaching them again.
+     *
+     * @param dateCell
+     *            The day the widget is added to
+     * @param calendarItem
+     *            The item to show
+     */
+    public void reuseFor(DateCell dateCell, CalendarItem calendarItem) {
+        this.dateCell = dateCell;
+        // the pool outlives week grids
+        weekGrid = dateCell.weekgrid;
+        // released in the middle of a move
+        removeMoveHandlers();
+        mouseMoveStarted = false;
+        startX = -1;
+        startY = -1;
+        if (getCalendarItem().getStyleName().length() > 0) {
+            removeStyleDependentName(getCalendarItem().getStyleName());
+        }
+        setCalendarItem(calendarItem);
+        if (calendarItem.getStyleName().length() > 0) {
+            addStyleDependentName(calendarItem.getStyleName());
+        }
+        updateResizeBars();
+        itemKey = calendarItem.getKey();
+    }
+
+    private void updateResizeBars() {
+        boolean resizeable = weekGrid.getCalendar().isItemResizeAllowed()
+                && getCalendarItem().isResizeable();
+        if (resizeable && topResizeBar == null) {
             topResizeBar = DOM.createDiv();
             bottomResizeBar = DOM.createDiv();
 
@@ -104,28 +140,35 @@ public class DateCellDayItem extends FocusableHTML
 
             getElement().appendChild(topResizeBar);
             getElement().appendChild(bottomResizeBar);
-        }
-
-        eventIndex = calendarItem.getIndex();
 
+        } else if (!resizeable && topResizeBar != null) {
+            topResizeBar.removeFromParent();
+            bottomResizeBar.removeFromParent();
+            topResizeBar = null;
+            bottomResizeBar = null;
+        }
     }
 
-    @Override
-    protected void onAttach() {
-        super.onAttach();
-        handlers.add(addMouseDownHandler(this));
-        handlers.add(addMouseUpHandler(this));
-        handlers.add(addKeyDownHandler(this));
-        handlers.add(addDomHandler(this, ContextMenuEvent.getType()));
+    /**
+     * @return true while the item is pressed for moving or resizing
+     */
+    public boolean isMoving() {
+        return moveRegistration != null;
     }
 
-    @Override
-    protected void onDetach() {
-        for (HandlerRegistration handler : handlers) {
-            handler.removeHandler();
+    /**
+     * Removes the handlers added while the item is pressed. Otherwise the day
+     * handles the events of the item element and passes them on.
+     */
+    private void removeMoveHandlers() {
+        if (moveRegistration != null) {
+            moveRegistration.removeHandler();
+            moveRegistration = null;
+        }
+        if (upRegistration != null) {
+            upRegistration.removeHandler();
+            upRegistration = null;
         }
-        handlers.clear();
-        super.onDetach();
     }
 
     public void setSlotHeightInPX(int slotHeight) {
@@ -219,10 +262,12 @@ public class DateCellDayItem extends FocusableHTML
         if ((weekGrid.getCalendar().isItemMoveAllowed() && getCalendarItem().isMoveable())
                 || (clickTargetsResize() && getCalendarItem().isResizeable())) {
 
+            // captured events go to the item element only
             moveRegistration = addMouseMoveHandler(this);
+            upRegistration = addMouseUpHandler(this);
             setFocus(true);
             try {
-                startYrelative = (int) ((double) event.getRelativeY(caption) % slotHeight);
+                startYInDay = top + event.getRelativeY(getElement());
                 startXrelative = (event.getRelativeX(weekGrid.getElement())
                         - weekGrid.timebar.getOffsetWidth())
                         % getDateCellWidth();
@@ -259,10 +304,7 @@ public class DateCellDayItem extends FocusableHTML
 
         Event.releaseCapture(getElement());
         setFocus(false);
-        if (moveRegistration != null) {
-            moveRegistration.removeHandler();
-            moveRegistration = null;
-        }
+        removeMoveHandlers();
 
         int endX = event.getClientX();
         int endY = event.getClientY();
@@ -343,12 +385,8 @@ public class DateCellDayItem extends FocusableHTML
         HorizontalPanel parent = (HorizontalPanel) getParent().getParent();
         int relativeX = event.getRelativeX(parent.getElement())
                 - weekGrid.timebar.getOffsetWidth();
-        int halfHourDiff;
-        if (moveY > 0) {
-            halfHourDiff = (startYrelative + moveY) / slotHeight;
-        } else {
-            halfHourDiff = (moveY - startYrelative) / slotHeight;
-        }
+        int halfHourDiff = weekGrid.getSlotAt(startYInDay + moveY)
+                - weekGrid.getSlotAt(startYInDay);
 
         int dateCellWidth = getDateCellWidth();
         long dayDiff;
@@ -470,10 +508,7 @@ public class DateCellDayItem extends FocusableHTML
         Event.releaseCapture(getElement());
         setFocus(false);
 
-        if (moveRegistration != null) {
-            moveRegistration.removeHandler();
-            moveRegistration = null;
-        }
+        removeMoveHandlers();
 
         mouseMoveStarted = false;
         removeGlobalResizeStyle();
@@ -569,7 +604,7 @@ public class DateCellDayItem extends FocusableHTML
      */
     private String buildResizeString(CalendarItem event) {
 
-        return String.valueOf(event.getIndex()) +
+        return event.getKey() +
                 "," +
                 DateUtil.formatClientSideDate(event.getStart()) +
                 "-" +
@@ -651,6 +686,6 @@ public class DateCellDayItem extends FocusableHTML
 
     @Override
     public Object getTooltipKey() {
-        return eventIndex;
+        return itemKey;
     }
 }
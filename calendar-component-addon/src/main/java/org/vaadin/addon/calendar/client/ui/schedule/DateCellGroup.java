@@ -23,7 +23,11 @@ import java.util.List;
  * Internally used by the calendar
  *
  * @since 7.1
+ * @deprecated Only returned by the deprecated
+ *             {@link DateCell#getOverlappingEvents(int)}, the items of a day
+ *             are laid out in columns without groups
  */
+@Deprecated
 public class DateCellGroup {
 
     private WeekGridMinuteTimeRange range;
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.vaadin.addon.calendar.client.ui.schedule;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Assigns columns to the overlapping items of a day. The items are sorted by
+ * start once and swept in that order. Items ending before the next one starts
+ * give their columns back, and the lowest free column is taken first, so the
+ * whole layout takes O(n log n).
+ *
+ * Items which overlap each other directly or through other items form a
+ * cluster and share the width of the day between the columns of the cluster.
+ */
+class ItemColumnLayout {
+
+    private final int[] columns;
+
+    private final int[] columnCounts;
+
+    /**
+     * @param starts
+     *            Start times of the items in minutes
+     * @param ends
+     *            End times of the items in minutes
+     */
+    ItemColumnLayout(final long[] starts, long[] ends) {
+        int count = starts.length;
+        columns = new int[count];
+        columnCounts = new int[count];
+
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        // stable, so items starting together keep their order
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Long.compare(starts[a], starts[b]);
+            }
+        });
+
+        // active items by end, free columns by index
+        IntHeap active = new IntHeap(count, ends);
+        long[] columnIndexes = new long[count];
+        for (int i = 0; i < count; i++) {
+            columnIndexes[i] = i;
+        }
+        IntHeap free = new IntHeap(count, columnIndexes);
+
+        int clusterStart = 0;
+        int clusterColumns = 0;
+        for (int i = 0; i < count; i++) {
+            int item = order[i];
+
+            while (!active.isEmpty() && ends[active.peek()] <= starts[item]) {
+                free.add(columns[active.poll()]);
+            }
+
+            if (active.isEmpty()) {
+                // nothing overlaps any more, the cluster is complete
+                setColumnCount(order, clusterStart, i, clusterColumns);
+                clusterStart = i;
+                clusterColumns = 0;
+                free.clear();
+            }
+
+            int column = free.isEmpty() ? clusterColumns++ : free.poll();
+            columns[item] = column;
+            active.add(item);
+        }
+        setColumnCount(order, clusterStart, count, clusterColumns);
+    }
+
+    private void setColumnCount(Integer[] order, int from, int to, int count) {
+        for (int i = from; i < to; i++) {
+            columnCounts[order[i]] = count;
+        }
+    }
+
+    /**
+     * @return the column of an item, starting from 0
+     */
+    int getColumn(int item) {
+        return columns[item];
+    }
+
+    /**
+     * @return the number of columns shared by an item and the items
+     *         overlapping it directly or indirectly
+     */
+    int getColumnCount(int item) {
+        return columnCounts[item];
+    }
+
+    /**
+     * Binary min-heap of indexes, ordered by the value of the index.
+     */
+    private static class IntHeap {
+
+        private final int[] heap;
+
+        private final long[] values;
+
+        private int size;
+
+        IntHeap(int capacity, long[] values) {
+            heap = new int[capacity];
+            this.values = values;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        int peek() {
+            return heap[0];
+        }
+
+        void add(int index) {
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!less(index, heap[parent])) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = index;
+        }
+
+        int poll() {
+            int top = heap[0];
+            int last = heap[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!less(heap[child], last)) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            if (size > 0) {
+                heap[i] = last;
+            }
+            return top;
+        }
+
+        private boolean less(int a, int b) {
+            return values[a] < values[b] || values[a] == values[b] && a < b;
+        }
+    }
+}
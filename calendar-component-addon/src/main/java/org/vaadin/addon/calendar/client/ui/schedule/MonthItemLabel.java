@@ -15,7 +15,6 @@
  */
 package org.vaadin.addon.calendar.client.ui.schedule;
 
-import com.google.gwt.event.dom.client.ContextMenuEvent;
 import com.google.gwt.user.client.ui.HTML;
 import com.vaadin.client.WidgetUtil;
 import org.vaadin.addon.calendar.client.ui.VCalendar;
@@ -32,7 +31,7 @@ public class MonthItemLabel extends HTML implements HasTooltipKey {
     private static final String STYLENAME = "v-calendar-event";
 
     private boolean timeSpecificEvent = false;
-    private Integer itemIndex;
+    private String itemKey;
     private VCalendar calendar;
     private String caption;
     private Date time;
@@ -44,12 +43,20 @@ public class MonthItemLabel extends HTML implements HasTooltipKey {
      */
     public MonthItemLabel() {
         setStylePrimaryName(STYLENAME);
+        // events are handled by the day showing the label
+    }
 
-        addDomHandler(contextMenuEvent -> {
-            calendar.getMouseEventListener().contextMenu(contextMenuEvent, MonthItemLabel.this);
-            contextMenuEvent.stopPropagation();
-            contextMenuEvent.preventDefault();
-        }, ContextMenuEvent.getType());
+    /**
+     * Clears the label, so that it can show another item.
+     */
+    void reset() {
+        setStyleName(STYLENAME);
+        timeSpecificEvent = false;
+        itemKey = null;
+        caption = null;
+        time = null;
+        calendarItem = null;
+        setHTML("");
     }
 
     public void setCalendarItem(CalendarItem e) {
@@ -107,13 +114,13 @@ public class MonthItemLabel extends HTML implements HasTooltipKey {
     }
 
     /**
-     * Set the (server side) index of the item
+     * Set the (server side) key of the item
      *
-     * @param index
-     *            The integer index
+     * @param key
+     *            The item key
      */
-    public void setItemIndex(int index) {
-        itemIndex = index;
+    public void setItemKey(String key) {
+        itemKey = key;
     }
 
     /**
@@ -159,7 +166,7 @@ public class MonthItemLabel extends HTML implements HasTooltipKey {
 
     @Override
     public Object getTooltipKey() {
-        return itemIndex;
+        return itemKey;
     }
 
     public CalendarItem getCalendarItem() {
@@ -17,10 +17,13 @@ package org.vaadin.addon.calendar.client.ui.schedule;
 
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.EventTarget;
 import com.google.gwt.dom.client.NativeEvent;
 import com.google.gwt.event.dom.client.*;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.DOM;
 import com.google.gwt.user.client.Event;
+import com.google.gwt.user.client.EventListener;
 import com.google.gwt.user.client.ui.HTML;
 import com.google.gwt.user.client.ui.Label;
 import com.google.gwt.user.client.ui.Widget;
@@ -28,7 +31,10 @@ import com.vaadin.client.ui.FocusableFlowPanel;
 import org.vaadin.addon.calendar.client.DateConstants;
 import org.vaadin.addon.calendar.client.ui.VCalendar;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Set;
 
 /**
  * A class representing a single cell within the calendar in month-view
@@ -37,27 +43,35 @@ import java.util.Date;
  * @author Vaadin Ltd.
  */
 public class SimpleDayCell extends FocusableFlowPanel implements MouseUpHandler,
-        MouseDownHandler, MouseOverHandler, MouseMoveHandler {
+        MouseDownHandler, MouseOverHandler, MouseMoveHandler, ScrollHandler {
 
     private static int BOTTOMSPACERHEIGHT = -1;
     private static int EVENTHEIGHT = -1;
+    // distance between the tops of two rows, margins included
+    private static int ROWHEIGHT = -1;
     private static final int BORDERPADDINGSIZE = 1;
+    // rows drawn above and below the visible rows of a scrollable cell
+    private static final int OVERSCAN_ROWS = 5;
 
     private final VCalendar calendar;
     private Date date;
     private int intHeight;
     private final HTML bottomspacer;
     private final Label caption;
-    private final CalendarItem[] calendarItems = new CalendarItem[10];
+    // items by slot, null for empty slots
+    private final List<CalendarItem> calendarItems = new ArrayList<>();
     private final int cell;
     private final int row;
     private boolean monthNameVisible;
     private HandlerRegistration mouseUpRegistration;
     private HandlerRegistration mouseDownRegistration;
     private HandlerRegistration mouseOverRegistration;
+    private HandlerRegistration scrollRegistration;
     private boolean monthEventMouseDown;
     private boolean labelMouseDown;
     private int itemCount = 0;
+    /** Occupied slots, one bit per slot packed into 32 bit words. */
+    private int[] occupiedSlots = new int[1];
 
     private int startX = -1;
     private int startY = -1;
@@ -79,6 +93,11 @@ public class SimpleDayCell extends FocusableFlowPanel implements MouseUpHandler,
     private Widget clickedWidget;
     private HandlerRegistration bottomSpacerMouseDownHandler;
     private boolean scrollable = false;
+    // slots drawn in a scrollable cell, from first to last exclusive
+    private int firstDrawnSlot;
+    private int lastDrawnSlot;
+    private HTML topFiller;
+    private HTML bottomFiller;
     private MonthGrid monthGrid;
     private HandlerRegistration keyDownHandler;
 
@@ -151,53 +170,78 @@ public class SimpleDayCell extends FocusableFlowPanel implements MouseUpHandler,
             return;
         }
 
+        // a scrollable cell only draws the rows around its scroll position
+        if (scrollable) {
+            clear = true;
+        }
+
         if (clear) {
             while (getWidgetCount() > 1) {
-                remove(1);
+                removeSlotWidget(1);
             }
         }
 
         // How many calendarItems can be shown in UI
         int slots = 0;
         if (scrollable) {
-            for (int i = 0; i < calendarItems.length; i++) {
-                if (calendarItems[i] != null) {
-                    slots = i + 1;
-                }
-            }
+            slots = getSlotCount();
             setHeight(intHeight + "px"); // Fixed height
         } else {
             // Dynamic height by the content
             getElement().removeAttribute("height");
             slots = (intHeight - caption.getOffsetHeight() - BOTTOMSPACERHEIGHT)
                     / EVENTHEIGHT;
-            if (slots > 10) {
-                slots = 10;
-            }
         }
 
         updateItems(slots, clear);
 
     }
 
+    /**
+     * @return the number of slots up to the last occupied one
+     */
+    private int getSlotCount() {
+        int slots = calendarItems.size();
+        while (slots > 0 && calendarItems.get(slots - 1) == null) {
+            slots--;
+        }
+        return slots;
+    }
+
     public void updateItems(int slots, boolean clear) {
-        int eventsAdded = 0;
+        int first = 0;
+        int last = slots;
+        if (scrollable && getRowHeight() > 0) {
+            int visibleRows = intHeight / getRowHeight() + 1;
+            int topRow = getTopRow();
+            first = Math.max(topRow - OVERSCAN_ROWS, 0);
+            last = Math.min(topRow + visibleRows + OVERSCAN_ROWS, slots);
+            if (first > last) {
+                first = last;
+            }
+        }
+        firstDrawnSlot = first;
+        lastDrawnSlot = last;
+
+        if (scrollable) {
+            topFiller = createFiller();
+            add(topFiller);
+        }
 
-        for (int i = 0; i < slots; i++) {
-            CalendarItem e = calendarItems[i];
+        for (int i = first; i < last; i++) {
+            CalendarItem e = getCalendarItem(i);
             if (e == null) {
                 // Empty slot
                 HTML slot = new HTML();
                 slot.setStyleName("v-calendar-spacer");
                 if (!clear) {
-                    remove(i + 1);
+                    removeSlotWidget(i + 1);
                     insert(slot, i + 1);
                 } else {
                     add(slot);
                 }
             } else {
                 // Item slot
-                eventsAdded++;
                 if (!clear) {
                     Widget w = getWidget(i + 1);
                     if (!(w instanceof MonthItemLabel)) {
@@ -210,6 +254,20 @@ public class SimpleDayCell extends FocusableFlowPanel implements MouseUpHandler,
             }
         }
 
+        if (scrollable) {
+            bottomFiller = createFiller();
+            add(bottomFiller);
+            if (ROWHEIGHT <= 0 && last - first >= 2) {
+                ROWHEIGHT = getWidget(3).getElement().getOffsetTop()
+                        - getWidget(2).getElement().getOffsetTop();
+            }
+            topFiller.setHeight(first * Math.max(getRowHeight(), 0) + "px");
+            bottomFiller.setHeight((slots - last) * Math.max(getRowHeight(), 0) + "px");
+        } else {
+            topFiller = null;
+            bottomFiller = null;
+        }
+
         int remainingSpace = intHeight - ((slots * EVENTHEIGHT)
                 + BOTTOMSPACERHEIGHT + caption.getOffsetHeight());
         int newHeight = remainingSpace + BOTTOMSPACERHEIGHT;
@@ -222,7 +280,7 @@ public class SimpleDayCell extends FocusableFlowPanel implements MouseUpHandler,
             add(bottomspacer);
         }
 
-        int more = itemCount - eventsAdded;
+        int more = itemCount - getItemCount(0, slots);
         if (more > 0) {
             if (bottomSpacerMouseDownHandler == null) {
                 bottomSpacerMouseDownHandler = bottomspacer
@@ -245,19 +303,113 @@ public class SimpleDayCell extends FocusableFlowPanel implements MouseUpHandler,
         }
     }
 
+    /**
+     * Creates an empty block standing for the rows which are not drawn.
+     */
+    private HTML createFiller() {
+        HTML filler = new HTML();
+        filler.setStyleName("v-calendar-spacer-filler");
+        return filler;
+    }
+
+    private static int getRowHeight() {
+        return ROWHEIGHT > 0 ? ROWHEIGHT : EVENTHEIGHT;
+    }
+
+    /**
+     * @return the first row in the scrolled view of a scrollable cell
+     */
+    private int getTopRow() {
+        return Math.max(getElement().getScrollTop()
+                - caption.getOffsetHeight(), 0) / getRowHeight();
+    }
+
+    /**
+     * @return the number of items in the slots from first to last exclusive
+     */
+    private int getItemCount(int first, int last) {
+        int count = 0;
+        for (int i = first; i < last && i < calendarItems.size(); i++) {
+            if (calendarItems.get(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void onScroll(ScrollEvent event) {
+        if (!scrollable || getRowHeight() <= 0) {
+            return;
+        }
+        // redrawn only when the visible rows leave the drawn ones
+        int topRow = getTopRow();
+        int bottomRow = Math.min(topRow + intHeight / getRowHeight() + 1,
+                getSlotCount());
+        if (topRow < firstDrawnSlot || bottomRow > lastDrawnSlot) {
+            reDraw(true);
+        }
+    }
+
+    /**
+     * Removes a widget, moving item labels to the pool of the calendar.
+     */
+    private void removeSlotWidget(int index) {
+        Widget w = getWidget(index);
+        remove(index);
+        if (w instanceof MonthItemLabel) {
+            calendar.getMonthItemLabelPool().release((MonthItemLabel) w);
+        }
+    }
+
+    /**
+     * Removes the item labels of this day and moves them to the pool of the
+     * calendar.
+     */
+    public void releaseItemWidgets() {
+        for (int i = getWidgetCount() - 1; i > 0; i--) {
+            if (getWidget(i) instanceof MonthItemLabel) {
+                removeSlotWidget(i);
+            }
+        }
+    }
+
+    /**
+     * Finds the widget an event of this day happened in. Item labels have no
+     * handlers of their own, they are found by the widget of the element.
+     *
+     * @return the widget handling the event, an item label or this day
+     */
+    public Widget getEventWidget(DomEvent<?> event) {
+        Widget source = (Widget) event.getSource();
+        EventTarget target = event.getNativeEvent().getEventTarget();
+        if (source != this || !Element.is(target)) {
+            return source;
+        }
+        for (Element e = Element.as(target); e != null && e != getElement(); e = e.getParentElement()) {
+            EventListener listener = DOM.getEventListener(e);
+            if (listener instanceof MonthItemLabel && ((Widget) listener).getParent() == this) {
+                return (Widget) listener;
+            }
+        }
+        return this;
+    }
+
     private MonthItemLabel createMonthItemLabel(CalendarItem e) {
         long rangeInMillis = e.getRangeInMilliseconds();
         boolean timeEvent = rangeInMillis <= DateConstants.DAYINMILLIS
                 && !e.isAllDay();
         Date fromDatetime = e.getStartTime();
 
-        // Create a new MonthItemLabel
-        MonthItemLabel eventDiv = new MonthItemLabel();
+        MonthItemLabel eventDiv = calendar.getMonthItemLabelPool().obtain();
+        if (eventDiv == null) {
+            eventDiv = new MonthItemLabel();
+        } else {
+            eventDiv.reset();
+        }
         eventDiv.addStyleDependentName("month");
-        eventDiv.addMouseDownHandler(this);
-        eventDiv.addMouseUpHandler(this);
         eventDiv.setCalendar(calendar);
-        eventDiv.setItemIndex(e.getIndex());
+        eventDiv.setItemKey(e.getKey());
         eventDiv.setCalendarItem(e);
 
         if (timeEvent) {
@@ -316,16 +468,53 @@ public class SimpleDayCell extends FocusableFlowPanel implements MouseUpHandler,
         itemCount++;
         int slot = e.getSlotIndex();
         if (slot == -1) {
-            for (int i = 0; i < calendarItems.length; i++) {
-                if (calendarItems[i] == null) {
-                    calendarItems[i] = e;
-                    e.setSlotIndex(i);
-                    break;
-                }
+            slot = calendarItems.indexOf(null);
+            if (slot == -1) {
+                slot = calendarItems.size();
             }
+            e.setSlotIndex(slot);
+        }
+        while (calendarItems.size() <= slot) {
+            calendarItems.add(null);
+        }
+        calendarItems.set(slot, e);
+        setSlotOccupied(slot, true);
+    }
+
+    private void setSlotOccupied(int slot, boolean occupied) {
+        int word = slot / 32;
+        if (word >= occupiedSlots.length) {
+            if (!occupied) {
+                return;
+            }
+            int[] grown = new int[word + 1];
+            System.arraycopy(occupiedSlots, 0, grown, 0, occupiedSlots.length);
+            occupiedSlots = grown;
+        }
+        if (occupied) {
+            occupiedSlots[word] |= 1 << (slot % 32);
         } else {
-            calendarItems[slot] = e;
+            occupiedSlots[word] &= ~(1 << (slot % 32));
+        }
+    }
+
+    /**
+     * Adds the occupied slots of this day to a slot bitmap.
+     *
+     * @param slots
+     *            Slot bitmap packed into 32 bit words
+     * @return the bitmap, a longer copy if this day has more slots
+     */
+    public int[] addOccupiedSlots(int[] slots) {
+        if (slots.length < occupiedSlots.length) {
+            int[] grown = new int[occupiedSlots.length];
+            System.arraycopy(slots, 0, grown, 0, slots.length);
+            slots = grown;
+        }
+        for (int i = 0; i < occupiedSlots.length; i++) {
+            slots[i] |= occupiedSlots[i];
         }
+        return slots;
     }
 
     @SuppressWarnings("deprecation")
@@ -346,6 +535,7 @@ public class SimpleDayCell extends FocusableFlowPanel implements MouseUpHandler,
         mouseUpRegistration = addDomHandler(this, MouseUpEvent.getType());
         mouseDownRegistration = addDomHandler(this, MouseDownEvent.getType());
         mouseOverRegistration = addDomHandler(this, MouseOverEvent.getType());
+        scrollRegistration = addDomHandler(this, ScrollEvent.getType());
     }
 
     @Override
@@ -353,6 +543,7 @@ public class SimpleDayCell extends FocusableFlowPanel implements MouseUpHandler,
         mouseUpRegistration.removeHandler();
         mouseDownRegistration.removeHandler();
         mouseOverRegistration.removeHandler();
+        scrollRegistration.removeHandler();
         super.onDetach();
     }
 
@@ -362,7 +553,7 @@ public class SimpleDayCell extends FocusableFlowPanel implements MouseUpHandler,
             return;
         }
 
-        Widget w = (Widget) event.getSource();
+        Widget w = getEventWidget(event);
         if (moveRegistration != null) {
             Event.releaseCapture(getElement());
             moveRegistration.removeHandler();
@@ -420,7 +611,7 @@ public class SimpleDayCell extends FocusableFlowPanel implements MouseUpHandler,
             return;
         }
 
-        Widget w = (Widget) event.getSource();
+        Widget w = getEventWidget(event);
         clickedWidget = w;
 
         if (w instanceof MonthItemLabel) {
@@ -679,7 +870,8 @@ public class SimpleDayCell extends FocusableFlowPanel implements MouseUpHandler,
 
         CalendarItem e = getCalendarItem(slot);
         if (targetEvent.equals(e)) {
-            calendarItems[slot] = null;
+            calendarItems.set(slot, null);
+            setSlotOccupied(slot, false);
             itemCount--;
             if (reDrawImmediately) {
                 reDraw(moveEvent == null);
@@ -689,16 +881,40 @@ public class SimpleDayCell extends FocusableFlowPanel implements MouseUpHandler,
         return false;
     }
 
+    /**
+     * Removes the items with the given keys from this day. The cell is not
+     * redrawn.
+     *
+     * @param keys
+     *            Keys of the items to remove
+     * @return true if an item was removed
+     */
+    public boolean removeItems(Set<String> keys) {
+        boolean removed = false;
+        for (int i = 0; i < calendarItems.size(); i++) {
+            CalendarItem item = calendarItems.get(i);
+            if (item != null && keys.contains(item.getKey())) {
+                calendarItems.set(i, null);
+                setSlotOccupied(i, false);
+                itemCount--;
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
     private CalendarItem getItemByWidget(MonthItemLabel eventWidget) {
-        int index = getWidgetIndex(eventWidget);
-        return getCalendarItem(index - 1);
+        return eventWidget.getCalendarItem();
     }
 
+    /**
+     * @return the item in a slot, or null if the slot is empty
+     */
     public CalendarItem getCalendarItem(int i) {
-        return calendarItems[i];
+        return i < calendarItems.size() ? calendarItems.get(i) : null;
     }
 
-    public CalendarItem[] getCalendarItems() {
+    public List<CalendarItem> getCalendarItems() {
         return calendarItems;
     }
 
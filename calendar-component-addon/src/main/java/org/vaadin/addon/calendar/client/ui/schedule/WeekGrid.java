@@ -27,8 +27,14 @@ import com.vaadin.client.WidgetUtil;
 import org.vaadin.addon.calendar.client.DateConstants;
 import org.vaadin.addon.calendar.client.ui.VCalendar;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -49,12 +55,16 @@ public class WeekGrid extends SimplePanel {
     private boolean verticalScrollEnabled;
     private boolean horizontalScrollEnabled;
     private int[] cellHeights;
+    // top of each slot with borders, the total height as the last entry
+    private int[] slotTops = new int[1];
     private final int slotInMinutes = 30;
     private int dateCellBorder;
     private DateCell dateCellOfToday;
     private int[] cellWidths;
     private int firstHour;
     private int lastHour;
+    // removed days, reused with their slot elements for the next dates
+    private final List<DateCell> spareDateCells = new ArrayList<>();
 
     public WeekGrid(VCalendar parent, boolean format24h) {
         setCalendar(parent);
@@ -82,6 +92,11 @@ public class WeekGrid extends SimplePanel {
             scrollPanel.addScrollHandler(new ScrollHandler() {
                 @Override
                 public void onScroll(ScrollEvent event) {
+                    if (isItemsVirtualized()) {
+                        for (int i = 1; i < content.getWidgetCount(); i++) {
+                            ((DateCell) content.getWidget(i)).onViewScrolled();
+                        }
+                    }
                     if (calendar.getScrollListener() != null) {
                         calendar.getScrollListener().scroll(
                                 scrollPanel.getVerticalScrollPosition());
@@ -117,8 +132,13 @@ public class WeekGrid extends SimplePanel {
         return width;
     }
 
-    public void addDate(Date d, Set<Long> blockedSlots) {
-        final DateCell dc = new DateCell(this, d, blockedSlots);
+    public void addDate(Date d, int[] blockedSlots, int blockedSlotMinutes) {
+        DateCell dc = getSpareDateCell();
+        if (dc == null) {
+            dc = new DateCell(this, d, blockedSlots, blockedSlotMinutes);
+        } else {
+            dc.reuseFor(d, blockedSlots, blockedSlotMinutes);
+        }
         dc.setDisabled(isDisabled());
         dc.setHorizontalSized(isHorizontalScrollable() || width < 0);
         dc.setVerticalSized(isVerticalScrollable());
@@ -145,6 +165,27 @@ public class WeekGrid extends SimplePanel {
         return verticalScrollEnabled;
     }
 
+    /**
+     * @return true if only the items in or near the scrolled view are drawn
+     */
+    boolean isItemsVirtualized() {
+        return calendar.isWeekItemsVirtualized() && isVerticalScrollable();
+    }
+
+    /**
+     * @return the absolute top of the scrolled view
+     */
+    int getViewTop() {
+        return wrapper.getAbsoluteTop();
+    }
+
+    /**
+     * @return the height of the scrolled view
+     */
+    int getViewHeight() {
+        return wrapper.getOffsetHeight();
+    }
+
     private boolean isHorizontalScrollable() {
         return horizontalScrollEnabled;
     }
@@ -197,12 +238,29 @@ public class WeekGrid extends SimplePanel {
 
     public void clearDates() {
         while (content.getWidgetCount() > 1) {
+            DateCell dc = (DateCell) content.getWidget(1);
+            dc.releaseItems();
             content.remove(1);
+            spareDateCells.add(dc);
         }
 
         dateCellOfToday = null;
     }
 
+    /**
+     * @return a removed day with the slots of the current hours, or null if
+     *         there is none
+     */
+    private DateCell getSpareDateCell() {
+        while (!spareDateCells.isEmpty()) {
+            DateCell dc = spareDateCells.remove(spareDateCells.size() - 1);
+            if (dc.getFirstHour() == firstHour && dc.getLastHour() == lastHour) {
+                return dc;
+            }
+        }
+        return null;
+    }
+
     /**
      * @return true if this weekgrid contains a date that is today
      */
@@ -256,6 +314,7 @@ public class WeekGrid extends SimplePanel {
                 dateCellBorder = first.getSlotBorder();
                 cellHeights = VCalendar.distributeSize(height,
                         first.getNumberOfSlots(), -dateCellBorder);
+                updateSlotTops();
                 for (int i = 1; i < count; i++) {
                     DateCell dc = (DateCell) content.getWidget(i);
                     dc.setHeightPX(height, cellHeights);
@@ -271,6 +330,7 @@ public class WeekGrid extends SimplePanel {
                         / first.getNumberOfSlots()) - dateCellBorder;
                 cellHeights = new int[48];
                 Arrays.fill(cellHeights, dateHeight);
+                updateSlotTops();
 
                 for (int i = 1; i < count; i++) {
                     DateCell dc = (DateCell) content.getWidget(i);
@@ -280,132 +340,163 @@ public class WeekGrid extends SimplePanel {
         }
     }
 
+    private void updateSlotTops() {
+        slotTops = new int[cellHeights.length + 1];
+        for (int i = 0; i < cellHeights.length; i++) {
+            slotTops[i + 1] = slotTops[i] + cellHeights[i] + dateCellBorder;
+        }
+    }
+
     public void addItem(CalendarItem e) {
         int dateCount = content.getWidgetCount();
-        Date from = e.getStart();
-        Date toTime = e.getEndTime();
         for (int i = 1; i < dateCount; i++) {
             DateCell dc = (DateCell) content.getWidget(i);
-            Date dcDate = dc.getDate();
-            int comp = dcDate.compareTo(from);
-            int comp2 = dcDate.compareTo(toTime);
-            if (comp >= 0 && comp2 < 0 || (comp == 0 && comp2 == 0
-                    && VCalendar.isZeroLengthMidnightEvent(e))) {
-                // Same event may be over two DateCells if event's date
-                // range floats over one day. It can't float over two days,
-                // because event which range is over 24 hours, will be handled
-                // as a "fullDay" event.
-                dc.addItem(dcDate, e);
+            if (isShownOn(e, dc.getDate())) {
+                dc.addItem(dc.getDate(), e);
             }
         }
     }
 
-    public int getPixelLengthFor(int startFromMinutes, int durationInMinutes) {
-        int pixelLength = 0;
-        int currentSlot = 0;
-
-        int firstHourInMinutes = firstHour * DateConstants.HOURINMINUTES;
-        int endHourInMinutes = lastHour * DateConstants.HOURINMINUTES;
-
-        if (firstHourInMinutes > startFromMinutes) {
-            durationInMinutes = durationInMinutes
-                    - (firstHourInMinutes - startFromMinutes);
-            startFromMinutes = 0;
-        } else {
-            startFromMinutes -= firstHourInMinutes;
-        }
-
-        int shownHeightInMinutes = endHourInMinutes - firstHourInMinutes
-                + DateConstants.HOURINMINUTES;
-
-        durationInMinutes = Math.min(durationInMinutes,
-                shownHeightInMinutes - startFromMinutes);
+    /**
+     * Replaces items in this week and lays out only the affected days.
+     *
+     * @param staleKeys
+     *            Keys of the items to remove
+     * @param freshItems
+     *            Items to add
+     */
+    public void updateItems(Set<String> staleKeys, Collection<CalendarItem> freshItems) {
+        Set<DateCell> affected = new HashSet<>();
 
-        // calculate full slots to event
-        int slotsTillEvent = startFromMinutes / slotInMinutes;
-        int startOverFlowTime = slotInMinutes
-                - (startFromMinutes % slotInMinutes);
-        if (startOverFlowTime == slotInMinutes) {
-            startOverFlowTime = 0;
-            currentSlot = slotsTillEvent;
-        } else {
-            currentSlot = slotsTillEvent + 1;
+        int dateCount = content.getWidgetCount();
+        for (int i = 1; i < dateCount; i++) {
+            DateCell dc = (DateCell) content.getWidget(i);
+            if (dc.removeItems(staleKeys)) {
+                affected.add(dc);
+            }
         }
 
-        int durationInSlots = 0;
-        int endOverFlowTime = 0;
-
-        if (startOverFlowTime > 0) {
-            durationInSlots = (durationInMinutes - startOverFlowTime)
-                    / slotInMinutes;
-            endOverFlowTime = (durationInMinutes - startOverFlowTime)
-                    % slotInMinutes;
+        affected.addAll(addItems(freshItems));
 
-        } else {
-            durationInSlots = durationInMinutes / slotInMinutes;
-            endOverFlowTime = durationInMinutes % slotInMinutes;
+        for (DateCell dc : affected) {
+            dc.recalculateItemWidths();
         }
+    }
 
-        // calculate slot overflow at start
-        if (startOverFlowTime > 0 && currentSlot < cellHeights.length) {
-            int lastSlotHeight = cellHeights[currentSlot] + dateCellBorder;
-            pixelLength += (int) (((double) lastSlotHeight
-                    / (double) slotInMinutes) * startOverFlowTime);
+    /**
+     * Adds items to the days they are shown on. The items of each day are
+     * sorted once and merged into the items already shown.
+     *
+     * @param items
+     *            Items to add
+     * @return the days the items were added to
+     */
+    public Set<DateCell> addItems(Collection<CalendarItem> items) {
+        Map<DateCell, List<CalendarItem>> itemsByCell = new LinkedHashMap<>();
+        int dateCount = content.getWidgetCount();
+        for (CalendarItem e : items) {
+            for (int i = 1; i < dateCount; i++) {
+                DateCell dc = (DateCell) content.getWidget(i);
+                if (isShownOn(e, dc.getDate())) {
+                    List<CalendarItem> cellItems = itemsByCell.get(dc);
+                    if (cellItems == null) {
+                        cellItems = new ArrayList<>();
+                        itemsByCell.put(dc, cellItems);
+                    }
+                    cellItems.add(e);
+                }
+            }
         }
 
-        // calculate length in full slots
-        int lastFullSlot = currentSlot + durationInSlots;
-        for (; currentSlot < lastFullSlot
-                && currentSlot < cellHeights.length; currentSlot++) {
-            pixelLength += cellHeights[currentSlot] + dateCellBorder;
+        for (Map.Entry<DateCell, List<CalendarItem>> entry : itemsByCell.entrySet()) {
+            entry.getKey().addItems(entry.getKey().getDate(), entry.getValue());
         }
+        return itemsByCell.keySet();
+    }
 
-        // calculate overflow at end
-        if (endOverFlowTime > 0 && currentSlot < cellHeights.length) {
-            int lastSlotHeight = cellHeights[currentSlot] + dateCellBorder;
-            pixelLength += (int) (((double) lastSlotHeight
-                    / (double) slotInMinutes) * endOverFlowTime);
-        }
+    /**
+     * Same item may be over two DateCells if item's date range floats over
+     * one day. It can't float over two days, because an item which range is
+     * over 24 hours, will be handled as a "fullDay" item.
+     */
+    private static boolean isShownOn(CalendarItem e, Date dcDate) {
+        int comp = dcDate.compareTo(e.getStart());
+        int comp2 = dcDate.compareTo(e.getEndTime());
+        return comp >= 0 && comp2 < 0 || (comp == 0 && comp2 == 0
+                && VCalendar.isZeroLengthMidnightEvent(e));
+    }
 
-        // reduce possible underflow at end
-        if (endOverFlowTime < 0) {
-            int lastSlotHeight = cellHeights[currentSlot] + dateCellBorder;
-            pixelLength += (int) (((double) lastSlotHeight
-                    / (double) slotInMinutes) * endOverFlowTime);
-        }
+    public int getPixelLengthFor(int startFromMinutes, int durationInMinutes) {
+        int firstHourInMinutes = firstHour * DateConstants.HOURINMINUTES;
+        int endFromMinutes = startFromMinutes + durationInMinutes
+                - firstHourInMinutes;
+        startFromMinutes = Math.max(startFromMinutes - firstHourInMinutes, 0);
 
-        return pixelLength;
+        return Math.max(getPixelAt(endFromMinutes) - getPixelAt(startFromMinutes), 0);
     }
 
     public int getPixelTopFor(int startFromMinutes) {
-        int pixelsToTop = 0;
-        int slotIndex = 0;
-
-        int firstHourInMinutes = firstHour * 60;
+        int firstHourInMinutes = firstHour * DateConstants.HOURINMINUTES;
+        return getPixelAt(startFromMinutes - firstHourInMinutes);
+    }
 
-        if (firstHourInMinutes > startFromMinutes) {
-            startFromMinutes = 0;
-        } else {
-            startFromMinutes -= firstHourInMinutes;
+    /**
+     * Gets the pixel position of a time of the day.
+     *
+     * @param minutes
+     *            Minutes from the first shown hour
+     */
+    private int getPixelAt(int minutes) {
+        int slots = slotTops.length - 1;
+        if (minutes <= 0 || slots == 0) {
+            return 0;
         }
-
-        // calculate full slots to event
-        int slotsTillEvent = startFromMinutes / slotInMinutes;
-        int overFlowTime = startFromMinutes % slotInMinutes;
-        if (slotsTillEvent > 0) {
-            for (slotIndex = 0; slotIndex < slotsTillEvent; slotIndex++) {
-                pixelsToTop += cellHeights[slotIndex] + dateCellBorder;
-            }
+        int slot = minutes / slotInMinutes;
+        if (slot >= slots) {
+            return slotTops[slots];
         }
+        int slotHeight = slotTops[slot + 1] - slotTops[slot];
+        return slotTops[slot] + (int) ((double) slotHeight / slotInMinutes
+                * (minutes % slotInMinutes));
+    }
 
-        // calculate lengths less than one slot
-        if (overFlowTime > 0) {
-            int lastSlotHeight = cellHeights[slotIndex] + dateCellBorder;
-            pixelsToTop += ((double) lastSlotHeight / (double) slotInMinutes)
-                    * overFlowTime;
-        }
+    /**
+     * @return the pixel position of the top of a slot, borders included
+     */
+    public int getSlotTop(int slot) {
+        return slotTops[Math.max(Math.min(slot, slotTops.length - 1), 0)];
+    }
 
-        return pixelsToTop;
+    /**
+     * Gets the slot at a pixel position of a day. Positions above or below the
+     * slots continue with the height of the first or the last slot.
+     *
+     * @param pixel
+     *            Position from the top of the first slot
+     * @return the slot index, negative or past the last slot when outside
+     */
+    public int getSlotAt(int pixel) {
+        int slots = slotTops.length - 1;
+        int total = slotTops[slots];
+        if (slots == 0 || total <= 0) {
+            return 0;
+        }
+        if (pixel < 0) {
+            return (int) Math.floor(pixel / (double) slotTops[1]);
+        }
+        if (pixel >= total) {
+            int lastHeight = total - slotTops[slots - 1];
+            return slots + (pixel - total) / Math.max(lastHeight, 1);
+        }
+        // slot heights differ by a pixel at most, so the estimate is close
+        int slot = (int) ((long) pixel * slots / total);
+        while (slot > 0 && slotTops[slot] > pixel) {
+            slot--;
+        }
+        while (slot < slots - 1 && slotTops[slot + 1] <= pixel) {
+            slot++;
+        }
+        return slot;
     }
 
     public void itemMoved(DateCellDayItem dayItem) {
@@ -454,6 +545,30 @@ public class WeekGrid extends SimplePanel {
         }
     }
 
+    /**
+     * Moves the current time marker, if today is shown.
+     */
+    public void updateToday(Date todayTimestamp) {
+        for (int i = 1; i < content.getWidgetCount(); i++) {
+            DateCell dc = (DateCell) content.getWidget(i);
+            if (dc.isToday()) {
+                dc.updateToday(todayTimestamp);
+            }
+        }
+    }
+
+    /**
+     * Updates the blocked slots of a shown date in place.
+     */
+    public void updateBlockedSlots(Date date, int[] blockedSlots, int blockedSlotMinutes) {
+        for (int i = 1; i < content.getWidgetCount(); i++) {
+            DateCell dc = (DateCell) content.getWidget(i);
+            if (dc.getDate().getTime() == date.getTime()) {
+                dc.setBlockedSlots(blockedSlots, blockedSlotMinutes);
+            }
+        }
+    }
+
     public DateCell getDateCellOfToday() {
         return dateCellOfToday;
     }
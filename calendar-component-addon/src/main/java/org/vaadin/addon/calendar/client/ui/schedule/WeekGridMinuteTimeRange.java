@@ -21,7 +21,11 @@ import java.util.Date;
  * Internally used by the calendar
  *
  * @since 7.1
+ * @deprecated Only used by the deprecated {@link DateCellGroup}, the items of
+ *             a day are laid out in columns by comparing their times in
+ *             minutes
  */
+@Deprecated
 public class WeekGridMinuteTimeRange {
     private final Date start;
     private final Date end;
@@ -61,7 +61,7 @@ public class WeeklyLongItemsDateCell extends HTML implements HasTooltipKey {
     @Override
     public Object getTooltipKey() {
         if (calendarItem != null) {
-            return calendarItem.getIndex();
+            return calendarItem.getKey();
         }
         return null;
     }
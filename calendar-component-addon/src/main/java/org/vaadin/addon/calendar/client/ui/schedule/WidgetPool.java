@@ -0,0 +1,58 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.vaadin.addon.calendar.client.ui.schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.user.client.ui.Widget;
+
+/**
+ * Keeps widgets which are no longer shown, so that a view drawn again reuses
+ * them and their elements instead of creating new ones. The caller resets the
+ * state of a widget it takes from the pool.
+ */
+public class WidgetPool<T extends Widget> {
+
+    private final int capacity;
+
+    private final List<T> spares = new ArrayList<>();
+
+    /**
+     * @param capacity
+     *            The number of widgets kept at most
+     */
+    public WidgetPool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return a spare widget, or null if there is none
+     */
+    public T obtain() {
+        return spares.isEmpty() ? null : spares.remove(spares.size() - 1);
+    }
+
+    /**
+     * Keeps a widget for reuse, unless the pool is full. The widget must not
+     * be attached to a parent.
+     */
+    public void release(T widget) {
+        if (spares.size() < capacity && widget.getParent() == null) {
+            spares.add(widget);
+        }
+    }
+}
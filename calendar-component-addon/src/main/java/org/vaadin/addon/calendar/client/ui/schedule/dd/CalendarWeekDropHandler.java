@@ -17,6 +17,7 @@ package org.vaadin.addon.calendar.client.ui.schedule.dd;
 
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.Window;
 import com.vaadin.client.WidgetUtil;
 import com.vaadin.client.ui.dd.VAcceptCallback;
 import com.vaadin.client.ui.dd.VDragEvent;
@@ -51,9 +52,15 @@ public class CalendarWeekDropHandler extends CalendarDropHandler {
     @Override
     protected void dragAccepted(VDragEvent drag) {
         deEmphasis();
-        currentTargetElement = drag.getElementOver();
-        currentTargetDay = WidgetUtil.findWidget(currentTargetElement,
+        currentTargetDay = WidgetUtil.findWidget(drag.getElementOver(),
                 DateCell.class);
+        // the slot under the pointer, also when over a part of a slot. The
+        // client position is relative to the viewport and the absolute top to
+        // the document, so the scrolling of the page is added.
+        int y = drag.getCurrentGwtEvent().getClientY() + Window.getScrollTop()
+                - currentTargetDay.getElement().getAbsoluteTop();
+        currentTargetElement = currentTargetDay.getSlotElement(
+                currentTargetDay.getSlotIndexAt(y));
         emphasis();
     }
 
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.vaadin.addon.calendar.event;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Listener handling and batching of item set change events shared by
+ * {@link BasicItemProvider} and {@link IndexedItemProvider}. Subclasses only
+ * store the items and report what has changed through the
+ * {@code fireItemSetChanged} methods.
+ */
+@SuppressWarnings("serial")
+abstract class AbstractItemProvider<ITEM extends BasicItem> implements
+        CalendarEditableItemProvider<ITEM>,
+        CalendarItemProvider.ItemSetChangedNotifier,
+        EditableCalendarItem.ItemChangeListener {
+
+    private List<ItemSetChangedListener> listeners = new ArrayList<>();
+
+    private int batchDepth;
+
+    private ItemSetChanges<ITEM> batchChanges;
+
+    /**
+     * @return all items held by this provider
+     */
+    abstract Collection<ITEM> getAllItems();
+
+    /**
+     * Removes all given items. Fires a single item set change event.
+     *
+     * @param items
+     *            The items to remove
+     */
+    public abstract void removeItems(Collection<ITEM> items);
+
+    /**
+     * Adds all given items. Fires a single item set change event.
+     *
+     * @param items
+     *            The items to add
+     */
+    public void addItems(Collection<ITEM> items) {
+        setItems(items);
+    }
+
+    /**
+     * Replaces all items of this provider with the given items. Fires a single
+     * item set change event.
+     *
+     * @param items
+     *            The new items
+     */
+    public void replaceAll(Collection<ITEM> items) {
+        runBatch(() -> {
+            removeItems(new ArrayList<>(getAllItems()));
+            setItems(items);
+        });
+    }
+
+    /**
+     * Runs the changes and fires a single item set change event when the
+     * outermost batch completes, even if the changes throw an exception. No
+     * event is fired if nothing has changed.
+     *
+     * @param changes
+     *            The changes to apply
+     */
+    void runBatch(Runnable changes) {
+        if (batchDepth++ == 0) {
+            batchChanges = new ItemSetChanges<>();
+        }
+        try {
+            changes.run();
+        } finally {
+            if (--batchDepth == 0) {
+                ItemSetChanges<ITEM> changed = batchChanges;
+                batchChanges = null;
+                if (!changed.isEmpty()) {
+                    fireItemSetChanged(changed.toEvent(this));
+                }
+            }
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.vaadin.addon.calendar.ui.CalendarComponentEvents.
+     * ItemSetChangedNotifier #addListener
+     * (org.vaadin.addon.calendar.ui.CalendarComponentEvents.
+     * ItemSetChangedListener )
+     */
+    @Override
+    public void addItemSetChangedListener(ItemSetChangedListener listener) {
+        listeners.add(listener);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.vaadin.addon.calendar.ui.CalendarComponentEvents.
+     * ItemSetChangedNotifier #removeListener
+     * (org.vaadin.addon.calendar.ui.CalendarComponentEvents.
+     * ItemSetChangedListener )
+     */
+    @Override
+    public void removeItemSetChangedListener(ItemSetChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Fires a item set change event. The event is fired when either an item is
+     * added, changed or removed to the provider
+     */
+    protected void fireItemSetChanged() {
+        if (batchDepth > 0) {
+            batchChanges.unspecified();
+            return;
+        }
+
+        fireItemSetChanged(new ItemSetChangedEvent<>(this));
+    }
+
+    /**
+     * Fires a detailed item set change event.
+     *
+     * @param added
+     *            The added items
+     * @param removed
+     *            The removed items
+     * @param modified
+     *            The modified items
+     */
+    protected void fireItemSetChanged(Collection<ITEM> added, Collection<ITEM> removed, Collection<ITEM> modified) {
+        if (batchDepth > 0) {
+            batchChanges.added(added);
+            batchChanges.removed(removed);
+            batchChanges.modified(modified);
+            return;
+        }
+
+        fireItemSetChanged(new ItemSetChangedEvent<>(this, added, removed, modified));
+    }
+
+    private void fireItemSetChanged(ItemSetChangedEvent<ITEM> changeEvent) {
+        for (ItemSetChangedListener listener : listeners) {
+            listener.itemSetChanged(changeEvent);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.vaadin.addon.calendar.event;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>
+ * Item provider which loads its items asynchronously. The Calendar does not
+ * wait for the items while holding the session lock. It shows the days
+ * immediately in a loading state and delivers the items with
+ * {@link com.vaadin.ui.UI#access(Runnable)} once the returned future
+ * completes. With server push enabled, the items are pushed to the browser
+ * right away, otherwise they are sent with the next round trip.
+ * </p>
+ *
+ * <p>
+ * When the visible range changes before a request has completed, the Calendar
+ * cancels the superseded future. Implementations may use this to abort the
+ * backend query.
+ * </p>
+ */
+@FunctionalInterface
+public interface AsyncCalendarItemProvider<ITEM extends CalendarItem> extends CalendarItemProvider<ITEM> {
+
+    /**
+     * Starts loading all items in the target date range between startDate and
+     * endDate. See {@link CalendarItemProvider#getItems(Date, Date)} for the
+     * range that is queried.
+     *
+     * @param startDate
+     *            Start date
+     * @param endDate
+     *            End date
+     * @return Future completed with the list of items
+     */
+    CompletableFuture<List<ITEM>> getItemsAsync(Date startDate, Date endDate);
+
+    /**
+     * Loads the items synchronously by waiting for
+     * {@link #getItemsAsync(Date, Date)} to complete.
+     */
+    @Override
+    default List<ITEM> getItems(Date startDate, Date endDate) {
+        return getItemsAsync(startDate, endDate).join();
+    }
+}
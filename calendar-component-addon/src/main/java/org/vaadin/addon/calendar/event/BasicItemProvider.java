@@ -17,8 +17,12 @@ package org.vaadin.addon.calendar.event;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * <p>
@@ -34,15 +38,13 @@ import java.util.List;
  */
 @SuppressWarnings("serial")
 
-public class BasicItemProvider<ITEM extends BasicItem> implements
-        CalendarEditableItemProvider<ITEM>,
+public class BasicItemProvider<ITEM extends BasicItem> extends AbstractItemProvider<ITEM>
+        implements CalendarEditableItemProvider<ITEM>,
         CalendarItemProvider.ItemSetChangedNotifier,
         EditableCalendarItem.ItemChangeListener {
 
     protected List<ITEM> itemList = new ArrayList<>();
 
-    private List<ItemSetChangedListener> listeners = new ArrayList<>();
-
     /*
      * (non-Javadoc)
      *
@@ -85,44 +87,6 @@ public class BasicItemProvider<ITEM extends BasicItem> implements
         return itemList.contains(item);
     }
 
-    /*
-     * (non-Javadoc)
-     *
-     * @see org.vaadin.addon.calendar.ui.CalendarComponentEvents.
-     * ItemSetChangedNotifier #addListener
-     * (org.vaadin.addon.calendar.ui.CalendarComponentEvents.
-     * ItemSetChangedListener )
-     */
-    @Override
-    public void addItemSetChangedListener(ItemSetChangedListener listener) {
-        listeners.add(listener);
-
-    }
-
-    /*
-     * (non-Javadoc)
-     *
-     * @see org.vaadin.addon.calendar.ui.CalendarComponentEvents.
-     * ItemSetChangedNotifier #removeListener
-     * (org.vaadin.addon.calendar.ui.CalendarComponentEvents.
-     * ItemSetChangedListener )
-     */
-    @Override
-    public void removeItemSetChangedListener(ItemSetChangedListener listener) {
-        listeners.remove(listener);
-    }
-
-    /**
-     * Fires a eventsetchange event. The event is fired when either an event is
-     * added or removed to the event provider
-     */
-    protected void fireItemSetChanged() {
-        ItemSetChangedEvent<ITEM> changeEvent = new ItemSetChangedEvent<>(this);
-        for (ItemSetChangedListener listener : listeners) {
-            listener.itemSetChanged(changeEvent);
-        }
-    }
-
     /*
      * (non-Javadoc)
      *
@@ -132,9 +96,11 @@ public class BasicItemProvider<ITEM extends BasicItem> implements
      * (org.vaadin.addon.calendar.ui.CalendarComponentEvents.EventSetChange)
      */
     @Override
+    @SuppressWarnings("unchecked")
     public void itemChanged(EditableCalendarItem.ItemChangedEvent changedEvent) {
-        // naive implementation
-        fireItemSetChanged();
+        ITEM item = (ITEM) changedEvent.getCalendarEvent();
+        fireItemSetChanged(Collections.emptyList(), Collections.emptyList(),
+                Collections.singletonList(item));
     }
 
     /*
@@ -150,7 +116,8 @@ public class BasicItemProvider<ITEM extends BasicItem> implements
 
         item.getNotifier().addListener(this);
 
-        fireItemSetChanged();
+        fireItemSetChanged(Collections.singletonList(item), Collections.emptyList(),
+                Collections.emptyList());
     }
 
     /*
@@ -162,11 +129,14 @@ public class BasicItemProvider<ITEM extends BasicItem> implements
          */
     @Override
     public void removeItem(ITEM item) {
-        itemList.remove(item);
+        if (!itemList.remove(item)) {
+            return;
+        }
 
         item.getNotifier().removeListener(this);
 
-        fireItemSetChanged();
+        fireItemSetChanged(Collections.emptyList(), Collections.singletonList(item),
+                Collections.emptyList());
     }
 
     public void setItems(Collection<ITEM> items) {
@@ -176,6 +146,48 @@ public class BasicItemProvider<ITEM extends BasicItem> implements
             item.getNotifier().addListener(this);
         }
 
-        fireItemSetChanged();
+        fireItemSetChanged(new ArrayList<>(items), Collections.emptyList(),
+                Collections.emptyList());
+    }
+
+    @Override
+    public void removeItems(Collection<ITEM> items) {
+        Set<ITEM> toRemove = Collections.newSetFromMap(new IdentityHashMap<>());
+        toRemove.addAll(items);
+
+        List<ITEM> removed = new ArrayList<>();
+        itemList.removeIf(item -> toRemove.contains(item) && removed.add(item));
+
+        if (!removed.isEmpty()) {
+            for (ITEM item : removed) {
+                item.getNotifier().removeListener(this);
+            }
+            fireItemSetChanged(Collections.emptyList(), removed, Collections.emptyList());
+        }
+    }
+
+    /**
+     * <p>
+     * Applies a set of changes to this provider and fires a single item set
+     * change event at the end, instead of one for each added, removed or
+     * changed item. No event is fired if nothing has changed.
+     * </p>
+     *
+     * <p>
+     * Batches can be nested, the event is fired when the outermost batch
+     * completes, even if the changes throw an exception.
+     * </p>
+     *
+     * @param changes
+     *            The changes to apply, e.g. adding items or moving them with
+     *            their setters
+     */
+    public void batch(Consumer<? super BasicItemProvider<ITEM>> changes) {
+        runBatch(() -> changes.accept(this));
+    }
+
+    @Override
+    Collection<ITEM> getAllItems() {
+        return itemList;
     }
 }
@@ -0,0 +1,472 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.vaadin.addon.calendar.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.vaadin.server.VaadinSession;
+
+/**
+ * <p>
+ * Item provider which caches the results of another provider in day buckets.
+ * A query only reaches the wrapped provider for the days that are not cached
+ * yet, and the missing days are loaded with a single query. When the cache
+ * grows beyond {@link #getMaxCachedItems()} entries, the least recently used
+ * days are evicted.
+ * </p>
+ *
+ * <p>
+ * If the wrapped provider is an {@link ItemSetChangedNotifier}, the cache is
+ * cleared on each {@link ItemSetChangedEvent} and the event is passed on to
+ * the listeners of this provider. A detailed event only clears the days of
+ * the affected items. Other changes must be signalled with
+ * {@link #invalidate()} or {@link #invalidate(Date, Date)}.
+ * </p>
+ *
+ * <p>
+ * When an {@link Executor} is given, the ranges before and after each
+ * queried range are loaded in the background, so navigating with the forward
+ * and backward handlers is served from memory. The wrapped provider must then
+ * be safe to query from another thread, unless
+ * {@link #setPrefetchInSession(boolean)} is enabled. The executor is not
+ * serialized, a deserialized provider no longer prefetches.
+ * </p>
+ */
+@SuppressWarnings("serial")
+public class CachingItemProvider<ITEM extends CalendarItem> implements
+        CalendarItemProvider<ITEM>,
+        CalendarItemProvider.ItemSetChangedNotifier,
+        CalendarItemProvider.ItemSetChangedListener {
+
+    private static final long DAY_IN_MILLIS = 24 * 60 * 60 * 1000L;
+
+    /** Default for the maximum number of cached item entries. */
+    public static final int DEFAULT_MAX_CACHED_ITEMS = 10000;
+
+    private final CalendarItemProvider<ITEM> provider;
+
+    private transient Executor prefetchExecutor;
+
+    private transient LinkedHashMap<Long, List<ITEM>> buckets;
+
+    private transient Set<Long> prefetching;
+
+    private transient int cachedItems;
+
+    private int maxCachedItems = DEFAULT_MAX_CACHED_ITEMS;
+
+    private boolean prefetchInSession;
+
+    /** Incremented on invalidation, so outdated loads are dropped. */
+    private long generation;
+
+    private List<ItemSetChangedListener> listeners = new ArrayList<>();
+
+    /**
+     * Creates a cache for the given provider without prefetching.
+     *
+     * @param provider
+     *            The provider whose items are cached
+     */
+    public CachingItemProvider(CalendarItemProvider<ITEM> provider) {
+        this(provider, null);
+    }
+
+    /**
+     * Creates a cache for the given provider which prefetches the adjacent
+     * ranges with the given executor.
+     *
+     * @param provider
+     *            The provider whose items are cached
+     * @param prefetchExecutor
+     *            Executor for loading adjacent ranges, or null to disable
+     *            prefetching
+     */
+    public CachingItemProvider(CalendarItemProvider<ITEM> provider, Executor prefetchExecutor) {
+        if (provider == null) {
+            throw new IllegalArgumentException("Provider can not be null");
+        }
+        this.provider = provider;
+        this.prefetchExecutor = prefetchExecutor;
+
+        if (provider instanceof ItemSetChangedNotifier) {
+            ((ItemSetChangedNotifier) provider).addItemSetChangedListener(this);
+        }
+    }
+
+    /**
+     * @return the provider whose items are cached
+     */
+    public CalendarItemProvider<ITEM> getProvider() {
+        return provider;
+    }
+
+    /**
+     * Sets the maximum number of cached item entries. An item spanning
+     * several days takes one entry for each day, and each cached day takes one
+     * entry of its own.
+     *
+     * @param maxCachedItems
+     *            The maximum number of entries
+     */
+    public void setMaxCachedItems(int maxCachedItems) {
+        if (maxCachedItems < 0) {
+            throw new IllegalArgumentException("Maximum can not be negative");
+        }
+        synchronized (this) {
+            this.maxCachedItems = maxCachedItems;
+            evict();
+        }
+    }
+
+    /**
+     * @return the maximum number of cached item entries
+     */
+    public int getMaxCachedItems() {
+        return maxCachedItems;
+    }
+
+    /**
+     * Sets whether a background load queries the wrapped provider while
+     * holding the lock of the {@link VaadinSession} whose query started it.
+     * Only enable this for a provider which needs a Vaadin context, as the
+     * requests of that session wait for the load to complete. Disabled by
+     * default.
+     *
+     * @param prefetchInSession
+     *            true to prefetch with the session locked
+     */
+    public void setPrefetchInSession(boolean prefetchInSession) {
+        this.prefetchInSession = prefetchInSession;
+    }
+
+    /**
+     * @return true if background loads lock the session which started them
+     */
+    public boolean isPrefetchInSession() {
+        return prefetchInSession;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.vaadin.addon.calendar.event.CalendarItemProvider#getItems(java.
+     * util.Date, java.util.Date)
+     */
+    @Override
+    public List<ITEM> getItems(Date startDate, Date endDate) {
+        long from = startDate.getTime();
+        long to = endDate.getTime();
+
+        List<ITEM> result = collect(from, to);
+        if (result == null) {
+            load(bucketOf(from), bucketOf(to));
+            result = collect(from, to);
+            if (result == null) {
+                // evicted or invalidated right away, answer uncached
+                result = new ArrayList<>(provider.getItems(startDate, endDate));
+            }
+        }
+
+        if (prefetchExecutor != null) {
+            long length = to - from + 1;
+            prefetch(from - length, from - 1);
+            prefetch(to + 1, to + length);
+        }
+
+        return result;
+    }
+
+    /**
+     * Clears all cached items.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        buckets = null;
+        prefetching = null;
+        cachedItems = 0;
+    }
+
+    /**
+     * Clears the cached items of all days overlapping the given range.
+     *
+     * @param startDate
+     *            Start date
+     * @param endDate
+     *            End date
+     */
+    public synchronized void invalidate(Date startDate, Date endDate) {
+        generation++;
+        if (buckets == null) {
+            return;
+        }
+        long last = bucketOf(endDate.getTime());
+        for (long bucket = bucketOf(startDate.getTime()); bucket <= last; bucket++) {
+            List<ITEM> removed = buckets.remove(bucket);
+            if (removed != null) {
+                cachedItems -= weightOf(removed);
+            }
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.vaadin.addon.calendar.event.CalendarItemProvider.
+     * ItemSetChangedListener#itemSetChanged(org.vaadin.addon.calendar.event.
+     * CalendarItemProvider.ItemSetChangedEvent)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void itemSetChanged(ItemSetChangedEvent changeEvent) {
+        if (!changeEvent.isDetailed()) {
+            invalidate();
+            fireItemSetChanged(new ItemSetChangedEvent<>(this));
+            return;
+        }
+
+        // a modified item still cached in its old days is filtered by its
+        // current dates, only the days it has moved to need to be reloaded
+        if (changeEvent.getStart() != null) {
+            invalidate(changeEvent.getStart(), changeEvent.getEnd());
+        }
+        fireItemSetChanged(new ItemSetChangedEvent<>(this, changeEvent.getAddedItems(),
+                changeEvent.getRemovedItems(), changeEvent.getModifiedItems()));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.vaadin.addon.calendar.ui.CalendarComponentEvents.
+     * ItemSetChangedNotifier #addListener
+     * (org.vaadin.addon.calendar.ui.CalendarComponentEvents.
+     * ItemSetChangedListener )
+     */
+    @Override
+    public void addItemSetChangedListener(ItemSetChangedListener listener) {
+        listeners.add(listener);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.vaadin.addon.calendar.ui.CalendarComponentEvents.
+     * ItemSetChangedNotifier #removeListener
+     * (org.vaadin.addon.calendar.ui.CalendarComponentEvents.
+     * ItemSetChangedListener )
+     */
+    @Override
+    public void removeItemSetChangedListener(ItemSetChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Fires a item set change event.
+     *
+     * @param changeEvent
+     *            The event to fire
+     */
+    protected void fireItemSetChanged(ItemSetChangedEvent<ITEM> changeEvent) {
+        for (ItemSetChangedListener listener : listeners) {
+            listener.itemSetChanged(changeEvent);
+        }
+    }
+
+    /**
+     * Gets the cached items overlapping the range.
+     *
+     * @return the items or null if some day of the range is not cached
+     */
+    private synchronized List<ITEM> collect(long from, long to) {
+        if (buckets == null) {
+            return null;
+        }
+
+        long first = bucketOf(from);
+        long last = bucketOf(to);
+        for (long bucket = first; bucket <= last; bucket++) {
+            if (!buckets.containsKey(bucket)) {
+                return null;
+            }
+        }
+
+        List<ITEM> result = new ArrayList<>();
+        Set<ITEM> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (long bucket = first; bucket <= last; bucket++) {
+            for (ITEM item : buckets.get(bucket)) {
+                if (item.getStart().getTime() <= to && item.getEnd().getTime() >= from
+                        && seen.add(item)) {
+                    result.add(item);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Loads all days between the first and last bucket which are not cached,
+     * with a single query to the wrapped provider.
+     */
+    private void load(long first, long last) {
+        long generationAtStart;
+        synchronized (this) {
+            if (buckets != null) {
+                while (first <= last && buckets.containsKey(first)) {
+                    first++;
+                }
+                while (last >= first && buckets.containsKey(last)) {
+                    last--;
+                }
+            }
+            if (first > last) {
+                return;
+            }
+            generationAtStart = generation;
+        }
+
+        List<ITEM> loaded = provider.getItems(new Date(first * DAY_IN_MILLIS),
+                new Date((last + 1) * DAY_IN_MILLIS - 1));
+
+        Map<Long, List<ITEM>> filled = new LinkedHashMap<>();
+        for (long bucket = first; bucket <= last; bucket++) {
+            filled.put(bucket, new ArrayList<>());
+        }
+        for (ITEM item : loaded) {
+            if (item.getStart() == null || item.getEnd() == null) {
+                continue;
+            }
+            long firstOfItem = Math.max(first, bucketOf(item.getStart().getTime()));
+            long lastOfItem = Math.min(last, bucketOf(item.getEnd().getTime()));
+            for (long bucket = firstOfItem; bucket <= lastOfItem; bucket++) {
+                filled.get(bucket).add(item);
+            }
+        }
+
+        synchronized (this) {
+            if (generation != generationAtStart) {
+                return;
+            }
+            for (Map.Entry<Long, List<ITEM>> entry : filled.entrySet()) {
+                List<ITEM> replaced = buckets().put(entry.getKey(), entry.getValue());
+                if (replaced != null) {
+                    cachedItems -= weightOf(replaced);
+                }
+                cachedItems += weightOf(entry.getValue());
+            }
+            evict();
+        }
+    }
+
+    private void prefetch(long from, long to) {
+        final long first = bucketOf(from);
+        final long last = bucketOf(to);
+
+        synchronized (this) {
+            boolean cached = buckets != null;
+            for (long bucket = first; cached && bucket <= last; bucket++) {
+                cached = buckets.containsKey(bucket);
+            }
+            if (cached || !prefetching().add(first)) {
+                return;
+            }
+        }
+
+        final VaadinSession session = prefetchInSession ? VaadinSession.getCurrent() : null;
+        try {
+            prefetchExecutor.execute(() -> {
+                try {
+                    if (session != null) {
+                        session.accessSynchronously(() -> load(first, last));
+                    } else {
+                        load(first, last);
+                    }
+                } catch (RuntimeException e) {
+                    getLogger().log(Level.WARNING, "Prefetching calendar items failed", e);
+                } finally {
+                    synchronized (this) {
+                        if (prefetching != null) {
+                            prefetching.remove(first);
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                if (prefetching != null) {
+                    prefetching.remove(first);
+                }
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used days until the cache fits the bound.
+     */
+    private void evict() {
+        if (buckets == null) {
+            return;
+        }
+        Iterator<List<ITEM>> it = buckets.values().iterator();
+        while (cachedItems > maxCachedItems && it.hasNext()) {
+            cachedItems -= weightOf(it.next());
+            it.remove();
+        }
+    }
+
+    private LinkedHashMap<Long, List<ITEM>> buckets() {
+        if (buckets == null) {
+            buckets = new LinkedHashMap<>(16, 0.75f, true);
+        }
+        return buckets;
+    }
+
+    private Set<Long> prefetching() {
+        if (prefetching == null) {
+            prefetching = new HashSet<>();
+        }
+        return prefetching;
+    }
+
+    /**
+     * Each day takes one entry in addition to its items, so empty days are
+     * bounded as well.
+     */
+    private static int weightOf(List<?> bucket) {
+        return bucket.size() + 1;
+    }
+
+    private static long bucketOf(long time) {
+        return Math.floorDiv(time, DAY_IN_MILLIS);
+    }
+
+    private static Logger getLogger() {
+        return Logger.getLogger(CachingItemProvider.class.getName());
+    }
+}
@@ -16,6 +16,8 @@
 package org.vaadin.addon.calendar.event;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -54,17 +56,82 @@ public interface CalendarItemProvider<ITEM extends CalendarItem> extends Seriali
     List<ITEM> getItems(Date startDate, Date endDate);
 
     /**
+     * <p>
      * Item to signal that the set of items has changed and the calendar
      * should refresh its view from the CalendarItemProvider.
+     * </p>
      *
+     * <p>
+     * A detailed event names the added, removed and modified items, so a
+     * calendar can ignore changes outside its visible range and update only
+     * the affected items. An event without details means that anything may
+     * have changed.
+     * </p>
      */
     @SuppressWarnings("serial")
     class ItemSetChangedEvent<EVENT extends CalendarItem> implements Serializable {
 
         private CalendarItemProvider<EVENT> source;
 
+        private final Collection<EVENT> addedItems;
+        private final Collection<EVENT> removedItems;
+        private final Collection<EVENT> modifiedItems;
+
+        private Date start;
+        private Date end;
+
+        /**
+         * Creates an event without details.
+         *
+         * @param source
+         *            The provider that has changed
+         */
         public ItemSetChangedEvent(CalendarItemProvider<EVENT> source) {
             this.source = source;
+            this.addedItems = null;
+            this.removedItems = null;
+            this.modifiedItems = null;
+        }
+
+        /**
+         * Creates a detailed event. The affected date range is computed from
+         * the current dates of the given items. A modified item must still be
+         * reported even if it has been moved out of the range it was in.
+         *
+         * @param source
+         *            The provider that has changed
+         * @param addedItems
+         *            Items added to the provider
+         * @param removedItems
+         *            Items removed from the provider
+         * @param modifiedItems
+         *            Items whose data has changed
+         */
+        public ItemSetChangedEvent(CalendarItemProvider<EVENT> source,
+                Collection<EVENT> addedItems, Collection<EVENT> removedItems,
+                Collection<EVENT> modifiedItems) {
+            this.source = source;
+            this.addedItems = addedItems == null ? Collections.emptyList() : addedItems;
+            this.removedItems = removedItems == null ? Collections.emptyList() : removedItems;
+            this.modifiedItems = modifiedItems == null ? Collections.emptyList() : modifiedItems;
+
+            includeInRange(this.addedItems);
+            includeInRange(this.removedItems);
+            includeInRange(this.modifiedItems);
+        }
+
+        private void includeInRange(Collection<EVENT> items) {
+            for (EVENT item : items) {
+                if (item.getStart() == null || item.getEnd() == null) {
+                    continue;
+                }
+                if (start == null || item.getStart().before(start)) {
+                    start = item.getStart();
+                }
+                if (end == null || item.getEnd().after(end)) {
+                    end = item.getEnd();
+                }
+            }
         }
 
         /**
@@ -73,6 +140,66 @@ public interface CalendarItemProvider<ITEM extends CalendarItem> extends Seriali
         public CalendarItemProvider<EVENT> getProvider() {
             return source;
         }
+
+        /**
+         * @return true if the event names the changed items, false if anything
+         *         may have changed
+         */
+        public boolean isDetailed() {
+            return addedItems != null;
+        }
+
+        /**
+         * @return the added items, empty if the event is not detailed
+         */
+        public Collection<EVENT> getAddedItems() {
+            return addedItems == null ? Collections.emptyList() : addedItems;
+        }
+
+        /**
+         * @return the removed items, empty if the event is not detailed
+         */
+        public Collection<EVENT> getRemovedItems() {
+            return removedItems == null ? Collections.emptyList() : removedItems;
+        }
+
+        /**
+         * @return the modified items, empty if the event is not detailed
+         */
+        public Collection<EVENT> getModifiedItems() {
+            return modifiedItems == null ? Collections.emptyList() : modifiedItems;
+        }
+
+        /**
+         * @return the earliest start of the affected items, or null if unknown
+         */
+        public Date getStart() {
+            return start;
+        }
+
+        /**
+         * @return the latest end of the affected items, or null if unknown
+         */
+        public Date getEnd() {
+            return end;
+        }
+
+        /**
+         * Checks whether the change may affect items in the given range.
+         *
+         * @param startDate
+         *            Start date
+         * @param endDate
+         *            End date
+         * @return false only if the event is detailed and none of the
+         *         affected items overlaps the range
+         */
+        public boolean intersects(Date startDate, Date endDate) {
+            if (!isDetailed()) {
+                return true;
+            }
+            return start != null && !start.after(endDate) && !end.before(startDate);
+        }
     }
 
     /**
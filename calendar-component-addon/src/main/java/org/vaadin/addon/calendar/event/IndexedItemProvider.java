@@ -0,0 +1,381 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.vaadin.addon.calendar.event;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * Item provider which keeps its items in an interval tree, ordered by start
+ * date and augmented with the maximum end date of each subtree. Range queries
+ * prune every subtree which cannot overlap the requested range and thus run in
+ * O(log n + k) instead of scanning all items like {@link BasicItemProvider}
+ * does.
+ * </p>
+ *
+ * <p>
+ * The index is updated incrementally when items are added, removed or changed,
+ * so the provider can be used as a drop-in replacement for
+ * {@link BasicItemProvider} with large item sets. Items without a start or end
+ * date are held, but never returned by {@link #getItems(Date, Date)}.
+ * </p>
+ */
+@SuppressWarnings("serial")
+public class IndexedItemProvider<ITEM extends BasicItem> extends AbstractItemProvider<ITEM>
+        implements CalendarEditableItemProvider<ITEM>,
+        CalendarItemProvider.ItemSetChangedNotifier,
+        EditableCalendarItem.ItemChangeListener {
+
+    private final Map<ITEM, Node<ITEM>> nodes = new IdentityHashMap<>();
+
+    private final Random priorities = new Random();
+
+    private Node<ITEM> root;
+
+    private long sequence;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.vaadin.addon.calendar.event.CalendarItemProvider#getItems(java.
+     * util.Date, java.util.Date)
+     */
+    @Override
+    public List<ITEM> getItems(Date startDate, Date endDate) {
+        List<ITEM> activeItems = new ArrayList<>();
+        collect(root, startDate.getTime(), endDate.getTime(), activeItems);
+        return activeItems;
+    }
+
+    /**
+     * Does this provider contain the given item
+     *
+     * @param item
+     *            The item to check for
+     * @return true if the item has been added to this provider, else false
+     */
+    public boolean containsItem(ITEM item) {
+        return nodes.containsKey(item);
+    }
+
+    /**
+     * @return the number of items held by this provider
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.vaadin.addon.calendar.event.CalendarEditableItemProvider#addItem
+     * (org.vaadin.addon.calendar.event.CalendarItem)
+     */
+    @Override
+    public void addItem(ITEM item) {
+        if (index(item)) {
+            fireItemSetChanged(Collections.singletonList(item), Collections.emptyList(),
+                    Collections.emptyList());
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.vaadin.addon.calendar.event.CalendarEditableItemProvider#removeItem
+     * (org.vaadin.addon.calendar.event.CalendarItem)
+     */
+    @Override
+    public void removeItem(ITEM item) {
+        if (!nodes.containsKey(item)) {
+            return;
+        }
+
+        unlink(nodes.remove(item));
+        item.getNotifier().removeListener(this);
+
+        fireItemSetChanged(Collections.emptyList(), Collections.singletonList(item),
+                Collections.emptyList());
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.vaadin.addon.calendar.event.CalendarEditableItemProvider#setItems
+     * (java.util.Collection)
+     */
+    @Override
+    public void setItems(Collection<ITEM> items) {
+        List<ITEM> added = new ArrayList<>();
+        for (ITEM item : items) {
+            if (index(item)) {
+                added.add(item);
+            }
+        }
+
+        fireItemSetChanged(added, Collections.emptyList(), Collections.emptyList());
+    }
+
+    @Override
+    public void removeItems(Collection<ITEM> items) {
+        List<ITEM> removed = new ArrayList<>();
+        for (ITEM item : items) {
+            if (nodes.containsKey(item)) {
+                unlink(nodes.remove(item));
+                item.getNotifier().removeListener(this);
+                removed.add(item);
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            fireItemSetChanged(Collections.emptyList(), removed, Collections.emptyList());
+        }
+    }
+
+    /**
+     * Applies a set of changes to this provider and fires a single item set
+     * change event at the end, see
+     * {@link BasicItemProvider#batch(Consumer)}.
+     *
+     * @param changes
+     *            The changes to apply
+     */
+    public void batch(Consumer<? super IndexedItemProvider<ITEM>> changes) {
+        runBatch(() -> changes.accept(this));
+    }
+
+    @Override
+    Collection<ITEM> getAllItems() {
+        return nodes.keySet();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.vaadin.addon.calendar.ui.CalendarComponentEvents.ItemChangeListener
+     * #itemChanged
+     * (org.vaadin.addon.calendar.ui.CalendarComponentEvents.EventSetChange)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void itemChanged(EditableCalendarItem.ItemChangedEvent changedEvent) {
+
+        ITEM item = (ITEM) changedEvent.getCalendarEvent();
+
+        if (!nodes.containsKey(item)) {
+            return;
+        }
+
+        Node<ITEM> node = nodes.get(item);
+
+        // re-key the item only if its interval has moved
+        if (node == null || !node.matches(item)) {
+            unlink(node);
+            nodes.put(item, link(item));
+        }
+
+        fireItemSetChanged(Collections.emptyList(), Collections.emptyList(),
+                Collections.singletonList(item));
+    }
+
+    private boolean index(ITEM item) {
+        if (nodes.containsKey(item)) {
+            return false;
+        }
+
+        nodes.put(item, link(item));
+        item.getNotifier().addListener(this);
+        return true;
+    }
+
+    private Node<ITEM> link(ITEM item) {
+        if (item.getStart() == null || item.getEnd() == null) {
+            return null;
+        }
+
+        Node<ITEM> node = new Node<>(item, sequence++, priorities.nextInt());
+        root = insert(root, node);
+        return node;
+    }
+
+    private void unlink(Node<ITEM> node) {
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    private static <ITEM extends CalendarItem> void collect(Node<ITEM> node, long from, long to, List<ITEM> result) {
+
+        // nothing in this subtree ends after the range starts
+        if (node == null || node.maxEnd < from) {
+            return;
+        }
+
+        collect(node.left, from, to, result);
+
+        // this node and its right subtree start after the range
+        if (node.start > to) {
+            return;
+        }
+
+        if (node.end >= from) {
+            result.add(node.item);
+        }
+
+        collect(node.right, from, to, result);
+    }
+
+    private static <ITEM extends CalendarItem> Node<ITEM> insert(Node<ITEM> tree, Node<ITEM> node) {
+        if (tree == null) {
+            return node;
+        }
+
+        if (node.compareTo(tree) < 0) {
+            tree.left = insert(tree.left, node);
+            if (tree.left.priority > tree.priority) {
+                tree = rotateRight(tree);
+            }
+        } else {
+            tree.right = insert(tree.right, node);
+            if (tree.right.priority > tree.priority) {
+                tree = rotateLeft(tree);
+            }
+        }
+
+        tree.update();
+        return tree;
+    }
+
+    private static <ITEM extends CalendarItem> Node<ITEM> delete(Node<ITEM> tree, Node<ITEM> node) {
+        if (tree == null) {
+            return null;
+        }
+
+        if (tree == node) {
+            return merge(tree.left, tree.right);
+        }
+
+        if (node.compareTo(tree) < 0) {
+            tree.left = delete(tree.left, node);
+        } else {
+            tree.right = delete(tree.right, node);
+        }
+
+        tree.update();
+        return tree;
+    }
+
+    private static <ITEM extends CalendarItem> Node<ITEM> merge(Node<ITEM> left, Node<ITEM> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static <ITEM extends CalendarItem> Node<ITEM> rotateRight(Node<ITEM> tree) {
+        Node<ITEM> pivot = tree.left;
+        tree.left = pivot.right;
+        pivot.right = tree;
+        tree.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static <ITEM extends CalendarItem> Node<ITEM> rotateLeft(Node<ITEM> tree) {
+        Node<ITEM> pivot = tree.right;
+        tree.right = pivot.left;
+        pivot.left = tree;
+        tree.update();
+        pivot.update();
+        return pivot;
+    }
+
+    /**
+     * Tree node holding the interval of an item at the time it was indexed.
+     * Nodes are ordered by start and insertion sequence, so items sharing a
+     * start date keep a stable order.
+     */
+    private static class Node<ITEM extends CalendarItem> implements Comparable<Node<ITEM>>, Serializable {
+
+        final ITEM item;
+        final long start;
+        final long end;
+        final long sequence;
+        final int priority;
+
+        long maxEnd;
+
+        Node<ITEM> left;
+        Node<ITEM> right;
+
+        Node(ITEM item, long sequence, int priority) {
+            this.item = item;
+            this.start = item.getStart().getTime();
+            this.end = item.getEnd().getTime();
+            this.sequence = sequence;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        boolean matches(CalendarItem other) {
+            return other.getStart() != null && other.getEnd() != null
+                    && other.getStart().getTime() == start
+                    && other.getEnd().getTime() == end;
+        }
+
+        void update() {
+            maxEnd = end;
+            if (left != null && left.maxEnd > maxEnd) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd > maxEnd) {
+                maxEnd = right.maxEnd;
+            }
+        }
+
+        @Override
+        public int compareTo(Node<ITEM> other) {
+            int result = Long.compare(start, other.start);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+}
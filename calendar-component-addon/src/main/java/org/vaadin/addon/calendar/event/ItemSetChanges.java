@@ -0,0 +1,86 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.vaadin.addon.calendar.event;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.vaadin.addon.calendar.event.CalendarItemProvider.ItemSetChangedEvent;
+
+/**
+ * Collects the changes of a batch, so a provider can fire a single
+ * {@link ItemSetChangedEvent} for all of them. An item added and removed
+ * within the same batch cancels out.
+ */
+@SuppressWarnings("serial")
+class ItemSetChanges<ITEM extends CalendarItem> implements Serializable {
+
+    private final Set<ITEM> added = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<ITEM> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<ITEM> modified = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private boolean unspecified;
+
+    void added(Collection<ITEM> items) {
+        for (ITEM item : items) {
+            if (removed.remove(item)) {
+                modified.add(item);
+            } else {
+                added.add(item);
+            }
+        }
+    }
+
+    void removed(Collection<ITEM> items) {
+        for (ITEM item : items) {
+            if (!added.remove(item)) {
+                modified.remove(item);
+                removed.add(item);
+            }
+        }
+    }
+
+    void modified(Collection<ITEM> items) {
+        for (ITEM item : items) {
+            if (!added.contains(item)) {
+                modified.add(item);
+            }
+        }
+    }
+
+    /**
+     * Marks the batch as containing changes which are not known in detail.
+     */
+    void unspecified() {
+        unspecified = true;
+    }
+
+    boolean isEmpty() {
+        return !unspecified && added.isEmpty() && removed.isEmpty() && modified.isEmpty();
+    }
+
+    ItemSetChangedEvent<ITEM> toEvent(CalendarItemProvider<ITEM> source) {
+        if (unspecified) {
+            return new ItemSetChangedEvent<>(source);
+        }
+        return new ItemSetChangedEvent<>(source, new ArrayList<>(added),
+                new ArrayList<>(removed), new ArrayList<>(modified));
+    }
+}
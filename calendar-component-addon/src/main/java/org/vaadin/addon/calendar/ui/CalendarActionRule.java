@@ -0,0 +1,175 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.vaadin.addon.calendar.ui;
+
+import com.vaadin.event.Action;
+
+import java.io.Serializable;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Set of actions which apply to a whole interval, e.g. "from 08:00 to 18:00
+ * every weekday" or "between two dates". Rules are returned by a
+ * {@link RangeActionHandler}.
+ */
+@SuppressWarnings("serial")
+public class CalendarActionRule implements Serializable {
+
+    private final Set<DayOfWeek> days;
+
+    private final LocalTime from;
+
+    private final LocalTime to;
+
+    private final Date start;
+
+    private final Date end;
+
+    private final List<Action> actions;
+
+    private CalendarActionRule(Set<DayOfWeek> days, LocalTime from, LocalTime to,
+                               Date start, Date end, Action... actions) {
+        this.days = days;
+        this.from = from;
+        this.to = to;
+        this.start = start;
+        this.end = end;
+        this.actions = Collections.unmodifiableList(Arrays.asList(actions));
+    }
+
+    /**
+     * Creates a rule for all times of all days.
+     *
+     * @param actions
+     *            The actions
+     * @return the rule
+     */
+    public static CalendarActionRule always(Action... actions) {
+        return daily(LocalTime.MIN, LocalTime.MAX, actions);
+    }
+
+    /**
+     * Creates a rule for the same time of every day.
+     *
+     * @param from
+     *            Start time of the day
+     * @param to
+     *            End time of the day, {@link LocalTime#MAX} for the end of
+     *            the day
+     * @param actions
+     *            The actions
+     * @return the rule
+     */
+    public static CalendarActionRule daily(LocalTime from, LocalTime to, Action... actions) {
+        return weekly(EnumSet.allOf(DayOfWeek.class), from, to, actions);
+    }
+
+    /**
+     * Creates a rule for the same time of the given days of the week.
+     *
+     * @param days
+     *            The days of the week
+     * @param from
+     *            Start time of the day
+     * @param to
+     *            End time of the day, {@link LocalTime#MAX} for the end of
+     *            the day
+     * @param actions
+     *            The actions
+     * @return the rule
+     */
+    public static CalendarActionRule weekly(Set<DayOfWeek> days, LocalTime from, LocalTime to,
+                                            Action... actions) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Start time must be before end time");
+        }
+        return new CalendarActionRule(EnumSet.copyOf(days), from, to, null, null, actions);
+    }
+
+    /**
+     * Creates a rule for a fixed interval.
+     *
+     * @param start
+     *            Start date and time
+     * @param end
+     *            End date and time
+     * @param actions
+     *            The actions
+     * @return the rule
+     */
+    public static CalendarActionRule between(Date start, Date end, Action... actions) {
+        if (start == null || end == null || !start.before(end)) {
+            throw new IllegalArgumentException("Start date must be before end date");
+        }
+        return new CalendarActionRule(null, null, null, start, end, actions);
+    }
+
+    /**
+     * @return the actions of this rule
+     */
+    public List<Action> getActions() {
+        return actions;
+    }
+
+    /**
+     * Gets the part of a day this rule applies to.
+     *
+     * @param calendar
+     *            Calendar used for date calculations, set to the start of the
+     *            day. Its time is modified.
+     * @param dayStart
+     *            The start of the day
+     * @param dayEnd
+     *            The end of the day
+     * @return the range or null if the rule does not apply on the day
+     */
+    public CalendarDateRange getRangeOn(Calendar calendar, Date dayStart, Date dayEnd) {
+        if (days == null) {
+            if (start.after(dayEnd) || !end.after(dayStart)) {
+                return null;
+            }
+            return new CalendarDateRange(start.before(dayStart) ? dayStart : start,
+                    end.after(dayEnd) ? dayEnd : end, calendar.getTimeZone());
+        }
+
+        calendar.setTime(dayStart);
+        // java.util.Calendar counts from SUNDAY = 1, java.time from MONDAY = 1
+        int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
+        if (!days.contains(DayOfWeek.of((dayOfWeek + 5) % 7 + 1))) {
+            return null;
+        }
+
+        Date rangeStart = timeOfDay(calendar, dayStart, from);
+        Date rangeEnd = LocalTime.MAX.equals(to) ? dayEnd : timeOfDay(calendar, dayStart, to);
+        return new CalendarDateRange(rangeStart, rangeEnd, calendar.getTimeZone());
+    }
+
+    private static Date timeOfDay(Calendar calendar, Date dayStart, LocalTime time) {
+        calendar.setTime(dayStart);
+        calendar.set(Calendar.HOUR_OF_DAY, time.getHour());
+        calendar.set(Calendar.MINUTE, time.getMinute());
+        calendar.set(Calendar.SECOND, time.getSecond());
+        return calendar.getTime();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.vaadin.addon.calendar.ui;
+
+import com.vaadin.event.Action;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Action handler which describes its actions as rules for whole intervals
+ * instead of answering {@link #getActions(Object, Object)} for each time slot.
+ * The Calendar asks for the rules once per response, so the work scales with
+ * the number of rules rather than with the number of half-hour slots shown.
+ * </p>
+ *
+ * <p>
+ * Selected actions are passed to {@link #handleAction(Action, Object, Object)}
+ * like for any other {@link Action.Handler}.
+ * </p>
+ */
+public interface RangeActionHandler extends Action.Handler {
+
+    /**
+     * Gets the action rules for the shown range.
+     *
+     * @param range
+     *            The shown range
+     * @param sender
+     *            The calendar
+     * @return the rules, may be null if there are no actions
+     */
+    List<CalendarActionRule> getActionRules(CalendarDateRange range, Object sender);
+
+    /**
+     * Not used by the Calendar, which calls
+     * {@link #getActionRules(CalendarDateRange, Object)} instead.
+     */
+    @Override
+    default Action[] getActions(Object target, Object sender) {
+        return null;
+    }
+}
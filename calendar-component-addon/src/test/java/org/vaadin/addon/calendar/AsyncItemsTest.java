@@ -0,0 +1,286 @@
+package org.vaadin.addon.calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.vaadin.addon.calendar.event.AsyncCalendarItemProvider;
+import org.vaadin.addon.calendar.event.BasicItem;
+
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+/**
+ * Checks how the items of an asynchronous provider are requested, delivered
+ * and cancelled.
+ */
+public class AsyncItemsTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private static final long DAY = 24 * HOUR;
+
+    /** Monday 2026-01-05 00:00 UTC. */
+    private static final long MONDAY = 1767571200000L;
+
+    /** Runs the tasks given to {@link #access(Runnable)} when told to. */
+    @SuppressWarnings("serial")
+    private static class QueuingUI extends UI {
+
+        final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+
+        @Override
+        public Future<Void> access(Runnable runnable) {
+            tasks.add(runnable);
+            return null;
+        }
+
+        void runTasks() {
+            List<Runnable> run = new ArrayList<>(tasks);
+            tasks.clear();
+            run.forEach(Runnable::run);
+        }
+    }
+
+    /** A session without a service, locked by the test thread. */
+    @SuppressWarnings("serial")
+    private static class LockedSession extends VaadinSession {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        LockedSession() {
+            super(null);
+        }
+
+        @Override
+        public Lock getLockInstance() {
+            return lock;
+        }
+
+        @Override
+        public boolean hasLock() {
+            return lock.isHeldByCurrentThread();
+        }
+
+        @Override
+        public void unlock() {
+            // there are no access tasks to run without a service
+            lock.unlock();
+        }
+    }
+
+    private final List<CompletableFuture<List<BasicItem>>> requests = new ArrayList<>();
+
+    private final List<LogRecord> warnings = new ArrayList<>();
+
+    private final Handler logHandler = new Handler() {
+
+        @Override
+        public void publish(LogRecord record) {
+            if (record.getLevel() == Level.WARNING) {
+                warnings.add(record);
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private QueuingUI ui;
+
+    private Calendar<BasicItem> calendar;
+
+    private CompletableFuture<List<BasicItem>> next;
+
+    @Before
+    public void setUp() {
+        Logger logger = Logger.getLogger(Calendar.class.getName());
+        logger.addHandler(logHandler);
+        logger.setUseParentHandlers(false);
+
+        ui = new QueuingUI();
+        AsyncCalendarItemProvider<BasicItem> provider = (start, end) -> {
+            CompletableFuture<List<BasicItem>> future = next != null ? next
+                    : new CompletableFuture<>();
+            next = null;
+            requests.add(future);
+            return future;
+        };
+        calendar = new Calendar<>(provider);
+        calendar.setLocale(Locale.US);
+        calendar.setTimeZone(TimeZone.getTimeZone("UTC"));
+        calendar.setStartDate(new Date(MONDAY));
+        calendar.setEndDate(new Date(MONDAY + 6 * DAY));
+        ui.setContent(calendar);
+    }
+
+    @After
+    public void tearDown() {
+        Logger logger = Logger.getLogger(Calendar.class.getName());
+        logger.removeHandler(logHandler);
+        logger.setUseParentHandlers(true);
+    }
+
+    private static List<BasicItem> items(String... captions) {
+        List<BasicItem> items = new ArrayList<>();
+        for (String caption : captions) {
+            items.add(new BasicItem(caption, null, new Date(MONDAY + 9 * HOUR),
+                    new Date(MONDAY + 10 * HOUR)));
+        }
+        return items;
+    }
+
+    private List<String> sentCaptions() {
+        List<String> captions = new ArrayList<>();
+        calendar.getState(false).items.forEach(item -> captions.add(item.caption));
+        return captions;
+    }
+
+    private boolean isLoading() {
+        return calendar.getState(false).itemsLoading;
+    }
+
+    @Test
+    public void completedFutureIsDeliveredInline() {
+        next = CompletableFuture.completedFuture(items("Ready"));
+
+        calendar.beforeClientResponse(true);
+
+        assertEquals(Collections.singletonList("Ready"), sentCaptions());
+        assertFalse(isLoading());
+        assertTrue(ui.tasks.isEmpty());
+    }
+
+    @Test
+    public void pendingFutureIsDeliveredThroughTheUI() {
+        calendar.beforeClientResponse(true);
+
+        assertEquals(Collections.emptyList(), sentCaptions());
+        assertTrue(isLoading());
+
+        requests.get(0).complete(items("Late"));
+        assertEquals(1, ui.tasks.size());
+        ui.runTasks();
+        calendar.beforeClientResponse(false);
+
+        assertEquals(Collections.singletonList("Late"), sentCaptions());
+        assertFalse(isLoading());
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    public void supersededFutureIsIgnored() {
+        calendar.beforeClientResponse(true);
+        CompletableFuture<List<BasicItem>> first = requests.get(0);
+
+        // completes, but the range changes before the UI runs the delivery
+        first.complete(items("Old range"));
+        calendar.setStartDate(new Date(MONDAY + 7 * DAY));
+        calendar.setEndDate(new Date(MONDAY + 13 * DAY));
+        calendar.beforeClientResponse(false);
+        ui.runTasks();
+        calendar.beforeClientResponse(false);
+
+        assertEquals(2, requests.size());
+        assertEquals(Collections.emptyList(), sentCaptions());
+        assertTrue(isLoading());
+
+        requests.get(1).complete(items("New range"));
+        ui.runTasks();
+        calendar.beforeClientResponse(false);
+
+        assertEquals(Collections.singletonList("New range"), sentCaptions());
+        assertFalse(isLoading());
+    }
+
+    @Test
+    public void supersededPendingFutureIsCancelled() {
+        calendar.beforeClientResponse(true);
+        CompletableFuture<List<BasicItem>> first = requests.get(0);
+
+        calendar.setStartDate(new Date(MONDAY + 7 * DAY));
+        calendar.setEndDate(new Date(MONDAY + 13 * DAY));
+        calendar.beforeClientResponse(false);
+        ui.runTasks();
+
+        assertTrue(first.isCancelled());
+        assertTrue(warnings.isEmpty());
+        assertTrue(isLoading());
+    }
+
+    @Test
+    public void failedFutureIsLoggedAndShowsNoItems() {
+        calendar.beforeClientResponse(true);
+
+        requests.get(0).completeExceptionally(new IllegalStateException("backend down"));
+        ui.runTasks();
+        calendar.beforeClientResponse(false);
+
+        assertEquals(1, warnings.size());
+        assertTrue(warnings.get(0).getThrown().getCause() instanceof IllegalStateException);
+        assertEquals(Collections.emptyList(), sentCaptions());
+        assertFalse(isLoading());
+    }
+
+    @Test
+    public void failedCompletedFutureIsLoggedInline() {
+        next = new CompletableFuture<>();
+        next.completeExceptionally(new IllegalStateException("backend down"));
+
+        calendar.beforeClientResponse(true);
+
+        assertEquals(1, warnings.size());
+        assertEquals(Collections.emptyList(), sentCaptions());
+        assertFalse(isLoading());
+    }
+
+    @Test
+    public void detachCancelsThePendingFuture() {
+        VaadinSession session = new LockedSession();
+        session.lock();
+        try {
+            ui.setSession(session);
+            ui.attach();
+            calendar.beforeClientResponse(true);
+            CompletableFuture<List<BasicItem>> pending = requests.get(0);
+
+            ui.setContent(null);
+            ui.runTasks();
+
+            assertFalse(calendar.isAttached());
+            assertTrue(pending.isCancelled());
+            assertTrue(warnings.isEmpty());
+            assertEquals(1, requests.size());
+        } finally {
+            session.unlock();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.vaadin.addon.calendar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+
+import org.junit.Test;
+import org.vaadin.addon.calendar.client.ui.schedule.CalendarDay;
+
+public class BlockedTimesTest {
+
+    /** A Monday. */
+    private static final LocalDate MONDAY = LocalDate.of(2026, 1, 5);
+
+    private static final LocalDate TUESDAY = MONDAY.plusDays(1);
+
+    private static void assertBlocked(int[] slots, int from, int to, int slotCount) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            assertEquals("slot " + slot, slot >= from && slot < to,
+                    CalendarDay.isBlocked(slots, slot));
+        }
+    }
+
+    @Test
+    public void nothingBlocked() {
+        BlockedTimes times = new BlockedTimes();
+
+        assertTrue(times.isEmpty());
+        assertNull(times.getBlockedSlots(MONDAY));
+        assertFalse(CalendarDay.isBlocked(null, 0));
+    }
+
+    @Test
+    public void weeklyRuleAppliesToItsDaysOnly() {
+        BlockedTimes times = new BlockedTimes();
+        times.block(EnumSet.of(DayOfWeek.MONDAY), 12 * 60, 13 * 60);
+
+        assertBlocked(times.getBlockedSlots(MONDAY), 24, 26, 48);
+        assertBlocked(times.getBlockedSlots(MONDAY.plusWeeks(3)), 24, 26, 48);
+        assertNull(times.getBlockedSlots(TUESDAY));
+    }
+
+    @Test
+    public void dayBlocksAddToTheWeeklyRules() {
+        BlockedTimes times = new BlockedTimes();
+        times.block(EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY), 9 * 60, 10 * 60);
+        times.block(MONDAY, 10 * 60, 11 * 60);
+
+        assertBlocked(times.getBlockedSlots(MONDAY), 18, 22, 48);
+        assertBlocked(times.getBlockedSlots(TUESDAY), 18, 20, 48);
+    }
+
+    @Test
+    public void clearDayKeepsTheWeeklyRules() {
+        BlockedTimes times = new BlockedTimes();
+        times.block(EnumSet.of(DayOfWeek.MONDAY), 9 * 60, 10 * 60);
+        times.block(MONDAY, 14 * 60, 15 * 60);
+        times.block(TUESDAY, 14 * 60, 15 * 60);
+
+        times.clear(MONDAY);
+
+        assertBlocked(times.getBlockedSlots(MONDAY), 18, 20, 48);
+        assertBlocked(times.getBlockedSlots(TUESDAY), 28, 30, 48);
+
+        times.clear();
+        assertTrue(times.isEmpty());
+        assertNull(times.getBlockedSlots(MONDAY));
+    }
+
+    @Test
+    public void partlyBlockedSlotIsBlocked() {
+        BlockedTimes times = new BlockedTimes();
+        times.block(MONDAY, 9 * 60 + 29, 9 * 60 + 31);
+
+        assertBlocked(times.getBlockedSlots(MONDAY), 18, 20, 48);
+    }
+
+    @Test
+    public void granularities() {
+        for (int minutes : new int[] { 5, 10, 15, 30 }) {
+            BlockedTimes times = new BlockedTimes();
+            times.setSlotMinutes(minutes);
+            times.block(MONDAY, 60, 90);
+
+            assertBlocked(times.getBlockedSlots(MONDAY), 60 / minutes, 90 / minutes,
+                    BlockedTimes.MINUTES_PER_DAY / minutes);
+        }
+    }
+
+    @Test
+    public void invalidGranularitiesAreRejected() {
+        BlockedTimes times = new BlockedTimes();
+        for (int minutes : new int[] { 0, -5, 7, 20, 45, 60 }) {
+            try {
+                times.setSlotMinutes(minutes);
+                fail("accepted " + minutes);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        assertEquals(30, times.getSlotMinutes());
+    }
+
+    @Test
+    public void calendarValidatesTheGranularity() {
+        Calendar<?> calendar = new Calendar<>();
+        calendar.setTimeBlockGranularity(15);
+        assertEquals(15, calendar.getTimeBlockGranularity());
+
+        try {
+            calendar.setTimeBlockGranularity(25);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(15, calendar.getTimeBlockGranularity());
+        }
+    }
+
+    @Test
+    public void wordBoundaries() {
+        BlockedTimes times = new BlockedTimes();
+        times.setSlotMinutes(5);
+        // slots 31 and 32, and slots 63 and 64
+        times.block(MONDAY, 31 * 5, 33 * 5);
+        times.block(MONDAY, 63 * 5, 65 * 5);
+
+        int[] slots = times.getBlockedSlots(MONDAY);
+
+        assertArrayEquals(new int[] { 1 << 31, 1 | 1 << 31, 1 }, slots);
+        assertBlocked(slots, 31, 33, 63);
+        assertTrue(CalendarDay.isBlocked(slots, 63));
+        assertTrue(CalendarDay.isBlocked(slots, 64));
+        assertFalse(CalendarDay.isBlocked(slots, 65));
+        // words after the last blocked slot are not sent
+        assertFalse(CalendarDay.isBlocked(slots, 200));
+    }
+
+    @Test
+    public void endOfDay() {
+        BlockedTimes times = new BlockedTimes();
+        times.setSlotMinutes(5);
+        times.block(MONDAY, 23 * 60 + 55, BlockedTimes.toMinute(LocalTime.MAX));
+
+        int[] slots = times.getBlockedSlots(MONDAY);
+
+        assertEquals(9, slots.length);
+        assertBlocked(slots, 287, 288, 288);
+        assertEquals(BlockedTimes.MINUTES_PER_DAY, BlockedTimes.toMinute(LocalTime.MAX));
+        assertEquals(9 * 60 + 30, BlockedTimes.toMinute(LocalTime.of(9, 30, 59)));
+    }
+}
@@ -0,0 +1,230 @@
+package org.vaadin.addon.calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.vaadin.addon.calendar.client.CalendarState;
+import org.vaadin.addon.calendar.event.BasicItem;
+import org.vaadin.addon.calendar.event.BasicItemProvider;
+
+import com.vaadin.server.ClientMethodInvocation;
+
+/**
+ * Runs the server side of the item synchronization and checks which items
+ * end up in the state and in {@code updateItems} calls.
+ */
+public class ItemDeltaSyncTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private static final long DAY = 24 * HOUR;
+
+    /** Monday 2026-01-05 00:00 UTC. */
+    private static final long MONDAY = 1767571200000L;
+
+    private BasicItemProvider<BasicItem> provider;
+
+    private Calendar<BasicItem> calendar;
+
+    private BasicItem first;
+
+    private BasicItem second;
+
+    @Before
+    public void setUp() {
+        first = item("First", 0, 9);
+        second = item("Second", 1, 9);
+        provider = new BasicItemProvider<>();
+        provider.addItems(Arrays.asList(first, second));
+
+        calendar = new Calendar<>(provider);
+        calendar.setLocale(Locale.US);
+        calendar.setTimeZone(TimeZone.getTimeZone("UTC"));
+        calendar.setStartDate(new Date(MONDAY));
+        calendar.setEndDate(new Date(MONDAY + 6 * DAY));
+        calendar.setItemDeltaSync(true);
+
+        calendar.beforeClientResponse(true);
+        calendar.retrievePendingRpcCalls();
+    }
+
+    private static BasicItem item(String caption, int day, int hour) {
+        return new BasicItem(caption, null, new Date(MONDAY + day * DAY + hour * HOUR),
+                new Date(MONDAY + day * DAY + (hour + 1) * HOUR));
+    }
+
+    private String keyOf(String caption) {
+        for (CalendarState.Item item : calendar.getState(false).items) {
+            if (caption.equals(item.caption)) {
+                return item.key;
+            }
+        }
+        throw new AssertionError(caption + " was not sent");
+    }
+
+    /**
+     * Sends the next response and returns the parameters of the single
+     * {@code updateItems} call.
+     */
+    private Object[] respondWithDelta() {
+        List<CalendarState.Item> stateItems = calendar.getState(false).items;
+        int revision = calendar.getState(false).itemsRevision;
+
+        calendar.beforeClientResponse(false);
+
+        List<Object[]> updates = updateCalls();
+        assertEquals(1, updates.size());
+        assertTrue(stateItems == calendar.getState(false).items);
+        assertEquals(revision, calendar.getState(false).itemsRevision);
+        return updates.get(0);
+    }
+
+    /**
+     * Sends the next response and checks that all items were sent in the
+     * state instead.
+     */
+    private void respondWithFullSync() {
+        List<CalendarState.Item> stateItems = calendar.getState(false).items;
+        int revision = calendar.getState(false).itemsRevision;
+
+        calendar.beforeClientResponse(false);
+
+        assertEquals(Collections.emptyList(), updateCalls());
+        assertTrue(stateItems != calendar.getState(false).items
+                || calendar.getState(false).itemColumns != null);
+        assertEquals(revision + 1, calendar.getState(false).itemsRevision);
+    }
+
+    private List<Object[]> updateCalls() {
+        List<Object[]> updates = new ArrayList<>();
+        for (ClientMethodInvocation call : calendar.retrievePendingRpcCalls()) {
+            if ("updateItems".equals(call.getMethodName())) {
+                updates.add(call.getParameters());
+            }
+        }
+        return updates;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> changedCaptions(Object[] update) {
+        List<String> captions = new ArrayList<>();
+        for (CalendarState.Item item : (List<CalendarState.Item>) update[0]) {
+            captions.add(item.caption);
+        }
+        return captions;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> removedKeys(Object[] update) {
+        return (List<String>) update[1];
+    }
+
+    @Test
+    public void initialResponseSendsAllItems() {
+        assertEquals(2, calendar.getState(false).items.size());
+        assertNotNull(keyOf("First"));
+        assertNotNull(keyOf("Second"));
+    }
+
+    @Test
+    public void moveSendsTheMovedItem() {
+        String key = keyOf("First");
+
+        first.setStart(new Date(MONDAY + 2 * DAY + 9 * HOUR));
+        first.setEnd(new Date(MONDAY + 2 * DAY + 10 * HOUR));
+        Object[] update = respondWithDelta();
+
+        assertEquals(Collections.singletonList("First"), changedCaptions(update));
+        assertEquals(key, ((CalendarState.Item) ((List<?>) update[0]).get(0)).key);
+        assertEquals(Collections.emptyList(), removedKeys(update));
+    }
+
+    @Test
+    public void addSendsTheNewItem() {
+        provider.addItem(item("Third", 3, 12));
+        Object[] update = respondWithDelta();
+
+        assertEquals(Collections.singletonList("Third"), changedCaptions(update));
+        assertEquals(Collections.emptyList(), removedKeys(update));
+    }
+
+    @Test
+    public void removeSendsTheKey() {
+        String key = keyOf("Second");
+
+        provider.removeItem(second);
+        Object[] update = respondWithDelta();
+
+        assertEquals(Collections.emptyList(), changedCaptions(update));
+        assertEquals(Collections.singletonList(key), removedKeys(update));
+    }
+
+    @Test
+    public void batchedChangesAreSentTogether() {
+        String key = keyOf("Second");
+
+        provider.batch(p -> {
+            p.addItem(item("Third", 3, 12));
+            p.removeItem(second);
+            first.setCaption("Renamed");
+        });
+        Object[] update = respondWithDelta();
+
+        List<String> changed = changedCaptions(update);
+        Collections.sort(changed);
+        assertEquals(Arrays.asList("Renamed", "Third"), changed);
+        assertEquals(Collections.singletonList(key), removedKeys(update));
+    }
+
+    @Test
+    public void changeOutsideTheRangeSendsNothing() {
+        provider.addItem(item("Later", 14, 9));
+        calendar.beforeClientResponse(false);
+
+        assertEquals(Collections.emptyList(), updateCalls());
+    }
+
+    @Test
+    public void rangeChangeSendsAllItems() {
+        calendar.setStartDate(new Date(MONDAY + DAY));
+        respondWithFullSync();
+
+        assertEquals(1, calendar.getState(false).items.size());
+        assertEquals("Second", calendar.getState(false).items.get(0).caption);
+    }
+
+    @Test
+    public void formatChangeSendsAllItems() {
+        calendar.setItemEpochFormat(true);
+        respondWithFullSync();
+
+        assertEquals(2, calendar.getState(false).items.size());
+
+        calendar.setItemColumnarFormat(true);
+        respondWithFullSync();
+
+        assertEquals(2, calendar.getState(false).itemColumns.keys.length);
+    }
+
+    @Test
+    public void changeAfterFullSyncIsADeltaAgain() {
+        calendar.setItemEpochFormat(true);
+        respondWithFullSync();
+
+        provider.removeItem(first);
+        Object[] update = respondWithDelta();
+
+        assertEquals(1, removedKeys(update).size());
+    }
+}
@@ -0,0 +1,94 @@
+package org.vaadin.addon.calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class ItemKeyMapperTest {
+
+    @Test
+    public void keyIsStableForTheSameItem() {
+        ItemKeyMapper<Object> mapper = new ItemKeyMapper<>();
+        Object item = new Object();
+
+        String key = mapper.key(item);
+
+        assertEquals(key, mapper.key(item));
+        assertSame(item, mapper.get(key));
+        assertTrue(mapper.containsItem(item));
+    }
+
+    @Test
+    public void equalItemsGetKeysOfTheirOwn() {
+        ItemKeyMapper<String> mapper = new ItemKeyMapper<>();
+        String first = new String("item");
+        String second = new String("item");
+
+        String firstKey = mapper.key(first);
+        String secondKey = mapper.key(second);
+
+        assertFalse(firstKey.equals(secondKey));
+        assertSame(first, mapper.get(firstKey));
+        assertSame(second, mapper.get(secondKey));
+    }
+
+    @Test
+    public void removedKeyIsNotReused() {
+        ItemKeyMapper<Object> mapper = new ItemKeyMapper<>();
+        Object item = new Object();
+        String key = mapper.key(item);
+
+        mapper.remove(item);
+
+        assertNull(mapper.get(key));
+        assertFalse(mapper.containsItem(item));
+        assertFalse(key.equals(mapper.key(item)));
+        assertFalse(key.equals(mapper.key(new Object())));
+    }
+
+    @Test
+    public void retainAllRemovesOtherItems() {
+        ItemKeyMapper<Object> mapper = new ItemKeyMapper<>();
+        Object kept = new Object();
+        Object dropped = new Object();
+        String keptKey = mapper.key(kept);
+        String droppedKey = mapper.key(dropped);
+
+        mapper.retainAll(Collections.singletonList(kept));
+
+        assertSame(kept, mapper.get(keptKey));
+        assertNull(mapper.get(droppedKey));
+        assertEquals(keptKey, mapper.key(kept));
+    }
+
+    @Test
+    public void retainAllComparesByIdentity() {
+        ItemKeyMapper<String> mapper = new ItemKeyMapper<>();
+        String mapped = new String("item");
+        String key = mapper.key(mapped);
+
+        mapper.retainAll(Arrays.asList(new String("item")));
+
+        assertNull(mapper.get(key));
+        assertFalse(mapper.containsItem(mapped));
+    }
+
+    @Test
+    public void unknownKeysGiveNull() {
+        ItemKeyMapper<Object> mapper = new ItemKeyMapper<>();
+        mapper.key(new Object());
+
+        assertNull(mapper.get(null));
+        assertNull(mapper.get("unknown"));
+
+        mapper.removeAll();
+        assertNull(mapper.get("1"));
+    }
+}
@@ -0,0 +1,124 @@
+package org.vaadin.addon.calendar;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.vaadin.addon.calendar.client.CalendarItemTimes;
+
+/**
+ * Encodes item times like the server does and decodes them with the client's
+ * {@link CalendarItemTimes}, around daylight saving time transitions.
+ */
+public class NumericItemTimesTest {
+
+    private static final long MINUTE = 60 * 1000L;
+
+    private static final long DAY = 24 * 60 * MINUTE;
+
+    private TimeZone defaultZone;
+
+    @Before
+    public void setUp() {
+        // the client builds dates in the browser zone, one without DST here
+        defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(defaultZone);
+    }
+
+    /**
+     * Checks every quarter hour from two days before to four days after the
+     * start of the first shown day.
+     */
+    @SuppressWarnings("deprecation")
+    private static void assertRoundTrip(String zoneId, LocalDate firstDay) {
+        ZoneId zone = ZoneId.of(zoneId);
+        long epoch = firstDay.atStartOfDay(zone).toInstant().toEpochMilli();
+        long first = epoch - 2 * DAY;
+        long last = epoch + 4 * DAY;
+
+        int[] table = Calendar.createZoneTable(zone.getRules(), epoch, first, last);
+        CalendarItemTimes times = new CalendarItemTimes(new Date(firstDay.getYear() - 1900,
+                firstDay.getMonthValue() - 1, firstDay.getDayOfMonth()), table);
+
+        for (long time = first; time <= last; time += 15 * MINUTE) {
+            LocalDateTime wall = Instant.ofEpochMilli(time).atZone(zone).toLocalDateTime();
+            int seconds = Calendar.toItemSeconds(new Date(time), epoch);
+
+            Date dateTime = times.toDateTime(seconds);
+            String message = zoneId + " " + Instant.ofEpochMilli(time);
+            assertEquals(message, wall.getYear() - 1900, dateTime.getYear());
+            assertEquals(message, wall.getMonthValue() - 1, dateTime.getMonth());
+            assertEquals(message, wall.getDayOfMonth(), dateTime.getDate());
+            assertEquals(message, wall.getHour(), dateTime.getHours());
+            assertEquals(message, wall.getMinute(), dateTime.getMinutes());
+
+            Date date = times.toDate(seconds);
+            assertEquals(message, wall.getDayOfMonth(), date.getDate());
+            assertEquals(message, 0, date.getHours());
+            assertEquals(message, 0, date.getMinutes());
+        }
+    }
+
+    @Test
+    public void springForwardDay() {
+        assertRoundTrip("Europe/Helsinki", LocalDate.of(2026, 3, 29));
+        assertRoundTrip("America/New_York", LocalDate.of(2026, 3, 8));
+    }
+
+    @Test
+    public void fallBackDay() {
+        assertRoundTrip("Europe/Helsinki", LocalDate.of(2026, 10, 25));
+        assertRoundTrip("America/New_York", LocalDate.of(2026, 11, 1));
+    }
+
+    @Test
+    public void weekWithTransitionInTheMiddle() {
+        assertRoundTrip("Europe/Helsinki", LocalDate.of(2026, 3, 26));
+        assertRoundTrip("America/New_York", LocalDate.of(2026, 10, 29));
+    }
+
+    @Test
+    public void zoneWithoutTransitions() {
+        assertRoundTrip("Asia/Tokyo", LocalDate.of(2026, 3, 29));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void itemCrossingTheTransitionKeepsItsWallTimes() {
+        ZoneId zone = ZoneId.of("Europe/Helsinki");
+        LocalDate day = LocalDate.of(2026, 3, 29);
+        long epoch = day.atStartOfDay(zone).toInstant().toEpochMilli();
+        // 02:30 to 04:30, 03:00 to 04:00 is skipped
+        ZonedDateTime start = ZonedDateTime.of(day.atTime(2, 30), zone);
+        ZonedDateTime end = ZonedDateTime.of(day.atTime(4, 30), zone);
+
+        int[] table = Calendar.createZoneTable(zone.getRules(), epoch, epoch, epoch + DAY);
+        CalendarItemTimes times = new CalendarItemTimes(new Date(126, 2, 29), table);
+
+        Date decodedStart = times.toDateTime(
+                Calendar.toItemSeconds(Date.from(start.toInstant()), epoch));
+        Date decodedEnd = times.toDateTime(
+                Calendar.toItemSeconds(Date.from(end.toInstant()), epoch));
+
+        assertEquals(4, table.length);
+        assertEquals(2, decodedStart.getHours());
+        assertEquals(30, decodedStart.getMinutes());
+        assertEquals(4, decodedEnd.getHours());
+        assertEquals(30, decodedEnd.getMinutes());
+        assertEquals(60 * MINUTE, end.toInstant().toEpochMilli() - start.toInstant().toEpochMilli());
+    }
+}
@@ -0,0 +1,76 @@
+package org.vaadin.addon.calendar.client;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+@SuppressWarnings("deprecation")
+public class CalendarActionIndexTest {
+
+    private static final int HOUR = 60 * 60;
+
+    private static final int DAY = 24 * HOUR;
+
+    private static final Date BASE = new Date(126, 0, 5);
+
+    /*
+     * A long range with action 2 over the first two days, action 0 from 9 to
+     * 10 on the first day and actions 0 and 1 from 8 to 12 on the second day.
+     */
+    private final CalendarActionIndex index = new CalendarActionIndex(BASE,
+            new int[] { 0, 2 * DAY, 5, 9 * HOUR, 10 * HOUR, 0,
+                    DAY + 8 * HOUR, DAY + 12 * HOUR, 2 },
+            new int[] { 1, 0, 2, 0, 1, 1, 2 }, 3);
+
+    private static Date at(int day, int hour) {
+        return new Date(126, 0, 5 + day, hour, 0, 0);
+    }
+
+    @Test
+    public void rangesAreDecodedFromTheBaseDay() {
+        assertEquals(3, index.size());
+        assertEquals(at(0, 9), index.getStart(1));
+        assertEquals(at(0, 10), index.getEnd(1));
+        assertEquals(at(2, 0), index.getEnd(0));
+        assertEquals(Arrays.asList(0, 1), toList(index.getActions(2)));
+    }
+
+    @Test
+    public void rangeInsideAnAction() {
+        assertEquals(Arrays.asList(0, 2), index.getActionsBetween(
+                new Date(at(0, 9).getTime() + 30 * 60000), at(0, 10)));
+    }
+
+    @Test
+    public void actionsOfAllMatchingRangesAreMerged() {
+        assertEquals(Arrays.asList(0, 1, 2), index.getActionsBetween(at(1, 0), at(1, 23)));
+    }
+
+    @Test
+    public void touchingRangesDoNotMatch() {
+        assertEquals(Collections.singletonList(2),
+                index.getActionsBetween(at(0, 10), at(0, 11)));
+        assertEquals(Collections.emptyList(), index.getActionsBetween(at(2, 0), at(2, 5)));
+    }
+
+    @Test
+    public void emptyIndex() {
+        CalendarActionIndex empty = new CalendarActionIndex(BASE, null, null, 0);
+
+        assertEquals(0, empty.size());
+        assertEquals(Collections.emptyList(), empty.getActionsBetween(at(0, 0), at(5, 0)));
+    }
+
+    private static List<Integer> toList(int[] values) {
+        Integer[] boxed = new Integer[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return Arrays.asList(boxed);
+    }
+}
@@ -0,0 +1,155 @@
+package org.vaadin.addon.calendar.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vaadin.server.JsonCodec;
+
+public class ItemColumnsCodecTest {
+
+    private static final String[] STYLES = { "color1", "color2", "color3", "color4" };
+
+    /**
+     * A week of 500 items starting on the half hours of seven days, with
+     * captions repeating every 40 items and every fifth item having a
+     * description.
+     */
+    private static List<CalendarState.Item> week(boolean numericTimes) {
+        List<CalendarState.Item> items = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            CalendarState.Item item = new CalendarState.Item();
+            item.key = String.valueOf(i + 1);
+            item.caption = "Meeting " + i % 40;
+            item.styleName = STYLES[i % STYLES.length];
+            item.description = i % 5 == 0 ? "Room " + i % 7 : "";
+            item.hasDescription = i % 5 == 0;
+            item.allDay = i % 50 == 0;
+            item.moveable = i % 3 != 0;
+            item.resizeable = i % 4 != 0;
+            item.clickable = i % 6 != 0;
+            int day = i % 7;
+            int minute = 8 * 60 + i % 20 * 30;
+            if (numericTimes) {
+                item.start = (day * 24 * 60 + minute) * 60;
+                item.end = item.start + 45 * 60;
+            } else {
+                item.dateFrom = "2026-01-0" + (5 + day);
+                item.dateTo = item.dateFrom;
+                item.timeFrom = time(minute);
+                item.timeTo = time(minute + 45);
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static String time(int minute) {
+        return String.format("%02d:%02d:00", minute / 60, minute % 60);
+    }
+
+    private static void assertSameItem(CalendarState.Item expected, CalendarState.Item actual) {
+        assertEquals(expected.key, actual.key);
+        assertEquals(expected.caption, actual.caption);
+        assertEquals(expected.styleName, actual.styleName);
+        assertEquals(expected.description, actual.description);
+        assertEquals(expected.start, actual.start);
+        assertEquals(expected.end, actual.end);
+        assertEquals(expected.hasDescription, actual.hasDescription);
+        assertEquals(expected.allDay, actual.allDay);
+        assertEquals(expected.moveable, actual.moveable);
+        assertEquals(expected.resizeable, actual.resizeable);
+        assertEquals(expected.clickable, actual.clickable);
+    }
+
+    private static int encodedSize(Object value, Type type) {
+        return JsonCodec.encode(value, null, type, null).getEncodedValue().toJson().length();
+    }
+
+    @Test
+    public void weekRoundTrips() {
+        List<CalendarState.Item> items = week(true);
+
+        List<CalendarState.Item> decoded = ItemColumnsCodec.decode(ItemColumnsCodec.encode(items));
+
+        assertEquals(items.size(), decoded.size());
+        for (int i = 0; i < items.size(); i++) {
+            assertSameItem(items.get(i), decoded.get(i));
+        }
+    }
+
+    @Test
+    public void everyFlagRoundTrips() {
+        List<CalendarState.Item> items = new ArrayList<>();
+        for (int flags = 0; flags < 32; flags++) {
+            CalendarState.Item item = new CalendarState.Item();
+            item.key = "k" + flags;
+            item.allDay = (flags & 1) != 0;
+            item.moveable = (flags & 2) != 0;
+            item.resizeable = (flags & 4) != 0;
+            item.clickable = (flags & 8) != 0;
+            item.hasDescription = (flags & 16) != 0;
+            items.add(item);
+        }
+
+        CalendarState.ItemColumns columns = ItemColumnsCodec.encode(items);
+        List<CalendarState.Item> decoded = ItemColumnsCodec.decode(columns);
+
+        for (int flags = 0; flags < 32; flags++) {
+            assertEquals(flags, columns.flags[flags]);
+            assertSameItem(items.get(flags), decoded.get(flags));
+        }
+        assertEquals(16, CalendarState.ItemColumns.HAS_DESCRIPTION);
+    }
+
+    @Test
+    public void nullAndSharedStringsAreStoredOnce() {
+        CalendarState.Item first = new CalendarState.Item();
+        first.key = "1";
+        first.caption = "Shared";
+        first.styleName = null;
+        first.description = "";
+        CalendarState.Item second = new CalendarState.Item();
+        second.key = "2";
+        second.caption = null;
+        second.styleName = "Shared";
+        second.description = "";
+
+        CalendarState.ItemColumns columns = ItemColumnsCodec.encode(Arrays.asList(first, second));
+
+        assertEquals(3, columns.strings.length);
+        assertEquals(columns.captions[0], columns.styleNames[1]);
+        assertEquals(columns.styleNames[0], columns.captions[1]);
+        assertEquals(columns.descriptions[0], columns.descriptions[1]);
+
+        List<CalendarState.Item> decoded = ItemColumnsCodec.decode(columns);
+        assertSameItem(first, decoded.get(0));
+        assertSameItem(second, decoded.get(1));
+        assertNull(decoded.get(1).caption);
+    }
+
+    @Test
+    public void emptyItemList() {
+        CalendarState.ItemColumns columns = ItemColumnsCodec.encode(new ArrayList<>());
+
+        assertEquals(0, columns.strings.length);
+        assertTrue(ItemColumnsCodec.decode(columns).isEmpty());
+    }
+
+    @Test
+    public void columnsAreAThirdOfTheObjectPayload() throws Exception {
+        int objects = encodedSize(week(false),
+                CalendarState.class.getField("items").getGenericType());
+        int columns = encodedSize(ItemColumnsCodec.encode(week(true)),
+                CalendarState.ItemColumns.class);
+
+        assertTrue("objects " + objects + " columns " + columns, objects >= 3 * columns);
+    }
+}
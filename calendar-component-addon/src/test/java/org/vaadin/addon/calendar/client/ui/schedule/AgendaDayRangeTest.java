@@ -0,0 +1,66 @@
+package org.vaadin.addon.calendar.client.ui.schedule;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AgendaDayRangeTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private static final long DAY = 24 * HOUR;
+
+    private static final long DAY_START = 100 * DAY;
+
+    private static final long NEXT_DAY_START = DAY_START + DAY;
+
+    @Test
+    public void timedItemIsShownOnItsDay() {
+        long start = DAY_START + 10 * HOUR;
+        long end = DAY_START + 11 * HOUR;
+
+        assertTrue(AgendaDayRange.isOnDay(start, end, DAY_START, NEXT_DAY_START));
+        assertTrue(AgendaDayRange.startsOnDay(start, DAY_START, NEXT_DAY_START));
+        assertTrue(AgendaDayRange.endsOnDay(end, DAY_START, NEXT_DAY_START));
+    }
+
+    @Test
+    public void timedItemIsNotShownOnOtherDays() {
+        long start = DAY_START + 10 * HOUR;
+        long end = DAY_START + 11 * HOUR;
+
+        assertFalse(AgendaDayRange.isOnDay(start, end, DAY_START - DAY, DAY_START));
+        assertFalse(AgendaDayRange.isOnDay(start, end, NEXT_DAY_START, NEXT_DAY_START + DAY));
+    }
+
+    @Test
+    public void itemEndingAtMidnightIsNotShownOnTheNextDay() {
+        long start = DAY_START + 22 * HOUR;
+
+        assertTrue(AgendaDayRange.isOnDay(start, NEXT_DAY_START, DAY_START, NEXT_DAY_START));
+        assertTrue(AgendaDayRange.endsOnDay(NEXT_DAY_START, DAY_START, NEXT_DAY_START));
+        assertFalse(AgendaDayRange.isOnDay(start, NEXT_DAY_START, NEXT_DAY_START,
+                NEXT_DAY_START + DAY));
+    }
+
+    @Test
+    public void zeroLengthItemAtMidnightIsShown() {
+        assertTrue(AgendaDayRange.isOnDay(DAY_START, DAY_START, DAY_START, NEXT_DAY_START));
+        assertFalse(AgendaDayRange.isOnDay(NEXT_DAY_START, NEXT_DAY_START, DAY_START,
+                NEXT_DAY_START));
+    }
+
+    @Test
+    public void itemOverDaysShowsTimesOnlyOnFirstAndLastDay() {
+        long start = DAY_START + 20 * HOUR;
+        long end = NEXT_DAY_START + DAY + 2 * HOUR;
+        long middleStart = NEXT_DAY_START;
+        long middleEnd = NEXT_DAY_START + DAY;
+
+        assertTrue(AgendaDayRange.isOnDay(start, end, middleStart, middleEnd));
+        assertFalse(AgendaDayRange.startsOnDay(start, middleStart, middleEnd));
+        assertFalse(AgendaDayRange.endsOnDay(end, middleStart, middleEnd));
+        assertFalse(AgendaDayRange.endsOnDay(end, DAY_START, NEXT_DAY_START));
+    }
+}
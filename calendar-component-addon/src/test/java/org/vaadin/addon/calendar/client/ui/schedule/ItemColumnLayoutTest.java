@@ -0,0 +1,132 @@
+package org.vaadin.addon.calendar.client.ui.schedule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ItemColumnLayoutTest {
+
+    private static boolean overlap(long[] starts, long[] ends, int a, int b) {
+        return starts[a] < ends[b] && ends[a] > starts[b];
+    }
+
+    @Test
+    public void separateItemsTakeTheWholeWidth() {
+        long[] starts = { 0, 60, 120 };
+        long[] ends = { 30, 90, 150 };
+
+        ItemColumnLayout layout = new ItemColumnLayout(starts, ends);
+
+        for (int i = 0; i < starts.length; i++) {
+            assertEquals(0, layout.getColumn(i));
+            assertEquals(1, layout.getColumnCount(i));
+        }
+    }
+
+    @Test
+    public void touchingItemsDoNotOverlap() {
+        long[] starts = { 0, 60 };
+        long[] ends = { 60, 120 };
+
+        ItemColumnLayout layout = new ItemColumnLayout(starts, ends);
+
+        assertEquals(0, layout.getColumn(1));
+        assertEquals(1, layout.getColumnCount(0));
+        assertEquals(1, layout.getColumnCount(1));
+    }
+
+    @Test
+    public void itemsWithEqualStartsKeepTheirOrder() {
+        long[] starts = { 60, 60, 60 };
+        long[] ends = { 120, 90, 180 };
+
+        ItemColumnLayout layout = new ItemColumnLayout(starts, ends);
+
+        for (int i = 0; i < starts.length; i++) {
+            assertEquals(i, layout.getColumn(i));
+            assertEquals(3, layout.getColumnCount(i));
+        }
+    }
+
+    @Test
+    public void freedColumnIsReused() {
+        // the second item ends before the third starts, the first does not
+        long[] starts = { 0, 0, 40 };
+        long[] ends = { 100, 30, 60 };
+
+        ItemColumnLayout layout = new ItemColumnLayout(starts, ends);
+
+        assertEquals(1, layout.getColumn(2));
+        assertEquals(2, layout.getColumnCount(2));
+    }
+
+    @Test
+    public void clusterSharesItsColumnCount() {
+        // the first and last item overlap only through the middle one
+        long[] starts = { 0, 50, 90, 200 };
+        long[] ends = { 60, 100, 120, 230 };
+
+        ItemColumnLayout layout = new ItemColumnLayout(starts, ends);
+
+        assertEquals(2, layout.getColumnCount(0));
+        assertEquals(2, layout.getColumnCount(1));
+        assertEquals(2, layout.getColumnCount(2));
+        assertEquals(0, layout.getColumn(2));
+        assertEquals(1, layout.getColumnCount(3));
+    }
+
+    @Test
+    public void zeroLengthItems() {
+        // inside another item, at the start of another item, and together
+        long[] starts = { 0, 30, 100, 100, 200, 200 };
+        long[] ends = { 60, 30, 100, 160, 200, 200 };
+
+        ItemColumnLayout layout = new ItemColumnLayout(starts, ends);
+
+        assertEquals(2, layout.getColumnCount(1));
+        assertEquals(1, layout.getColumn(1));
+        assertEquals(1, layout.getColumnCount(2));
+        assertEquals(1, layout.getColumnCount(3));
+        assertEquals(1, layout.getColumnCount(4));
+        assertEquals(1, layout.getColumnCount(5));
+    }
+
+    @Test
+    public void emptyDayAndSingleItem() {
+        new ItemColumnLayout(new long[0], new long[0]);
+
+        ItemColumnLayout layout = new ItemColumnLayout(new long[] { 10 }, new long[] { 20 });
+        assertEquals(0, layout.getColumn(0));
+        assertEquals(1, layout.getColumnCount(0));
+    }
+
+    @Test
+    public void overlappingItemsNeverShareAColumn() {
+        Random random = new Random(3);
+        for (int round = 0; round < 200; round++) {
+            int count = 1 + random.nextInt(40);
+            long[] starts = new long[count];
+            long[] ends = new long[count];
+            for (int i = 0; i < count; i++) {
+                starts[i] = random.nextInt(24 * 4) * 15;
+                ends[i] = starts[i] + random.nextInt(8) * 15;
+            }
+
+            ItemColumnLayout layout = new ItemColumnLayout(starts, ends);
+
+            for (int a = 0; a < count; a++) {
+                assertTrue(layout.getColumn(a) < layout.getColumnCount(a));
+                for (int b = a + 1; b < count; b++) {
+                    if (overlap(starts, ends, a, b)) {
+                        assertFalse(layout.getColumn(a) == layout.getColumn(b));
+                        assertEquals(layout.getColumnCount(a), layout.getColumnCount(b));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package org.vaadin.addon.calendar.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachingItemProviderTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    /** Records the ranges the wrapped provider is queried for. */
+    @SuppressWarnings("serial")
+    private static class RecordingProvider extends IndexedItemProvider<BasicItem> {
+
+        final List<long[]> queries = new ArrayList<>();
+
+        @Override
+        public List<BasicItem> getItems(Date startDate, Date endDate) {
+            queries.add(new long[] { startDate.getTime(), endDate.getTime() });
+            return super.getItems(startDate, endDate);
+        }
+    }
+
+    private RecordingProvider provider;
+
+    private CachingItemProvider<BasicItem> cache;
+
+    @Before
+    public void setUp() {
+        provider = new RecordingProvider();
+        cache = new CachingItemProvider<>(provider);
+    }
+
+    private static BasicItem item(int day) {
+        return new BasicItem("item", null, new Date(day * DAY + 10 * HOUR),
+                new Date(day * DAY + 11 * HOUR));
+    }
+
+    private List<BasicItem> query(int firstDay, int lastDay) {
+        return cache.getItems(new Date(firstDay * DAY), new Date((lastDay + 1) * DAY - 1));
+    }
+
+    @Test
+    public void cachedDaysAreNotQueriedAgain() {
+        provider.addItem(item(10));
+
+        assertEquals(1, query(8, 12).size());
+        assertEquals(1, query(8, 12).size());
+        assertEquals(1, query(9, 11).size());
+
+        assertEquals(1, provider.queries.size());
+    }
+
+    @Test
+    public void onlyMissingDaysAreLoaded() {
+        query(10, 12);
+        query(10, 14);
+
+        assertEquals(2, provider.queries.size());
+        assertEquals(13 * DAY, provider.queries.get(1)[0]);
+        assertEquals(15 * DAY - 1, provider.queries.get(1)[1]);
+    }
+
+    @Test
+    public void itemsAreFilteredToTheQueriedRange() {
+        provider.addItem(item(10));
+
+        query(10, 10);
+
+        assertTrue(cache.getItems(new Date(10 * DAY), new Date(10 * DAY + 9 * HOUR)).isEmpty());
+        assertEquals(1, cache.getItems(new Date(10 * DAY + 11 * HOUR),
+                new Date(11 * DAY - 1)).size());
+    }
+
+    @Test
+    public void itemSpanningDaysIsReturnedOnce() {
+        BasicItem spanning = new BasicItem("item", null, new Date(10 * DAY + 20 * HOUR),
+                new Date(12 * DAY + 2 * HOUR));
+        provider.addItem(spanning);
+
+        assertEquals(1, query(9, 13).size());
+    }
+
+    @Test
+    public void leastRecentlyUsedDaysAreEvicted() {
+        // each empty day takes one entry
+        cache.setMaxCachedItems(2);
+
+        query(1, 1);
+        query(2, 2);
+        query(1, 1);
+        query(3, 3);
+        assertEquals(3, provider.queries.size());
+
+        // day 2 was used least recently
+        query(1, 1);
+        assertEquals(3, provider.queries.size());
+        query(2, 2);
+        assertEquals(4, provider.queries.size());
+    }
+
+    @Test
+    public void invalidateClearsAllDays() {
+        query(1, 3);
+
+        cache.invalidate();
+        query(1, 3);
+
+        assertEquals(2, provider.queries.size());
+    }
+
+    @Test
+    public void invalidateRangeClearsOnlyItsDays() {
+        query(1, 5);
+
+        cache.invalidate(new Date(3 * DAY + HOUR), new Date(3 * DAY + 2 * HOUR));
+        query(1, 5);
+
+        assertEquals(2, provider.queries.size());
+        assertEquals(3 * DAY, provider.queries.get(1)[0]);
+        assertEquals(4 * DAY - 1, provider.queries.get(1)[1]);
+    }
+
+    @Test
+    public void addedItemIsReturnedFromCachedDays() {
+        query(1, 5);
+        List<CalendarItemProvider.ItemSetChangedEvent> events = new ArrayList<>();
+        cache.addItemSetChangedListener(events::add);
+
+        BasicItem added = item(3);
+        provider.addItem(added);
+
+        assertEquals(1, events.size());
+        assertTrue(events.get(0).isDetailed());
+        assertTrue(query(1, 5).contains(added));
+    }
+
+    @Test
+    public void movedItemIsReturnedFromItsNewDay() {
+        BasicItem moved = item(1);
+        provider.addItem(moved);
+        query(1, 5);
+
+        moved.setStart(new Date(4 * DAY + 10 * HOUR));
+        moved.setEnd(new Date(4 * DAY + 11 * HOUR));
+
+        assertFalse(query(1, 1).contains(moved));
+        assertTrue(query(4, 4).contains(moved));
+    }
+
+    @Test
+    public void adjacentRangesArePrefetched() {
+        cache = new CachingItemProvider<>(provider, Runnable::run);
+
+        query(10, 12);
+
+        assertEquals(3, provider.queries.size());
+        provider.queries.clear();
+
+        // served from the prefetched days, only the ranges beyond are loaded
+        query(7, 15);
+        for (long[] range : provider.queries) {
+            assertTrue(range[1] < 7 * DAY || range[0] > 16 * DAY - 1);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.vaadin.addon.calendar.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class IndexedItemProviderTest {
+
+    private static BasicItem item(long start, long end) {
+        return new BasicItem("item", null, new Date(start), new Date(end));
+    }
+
+    private static Set<BasicItem> identitySet(List<BasicItem> items) {
+        Set<BasicItem> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(items);
+        return set;
+    }
+
+    private static Set<BasicItem> overlapping(List<BasicItem> items, long from, long to) {
+        List<BasicItem> result = new ArrayList<>();
+        for (BasicItem item : items) {
+            if (item.getStart().getTime() <= to && item.getEnd().getTime() >= from) {
+                result.add(item);
+            }
+        }
+        return identitySet(result);
+    }
+
+    @Test
+    public void rangeQueriesMatchFullScan() {
+        Random random = new Random(42);
+        IndexedItemProvider<BasicItem> provider = new IndexedItemProvider<>();
+        List<BasicItem> items = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long start = random.nextInt(100000);
+            // mostly short items and a few long ones to exercise maxEnd
+            long length = i % 50 == 0 ? random.nextInt(50000) : random.nextInt(500);
+            items.add(item(start, start + length));
+        }
+        provider.setItems(items);
+
+        for (int i = 0; i < 500; i++) {
+            long from = random.nextInt(110000) - 5000;
+            long to = from + random.nextInt(3000);
+            List<BasicItem> found = provider.getItems(new Date(from), new Date(to));
+
+            assertEquals(found.size(), identitySet(found).size());
+            assertEquals(overlapping(items, from, to), identitySet(found));
+        }
+    }
+
+    @Test
+    public void rangeBoundsAreInclusive() {
+        IndexedItemProvider<BasicItem> provider = new IndexedItemProvider<>();
+        BasicItem endsAtStart = item(0, 100);
+        BasicItem startsAtEnd = item(200, 300);
+        BasicItem before = item(0, 99);
+        BasicItem after = item(201, 300);
+        provider.setItems(Arrays.asList(endsAtStart, startsAtEnd, before, after));
+
+        Set<BasicItem> found = identitySet(provider.getItems(new Date(100), new Date(200)));
+
+        assertEquals(2, found.size());
+        assertTrue(found.contains(endsAtStart));
+        assertTrue(found.contains(startsAtEnd));
+    }
+
+    @Test
+    public void itemsWithEqualStartsAreReturnedInInsertionOrder() {
+        IndexedItemProvider<BasicItem> provider = new IndexedItemProvider<>();
+        List<BasicItem> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            BasicItem item = item(1000, 1000 + i);
+            items.add(item);
+            provider.addItem(item);
+        }
+
+        List<BasicItem> found = provider.getItems(new Date(0), new Date(5000));
+
+        assertEquals(items.size(), found.size());
+        for (int i = 0; i < items.size(); i++) {
+            assertTrue(items.get(i) == found.get(i));
+        }
+    }
+
+    @Test
+    public void removedItemsAreNotReturned() {
+        Random random = new Random(7);
+        IndexedItemProvider<BasicItem> provider = new IndexedItemProvider<>();
+        List<BasicItem> items = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long start = random.nextInt(10000);
+            items.add(item(start, start + random.nextInt(1000)));
+        }
+        provider.setItems(items);
+
+        List<BasicItem> removed = new ArrayList<>(items.subList(0, 250));
+        provider.removeItems(removed);
+        items.removeAll(removed);
+
+        assertEquals(250, provider.size());
+        assertFalse(provider.containsItem(removed.get(0)));
+        assertEquals(overlapping(items, 0, 20000),
+                identitySet(provider.getItems(new Date(0), new Date(20000))));
+    }
+
+    @Test
+    public void movedItemIsFoundAtItsNewDates() {
+        IndexedItemProvider<BasicItem> provider = new IndexedItemProvider<>();
+        BasicItem moved = item(0, 100);
+        // a long item which keeps maxEnd of the old position high
+        BasicItem longItem = item(50, 100000);
+        provider.setItems(Arrays.asList(moved, longItem));
+
+        moved.setStart(new Date(5000));
+        moved.setEnd(new Date(5100));
+
+        assertFalse(identitySet(provider.getItems(new Date(0), new Date(100))).contains(moved));
+        assertTrue(identitySet(provider.getItems(new Date(5050), new Date(5060))).contains(moved));
+    }
+
+    @Test
+    public void itemsWithoutDatesAreHeldButNotReturned() {
+        IndexedItemProvider<BasicItem> provider = new IndexedItemProvider<>();
+        BasicItem undated = new BasicItem();
+        provider.addItem(undated);
+
+        assertTrue(provider.containsItem(undated));
+        assertTrue(provider.getItems(new Date(Long.MIN_VALUE / 2),
+                new Date(Long.MAX_VALUE / 2)).isEmpty());
+
+        undated.setStart(new Date(10));
+        undated.setEnd(new Date(20));
+
+        assertEquals(1, provider.getItems(new Date(0), new Date(100)).size());
+    }
+
+    @Test
+    public void batchFiresOneDetailedEvent() {
+        IndexedItemProvider<BasicItem> provider = new IndexedItemProvider<>();
+        BasicItem removed = item(0, 10);
+        provider.addItem(removed);
+
+        List<CalendarItemProvider.ItemSetChangedEvent> events = new ArrayList<>();
+        provider.addItemSetChangedListener(events::add);
+
+        BasicItem added = item(20, 30);
+        provider.batch(p -> {
+            p.addItem(added);
+            p.removeItem(removed);
+        });
+
+        assertEquals(1, events.size());
+        assertTrue(events.get(0).isDetailed());
+        assertEquals(1, events.get(0).getAddedItems().size());
+        assertEquals(1, events.get(0).getRemovedItems().size());
+    }
+}
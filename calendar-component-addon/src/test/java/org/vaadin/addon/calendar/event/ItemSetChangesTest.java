@@ -0,0 +1,117 @@
+package org.vaadin.addon.calendar.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+import org.vaadin.addon.calendar.event.CalendarItemProvider.ItemSetChangedEvent;
+
+public class ItemSetChangesTest {
+
+    private final BasicItemProvider<BasicItem> provider = new BasicItemProvider<>();
+
+    private static List<BasicItem> list(BasicItem item) {
+        return Collections.singletonList(item);
+    }
+
+    private static BasicItem item(long start, long end) {
+        return new BasicItem("item", null, new Date(start), new Date(end));
+    }
+
+    @Test
+    public void addedAndRemovedItemCancelsOut() {
+        ItemSetChanges<BasicItem> changes = new ItemSetChanges<>();
+        BasicItem item = item(0, 10);
+
+        changes.added(list(item));
+        changes.modified(list(item));
+        changes.removed(list(item));
+
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    public void removedAndAddedItemIsModified() {
+        ItemSetChanges<BasicItem> changes = new ItemSetChanges<>();
+        BasicItem item = item(0, 10);
+
+        changes.removed(list(item));
+        changes.added(list(item));
+
+        ItemSetChangedEvent<BasicItem> event = changes.toEvent(provider);
+        assertTrue(event.getAddedItems().isEmpty());
+        assertTrue(event.getRemovedItems().isEmpty());
+        assertEquals(list(item), event.getModifiedItems());
+    }
+
+    @Test
+    public void modifiedAndRemovedItemIsRemoved() {
+        ItemSetChanges<BasicItem> changes = new ItemSetChanges<>();
+        BasicItem item = item(0, 10);
+
+        changes.modified(list(item));
+        changes.removed(list(item));
+
+        ItemSetChangedEvent<BasicItem> event = changes.toEvent(provider);
+        assertTrue(event.getModifiedItems().isEmpty());
+        assertEquals(list(item), event.getRemovedItems());
+    }
+
+    @Test
+    public void addedItemStaysAddedWhenModified() {
+        ItemSetChanges<BasicItem> changes = new ItemSetChanges<>();
+        BasicItem item = item(0, 10);
+
+        changes.added(list(item));
+        changes.modified(list(item));
+        changes.modified(list(item));
+
+        ItemSetChangedEvent<BasicItem> event = changes.toEvent(provider);
+        assertEquals(list(item), event.getAddedItems());
+        assertTrue(event.getModifiedItems().isEmpty());
+    }
+
+    @Test
+    public void itemsAreComparedByIdentity() {
+        ItemSetChanges<BasicItem> changes = new ItemSetChanges<>();
+        BasicItem first = item(0, 10);
+        BasicItem equal = item(0, 10);
+
+        changes.added(list(first));
+        changes.removed(list(equal));
+
+        ItemSetChangedEvent<BasicItem> event = changes.toEvent(provider);
+        assertEquals(1, event.getAddedItems().size());
+        assertEquals(1, event.getRemovedItems().size());
+    }
+
+    @Test
+    public void unspecifiedChangeGivesUndetailedEvent() {
+        ItemSetChanges<BasicItem> changes = new ItemSetChanges<>();
+        changes.added(list(item(0, 10)));
+        changes.unspecified();
+
+        assertFalse(changes.isEmpty());
+        assertFalse(changes.toEvent(provider).isDetailed());
+    }
+
+    @Test
+    public void eventRangeCoversAffectedItems() {
+        ItemSetChanges<BasicItem> changes = new ItemSetChanges<>();
+        changes.added(list(item(100, 200)));
+        changes.removed(list(item(50, 60)));
+        changes.modified(list(item(150, 300)));
+
+        ItemSetChangedEvent<BasicItem> event = changes.toEvent(provider);
+        assertEquals(50, event.getStart().getTime());
+        assertEquals(300, event.getEnd().getTime());
+        assertTrue(event.intersects(new Date(300), new Date(400)));
+        assertFalse(event.intersects(new Date(301), new Date(400)));
+        assertFalse(event.intersects(new Date(0), new Date(49)));
+    }
+}
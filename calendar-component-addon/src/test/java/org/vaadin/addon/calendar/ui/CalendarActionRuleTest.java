@@ -0,0 +1,182 @@
+package org.vaadin.addon.calendar.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import com.vaadin.event.Action;
+
+public class CalendarActionRuleTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Helsinki");
+
+    /** A Monday. */
+    private static final LocalDate MONDAY = LocalDate.of(2026, 1, 5);
+
+    private static final Action ACTION = new Action("Add");
+
+    private static Date at(LocalDate day, int hour, int minute) {
+        return Date.from(day.atTime(hour, minute).atZone(ZONE).toInstant());
+    }
+
+    private static Calendar calendar(Locale locale) {
+        return new GregorianCalendar(TimeZone.getTimeZone(ZONE), locale);
+    }
+
+    /**
+     * Gets the range like the calendar does, with the day ending one second
+     * before the next midnight.
+     */
+    private static CalendarDateRange rangeOn(CalendarActionRule rule, LocalDate day, Locale locale) {
+        Date dayStart = at(day, 0, 0);
+        Date dayEnd = new Date(at(day.plusDays(1), 0, 0).getTime() - 1000);
+        return rule.getRangeOn(calendar(locale), dayStart, dayEnd);
+    }
+
+    private static CalendarDateRange rangeOn(CalendarActionRule rule, LocalDate day) {
+        return rangeOn(rule, day, Locale.US);
+    }
+
+    private static void assertRange(Date start, Date end, CalendarDateRange range) {
+        assertEquals(start, range.getStart());
+        assertEquals(end, range.getEnd());
+    }
+
+    private static Date endOf(LocalDate day) {
+        return new Date(at(day.plusDays(1), 0, 0).getTime() - 1000);
+    }
+
+    @Test
+    public void alwaysCoversTheWholeDay() {
+        CalendarActionRule rule = CalendarActionRule.always(ACTION);
+
+        for (int i = 0; i < 7; i++) {
+            LocalDate day = MONDAY.plusDays(i);
+            assertRange(at(day, 0, 0), endOf(day), rangeOn(rule, day));
+        }
+        assertEquals(1, rule.getActions().size());
+    }
+
+    @Test
+    public void dailyAppliesEveryDay() {
+        CalendarActionRule rule = CalendarActionRule.daily(LocalTime.of(8, 0),
+                LocalTime.of(17, 30), ACTION);
+
+        for (int i = 0; i < 7; i++) {
+            LocalDate day = MONDAY.plusDays(i);
+            assertRange(at(day, 8, 0), at(day, 17, 30), rangeOn(rule, day));
+        }
+    }
+
+    @Test
+    public void dailyToEndOfDay() {
+        CalendarActionRule rule = CalendarActionRule.daily(LocalTime.of(20, 0), LocalTime.MAX,
+                ACTION);
+
+        assertRange(at(MONDAY, 20, 0), endOf(MONDAY), rangeOn(rule, MONDAY));
+    }
+
+    @Test
+    public void weeklyMapsEachDayOfWeek() {
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            CalendarActionRule rule = CalendarActionRule.weekly(EnumSet.of(dayOfWeek),
+                    LocalTime.of(9, 0), LocalTime.of(10, 0), ACTION);
+
+            for (int i = 0; i < 7; i++) {
+                LocalDate day = MONDAY.plusDays(i);
+                CalendarDateRange range = rangeOn(rule, day);
+                if (day.getDayOfWeek() == dayOfWeek) {
+                    assertRange(at(day, 9, 0), at(day, 10, 0), range);
+                } else {
+                    assertNull(dayOfWeek + " on " + day, range);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void weeklyOnTheFirstDayOfTheWeek() {
+        // Sunday starts the week in the US, Monday in Finland
+        CalendarActionRule sundays = CalendarActionRule.weekly(EnumSet.of(DayOfWeek.SUNDAY),
+                LocalTime.of(9, 0), LocalTime.of(10, 0), ACTION);
+        CalendarActionRule mondays = CalendarActionRule.weekly(EnumSet.of(DayOfWeek.MONDAY),
+                LocalTime.of(9, 0), LocalTime.of(10, 0), ACTION);
+        LocalDate sunday = MONDAY.minusDays(1);
+
+        for (Locale locale : new Locale[] { Locale.US, new Locale("fi", "FI") }) {
+            assertRange(at(sunday, 9, 0), at(sunday, 10, 0), rangeOn(sundays, sunday, locale));
+            assertNull(rangeOn(sundays, MONDAY, locale));
+            assertRange(at(MONDAY, 9, 0), at(MONDAY, 10, 0), rangeOn(mondays, MONDAY, locale));
+            assertNull(rangeOn(mondays, sunday, locale));
+        }
+    }
+
+    @Test
+    public void weeklyOnDaylightSavingDay() {
+        LocalDate day = LocalDate.of(2026, 3, 29);
+        CalendarActionRule rule = CalendarActionRule.weekly(EnumSet.of(DayOfWeek.SUNDAY),
+                LocalTime.of(2, 0), LocalTime.of(5, 0), ACTION);
+
+        CalendarDateRange range = rangeOn(rule, day);
+
+        assertRange(at(day, 2, 0), at(day, 5, 0), range);
+        assertEquals(2 * 60 * 60 * 1000L, range.getEnd().getTime() - range.getStart().getTime());
+    }
+
+    @Test
+    public void betweenIsClippedToTheDay() {
+        CalendarActionRule rule = CalendarActionRule.between(at(MONDAY, 10, 0),
+                at(MONDAY.plusDays(2), 14, 0), ACTION);
+
+        assertRange(at(MONDAY, 10, 0), endOf(MONDAY), rangeOn(rule, MONDAY));
+        assertRange(at(MONDAY.plusDays(1), 0, 0), endOf(MONDAY.plusDays(1)),
+                rangeOn(rule, MONDAY.plusDays(1)));
+        assertRange(at(MONDAY.plusDays(2), 0, 0), at(MONDAY.plusDays(2), 14, 0),
+                rangeOn(rule, MONDAY.plusDays(2)));
+        assertNull(rangeOn(rule, MONDAY.minusDays(1)));
+        assertNull(rangeOn(rule, MONDAY.plusDays(3)));
+    }
+
+    @Test
+    public void betweenSpanningMidnight() {
+        LocalDate tuesday = MONDAY.plusDays(1);
+        CalendarActionRule rule = CalendarActionRule.between(at(MONDAY, 22, 0),
+                at(tuesday, 2, 0), ACTION);
+
+        assertRange(at(MONDAY, 22, 0), endOf(MONDAY), rangeOn(rule, MONDAY));
+        assertRange(at(tuesday, 0, 0), at(tuesday, 2, 0), rangeOn(rule, tuesday));
+    }
+
+    @Test
+    public void betweenEndingAtMidnightDoesNotTouchTheNextDay() {
+        LocalDate tuesday = MONDAY.plusDays(1);
+        CalendarActionRule rule = CalendarActionRule.between(at(MONDAY, 22, 0),
+                at(tuesday, 0, 0), ACTION);
+
+        assertRange(at(MONDAY, 22, 0), endOf(MONDAY), rangeOn(rule, MONDAY));
+        assertNull(rangeOn(rule, tuesday));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void weeklyRequiresStartBeforeEnd() {
+        CalendarActionRule.weekly(EnumSet.of(DayOfWeek.MONDAY), LocalTime.of(22, 0),
+                LocalTime.of(2, 0), ACTION);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void betweenRequiresStartBeforeEnd() {
+        CalendarActionRule.between(at(MONDAY, 10, 0), at(MONDAY, 10, 0), ACTION);
+    }
+}